@@ -0,0 +1,342 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.mig;
+
+import java.util.*;
+
+import org.sat4j.core.*;
+import org.spldev.analysis.mig.solver.*;
+import org.spldev.analysis.mig.solver.visitor.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+
+/**
+ * Long-lived state of an interactive configuration process. A session owns one
+ * {@link Sat4JMIGSolver solver} and its {@link MIG} and keeps track of the
+ * decisions of the user. After each decision, the session computes all
+ * literals that are implied by the current decisions. Implications that are
+ * reachable via strong edges of the MIG are found by traversal only. The
+ * solver is called solely for literals that are reachable via weak edges, i.e.,
+ * via clauses with more than two literals. All literals that are fixed by the
+ * decisions are kept as assumptions of the solver, such that it can reuse its
+ * learned clauses between decisions.
+ *
+ * @author Sebastian Krieter
+ */
+public class ConfigurationSession {
+
+	/**
+	 * The effect of a single decision.
+	 */
+	public static final class Change {
+
+		private final int decision;
+		private final LiteralList implied;
+
+		private Change(int decision, LiteralList implied) {
+			this.decision = decision;
+			this.implied = implied;
+		}
+
+		/**
+		 * @return the literal that was decided or {@code 0}, if the change was
+		 *         caused by {@link ConfigurationSession#undo()}
+		 */
+		public int getDecision() {
+			return decision;
+		}
+
+		/**
+		 * @return all literals that were fixed by the decision, not including the
+		 *         decision itself. After an {@link ConfigurationSession#undo() undo},
+		 *         the literals that are open again, including the undone decision.
+		 */
+		public LiteralList getImplied() {
+			return implied;
+		}
+
+		/**
+		 * @return the positive literals of {@link #getImplied()}
+		 */
+		public LiteralList getSelected() {
+			return new LiteralList(Arrays.stream(implied.getLiterals()).filter(l -> l > 0).toArray());
+		}
+
+		/**
+		 * @return the negative literals of {@link #getImplied()}
+		 */
+		public LiteralList getDeselected() {
+			return new LiteralList(Arrays.stream(implied.getLiterals()).filter(l -> l < 0).toArray());
+		}
+
+		@Override
+		public String toString() {
+			return "Change [decision=" + decision + ", implied=" + implied + "]";
+		}
+	}
+
+	private final Sat4JMIGSolver solver;
+	private final Traverser traverser;
+	private final Random random = new Random(112358);
+
+	/**
+	 * Current value of each variable (at index {@code variable - 1}). {@code 0}
+	 * for open variables.
+	 */
+	private final int[] values;
+	/**
+	 * All fixed literals in the order they were fixed. Mirrored by the
+	 * assumptions of the solver.
+	 */
+	private final VecInt trail = new VecInt();
+	private final VecInt decisions = new VecInt();
+	private final VecInt decisionStarts = new VecInt();
+
+	public ConfigurationSession(MIG mig) {
+		this(new Sat4JMIGSolver(mig));
+	}
+
+	public ConfigurationSession(Sat4JMIGSolver solver) {
+		this.solver = solver;
+		solver.getAssumptions().clear();
+		solver.rememberSolutionHistory(Sat4JSolver.MAX_SOLUTION_BUFFER);
+		values = new int[solver.getVariables().size()];
+		traverser = solver.mig.traverse();
+		traverser.setModel(values);
+
+		for (final Vertex vertex : solver.mig.getVertices()) {
+			if (vertex.isCore()) {
+				fix(vertex.getVar());
+			}
+		}
+	}
+
+	public Sat4JMIGSolver getSolver() {
+		return solver;
+	}
+
+	/**
+	 * Selects a variable, i.e., sets it to {@code true} if the literal is
+	 * positive and to {@code false} if it is negative.
+	 *
+	 * @param literal the literal to decide
+	 * @return all literals that are implied by the decision
+	 * @throws IllegalArgumentException if the complement of the literal is already
+	 *                                  fixed
+	 * @throws IllegalStateException    if the decision makes the configuration
+	 *                                  unsatisfiable. The session is left
+	 *                                  unchanged in this case.
+	 */
+	public Change select(int literal) {
+		final int index = Math.abs(literal) - 1;
+		if (values[index] == literal) {
+			return new Change(literal, new LiteralList());
+		} else if (values[index] == -literal) {
+			throw new IllegalArgumentException("Literal " + literal + " contradicts the current configuration");
+		}
+		final int start = trail.size();
+		decisions.push(literal);
+		decisionStarts.push(start);
+		try {
+			propagate(literal);
+		} catch (final RuntimeException e) {
+			undo();
+			throw e;
+		}
+		return new Change(literal, new LiteralList(copy(trail, start + 1)));
+	}
+
+	/**
+	 * Deselects a variable, i.e., sets it to {@code false}.
+	 *
+	 * @param variable the variable
+	 * @return all literals that are implied by the decision
+	 * @see #select(int)
+	 */
+	public Change deselect(int variable) {
+		return select(-Math.abs(variable));
+	}
+
+	/**
+	 * Reverts the last decision and all literals implied by it.
+	 *
+	 * @return the literals that are open again or {@code null}, if there is no
+	 *         decision to undo
+	 */
+	public Change undo() {
+		if (decisions.isEmpty()) {
+			return null;
+		}
+		final int start = decisionStarts.last();
+		decisionStarts.pop();
+		decisions.pop();
+		final int[] released = copy(trail, start);
+		for (final int literal : released) {
+			values[Math.abs(literal) - 1] = 0;
+		}
+		trail.shrinkTo(start);
+		solver.getAssumptions().clear(start);
+		return new Change(0, new LiteralList(released));
+	}
+
+	/**
+	 * Undoes all decisions.
+	 */
+	public void reset() {
+		while (undo() != null) {
+		}
+	}
+
+	/**
+	 * Adapts the session to the given partial configuration. Decisions that are
+	 * not contained in the partial configuration are undone, missing literals are
+	 * selected. Decisions that remain the same are not recomputed.
+	 *
+	 * @param partialConfiguration the literals decided by the user
+	 * @return all fixed literals after the update
+	 * @throws IllegalArgumentException if the partial configuration is
+	 *                                  contradictory
+	 * @throws IllegalStateException    if the partial configuration is
+	 *                                  unsatisfiable. In both cases, the session
+	 *                                  keeps only the decisions that the previous
+	 *                                  and the given partial configuration have
+	 *                                  in common.
+	 */
+	public LiteralList update(LiteralList partialConfiguration) {
+		final int[] literals = partialConfiguration.getLiterals();
+		final HashSet<Integer> wanted = new HashSet<>(literals.length << 1);
+		for (final int literal : literals) {
+			wanted.add(literal);
+		}
+		int keep = 0;
+		while ((keep < decisions.size()) && wanted.contains(decisions.get(keep))) {
+			keep++;
+		}
+		while (decisions.size() > keep) {
+			undo();
+		}
+		try {
+			for (final int literal : literals) {
+				select(literal);
+			}
+		} catch (final RuntimeException e) {
+			while (decisions.size() > keep) {
+				undo();
+			}
+			throw e;
+		}
+		return getConfiguration();
+	}
+
+	/**
+	 * @return the literal of the given variable, if it is fixed, and {@code 0}
+	 *         otherwise
+	 */
+	public int getValue(int variable) {
+		return values[Math.abs(variable) - 1];
+	}
+
+	/**
+	 * @return all fixed literals, including core and dead variables
+	 */
+	public LiteralList getConfiguration() {
+		return new LiteralList(copy(trail, 0));
+	}
+
+	/**
+	 * @return the decisions in the order they were made
+	 */
+	public LiteralList getDecisions() {
+		return new LiteralList(copy(decisions, 0), LiteralList.Order.UNORDERED);
+	}
+
+	private static int[] copy(VecInt vector, int from) {
+		return Arrays.copyOfRange(vector.toArray(), from, vector.size());
+	}
+
+	private void fix(int literal) {
+		values[Math.abs(literal) - 1] = literal;
+		trail.push(literal);
+		solver.getAssumptions().push(literal);
+	}
+
+	private void propagate(int decision) {
+		final CollectingVisitor visitor = new CollectingVisitor();
+		traverser.setVisitor(visitor);
+		traverser.traverse(decision);
+		addStrong(visitor.getResult()[0]);
+
+		// the traversal does not detect conflicts, so the solver checks every decision
+		final int[] model;
+		switch (solver.hasSolution()) {
+		case TRUE:
+			model = solver.getInternalSolution().clone();
+			break;
+		case FALSE:
+			throw new IllegalStateException("Unsatisfiable configuration after " + decision);
+		case TIMEOUT:
+			return;
+		default:
+			throw new AssertionError();
+		}
+
+		final VecInt candidates = visitor.getResult()[1];
+		if (!candidates.isEmpty()) {
+			for (int i = candidates.size() - 1; i >= 0; i--) {
+				final int candidate = candidates.get(i);
+				final int index = Math.abs(candidate) - 1;
+				if ((values[index] == 0) && (model[index] == candidate)) {
+					solver.getAssumptions().push(-candidate);
+					switch (solver.hasSolution()) {
+					case FALSE:
+						solver.getAssumptions().pop();
+						final CollectingVisitor strongVisitor = new CollectingVisitor();
+						traverser.setVisitor(strongVisitor);
+						traverser.traverseStrong(candidate);
+						addStrong(strongVisitor.getResult()[0]);
+						break;
+					case TIMEOUT:
+						solver.getAssumptions().pop();
+						break;
+					case TRUE:
+						solver.getAssumptions().pop();
+						LiteralList.resetConflicts(model, solver.getInternalSolution());
+						solver.shuffleOrder(random);
+						break;
+					default:
+						throw new AssertionError();
+					}
+				}
+			}
+		}
+	}
+
+	private void addStrong(VecInt literals) {
+		for (int i = 0; i < literals.size(); i++) {
+			final int literal = literals.get(i);
+			trail.push(literal);
+			solver.getAssumptions().push(literal);
+		}
+	}
+
+}
@@ -0,0 +1,451 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.mig.io;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.spldev.analysis.mig.solver.*;
+import org.spldev.analysis.mig.solver.MIG.*;
+import org.spldev.analysis.mig.solver.Vertex.*;
+import org.spldev.clauses.*;
+import org.spldev.clauses.LiteralList.*;
+import org.spldev.formula.structure.atomic.literal.*;
+
+/**
+ * Reads and writes a MIG in a versioned binary format. The file contains the
+ * sections of a {@link CompactMIG} as plain arrays of big-endian integers,
+ * such that a MIG can be loaded by mapping the file into memory via
+ * {@link FileChannel#map(MapMode, long, long)} without copying its edges.
+ * Additionally, the file contains the CNF of the MIG, a fingerprint of this
+ * CNF, the build status, and the detected strong edges, which are required to
+ * continue with an {@link IncrementalMIGBuilder}.<br>
+ * Layout: a header of {@value #HEADER_INTS} integers (magic number, version,
+ * fingerprint, build status, and the size of each section), followed by the
+ * status byte of each vertex (padded to a multiple of four), the offsets and
+ * targets of the strong edges, the offsets and clause ids of the weak edges,
+ * the offsets and literals of the complex clauses, the offsets and literals of
+ * the clauses of the CNF, the offsets and literals of the detected strong
+ * edges, and the length-prefixed UTF-8 names of all variables.
+ *
+ * @author Sebastian Krieter
+ */
+public final class MIGBinaryFormat {
+
+	public static final int MAGIC = 0x4D494742;
+	public static final int VERSION = 1;
+	public static final String FILE_EXTENSION = "migb";
+
+	private static final int HEADER_INTS = 16;
+
+	private static final int VARIABLE_COUNT = 6;
+	private static final int STRONG_COUNT = 7;
+	private static final int WEAK_COUNT = 8;
+	private static final int CLAUSE_COUNT = 9;
+	private static final int CLAUSE_LITERAL_COUNT = 10;
+	private static final int CNF_CLAUSE_COUNT = 11;
+	private static final int CNF_LITERAL_COUNT = 12;
+	private static final int STRONG_CLAUSE_COUNT = 13;
+	private static final int STRONG_LITERAL_COUNT = 14;
+	private static final int NAME_BYTE_COUNT = 15;
+
+	private static final class Header {
+
+		private final long fingerprint;
+		private final BuildStatus redundancyStatus;
+		private final BuildStatus strongStatus;
+		private final int[] counts = new int[HEADER_INTS];
+
+		private Header(ByteBuffer buffer) throws IOException {
+			if ((buffer.capacity() < (HEADER_INTS * Integer.BYTES)) || (buffer.getInt(0) != MAGIC)) {
+				throw new IOException("Not a binary MIG file");
+			}
+			final int version = buffer.getInt(Integer.BYTES);
+			if (version != VERSION) {
+				throw new IOException("Unsupported version of binary MIG file: " + version);
+			}
+			fingerprint = buffer.getLong(2 * Integer.BYTES);
+			redundancyStatus = getBuildStatus(buffer.getInt(4 * Integer.BYTES));
+			strongStatus = getBuildStatus(buffer.getInt(5 * Integer.BYTES));
+			for (int i = VARIABLE_COUNT; i < HEADER_INTS; i++) {
+				counts[i] = buffer.getInt(i * Integer.BYTES);
+			}
+		}
+
+		private static BuildStatus getBuildStatus(int ordinal) throws IOException {
+			final BuildStatus[] values = BuildStatus.values();
+			if ((ordinal < 0) || (ordinal >= values.length)) {
+				throw new IOException("Invalid build status in binary MIG file: " + ordinal);
+			}
+			return values[ordinal];
+		}
+
+	}
+
+	private static final class SectionReader {
+
+		private final ByteBuffer buffer;
+		private int position;
+
+		private SectionReader(ByteBuffer buffer, int position) {
+			this.buffer = buffer;
+			this.position = position;
+		}
+
+		private ByteBuffer nextBytes(int count) throws IOException {
+			final ByteBuffer section = slice(count);
+			position += pad(count);
+			return section;
+		}
+
+		private IntBuffer nextInts(int count) throws IOException {
+			final IntBuffer section = slice(count * Integer.BYTES).asIntBuffer();
+			position += count * Integer.BYTES;
+			return section;
+		}
+
+		private ByteBuffer slice(int length) throws IOException {
+			if ((length < 0) || ((position + length) > buffer.capacity())) {
+				throw new IOException("Binary MIG file is truncated");
+			}
+			final ByteBuffer duplicate = buffer.duplicate();
+			duplicate.position(position);
+			duplicate.limit(position + length);
+			return duplicate.slice();
+		}
+
+	}
+
+	private MIGBinaryFormat() {
+	}
+
+	/**
+	 * Computes a fingerprint of the variable names and clauses of a CNF. A MIG
+	 * file can only be loaded for a CNF with the same fingerprint.
+	 *
+	 * @param cnf the CNF
+	 * @return the fingerprint
+	 */
+	public static long getFingerprint(CNF cnf) {
+		long hash = 0xcbf29ce484222325L;
+		final VariableMap variables = cnf.getVariableMap();
+		for (int i = 1; i <= variables.getMaxIndex(); i++) {
+			hash = mix(hash, variables.getName(i).map(String::hashCode).orElse(0));
+		}
+		for (final LiteralList clause : cnf.getClauses()) {
+			for (final int literal : clause.getLiterals()) {
+				hash = mix(hash, literal);
+			}
+			hash = mix(hash, 0);
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, int value) {
+		return (hash ^ value) * 0x100000001b3L;
+	}
+
+	/**
+	 * Writes a MIG to a file. The MIG should be completely built.
+	 *
+	 * @param mig  the MIG
+	 * @param path the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(MIG mig, Path path) throws IOException {
+		final CompactMIG compactMig = mig.freeze();
+		final CNF cnf = mig.getCnf();
+		final List<LiteralList> cnfClauses = cnf.getClauses();
+		final List<LiteralList> strongClauses = mig.getDetectedStrong();
+		final VariableMap variables = cnf.getVariableMap();
+		final int variableCount = variables.getMaxIndex();
+		final int vertexCount = compactMig.getVertexCount();
+		if (vertexCount != (variableCount << 1)) {
+			throw new IllegalArgumentException("MIG does not match its CNF");
+		}
+
+		final byte[][] names = new byte[variableCount][];
+		int nameByteCount = 0;
+		for (int i = 0; i < variableCount; i++) {
+			names[i] = variables.getName(i + 1).get().getBytes(StandardCharsets.UTF_8);
+			nameByteCount += Integer.BYTES + names[i].length;
+		}
+
+		final int[] counts = new int[HEADER_INTS];
+		counts[VARIABLE_COUNT] = variableCount;
+		counts[STRONG_COUNT] = compactMig.getStrongEnd(vertexCount - 1);
+		counts[WEAK_COUNT] = compactMig.getWeakEnd(vertexCount - 1);
+		counts[CLAUSE_COUNT] = compactMig.getClauseCount();
+		counts[CLAUSE_LITERAL_COUNT] = compactMig.getClauseEnd(compactMig.getClauseCount() - 1);
+		counts[CNF_CLAUSE_COUNT] = cnfClauses.size();
+		counts[CNF_LITERAL_COUNT] = countLiterals(cnfClauses);
+		counts[STRONG_CLAUSE_COUNT] = strongClauses.size();
+		counts[STRONG_LITERAL_COUNT] = countLiterals(strongClauses);
+		counts[NAME_BYTE_COUNT] = nameByteCount;
+
+		final long size = getSize(counts);
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("MIG is too large for the binary format");
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putLong(getFingerprint(cnf));
+		buffer.putInt(mig.getRedundancyStatus().ordinal());
+		buffer.putInt(mig.getStrongStatus().ordinal());
+		for (int i = VARIABLE_COUNT; i < HEADER_INTS; i++) {
+			buffer.putInt(counts[i]);
+		}
+
+		for (int i = 0; i < vertexCount; i++) {
+			buffer.put(compactMig.isCore(i) //
+				? CompactMIG.CORE
+				: compactMig.isDead(i) ? CompactMIG.DEAD : CompactMIG.NORMAL);
+		}
+		buffer.position(buffer.position() + (pad(vertexCount) - vertexCount));
+
+		for (int i = 0; i < vertexCount; i++) {
+			buffer.putInt(compactMig.getStrongBegin(i));
+		}
+		buffer.putInt(counts[STRONG_COUNT]);
+		for (int i = 0; i < counts[STRONG_COUNT]; i++) {
+			buffer.putInt(compactMig.getStrongTarget(i));
+		}
+		for (int i = 0; i < vertexCount; i++) {
+			buffer.putInt(compactMig.getWeakBegin(i));
+		}
+		buffer.putInt(counts[WEAK_COUNT]);
+		for (int i = 0; i < counts[WEAK_COUNT]; i++) {
+			buffer.putInt(compactMig.getWeakClause(i));
+		}
+		for (int i = 0; i < counts[CLAUSE_COUNT]; i++) {
+			buffer.putInt(compactMig.getClauseBegin(i));
+		}
+		buffer.putInt(counts[CLAUSE_LITERAL_COUNT]);
+		for (int i = 0; i < counts[CLAUSE_LITERAL_COUNT]; i++) {
+			buffer.putInt(compactMig.getClauseLiteral(i));
+		}
+		putClauses(buffer, cnfClauses);
+		putClauses(buffer, strongClauses);
+		for (final byte[] name : names) {
+			buffer.putInt(name.length);
+			buffer.put(name);
+		}
+
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Loads a MIG file into a {@link CompactMIG} that directly uses the mapped
+	 * file as its storage.
+	 *
+	 * @param path the file
+	 * @param cnf  the CNF of the MIG or {@code null}, if the CNF should be read
+	 *             from the file
+	 * @return the compact MIG
+	 * @throws IOException if the file cannot be read, is not a binary MIG file,
+	 *                     or does not belong to the given CNF
+	 */
+	public static CompactMIG readCompact(Path path, CNF cnf) throws IOException {
+		final ByteBuffer buffer = map(path);
+		final Header header = new Header(buffer);
+		final int[] counts = header.counts;
+		final int vertexCount = counts[VARIABLE_COUNT] << 1;
+		final SectionReader reader = new SectionReader(buffer, HEADER_INTS * Integer.BYTES);
+		final ByteBuffer status = reader.nextBytes(vertexCount);
+		final IntBuffer strongOffsets = reader.nextInts(vertexCount + 1);
+		final IntBuffer strongTargets = reader.nextInts(counts[STRONG_COUNT]);
+		final IntBuffer weakOffsets = reader.nextInts(vertexCount + 1);
+		final IntBuffer weakClauses = reader.nextInts(counts[WEAK_COUNT]);
+		final IntBuffer clauseOffsets = reader.nextInts(counts[CLAUSE_COUNT] + 1);
+		final IntBuffer clauseLiterals = reader.nextInts(counts[CLAUSE_LITERAL_COUNT]);
+		final CNF migCnf = getCnf(reader, header, cnf);
+		return new CompactMIG(migCnf, status, strongOffsets, strongTargets, weakOffsets, weakClauses, clauseOffsets,
+			clauseLiterals);
+	}
+
+	/**
+	 * Loads a MIG file, including the CNF stored in the file.
+	 *
+	 * @param path the file
+	 * @return the MIG
+	 * @throws IOException if the file cannot be read or is not a binary MIG file
+	 * @see #read(Path, CNF)
+	 */
+	public static MIG read(Path path) throws IOException {
+		return read(path, null);
+	}
+
+	/**
+	 * Loads a MIG file into a new modifiable {@link MIG}, which can be used as
+	 * input of an {@link IncrementalMIGBuilder}. Complex clauses are shared
+	 * between the vertices as in a built MIG.
+	 *
+	 * @param path the file
+	 * @param cnf  the CNF of the MIG or {@code null}, if the CNF should be read
+	 *             from the file
+	 * @return the MIG
+	 * @throws IOException if the file cannot be read, is not a binary MIG file,
+	 *                     or does not belong to the given CNF
+	 */
+	public static MIG read(Path path, CNF cnf) throws IOException {
+		final ByteBuffer buffer = map(path);
+		final Header header = new Header(buffer);
+		final int[] counts = header.counts;
+		final int vertexCount = counts[VARIABLE_COUNT] << 1;
+		final SectionReader reader = new SectionReader(buffer, HEADER_INTS * Integer.BYTES);
+		final ByteBuffer status = reader.nextBytes(vertexCount);
+		final IntBuffer strongOffsets = reader.nextInts(vertexCount + 1);
+		final IntBuffer strongTargets = reader.nextInts(counts[STRONG_COUNT]);
+		final IntBuffer weakOffsets = reader.nextInts(vertexCount + 1);
+		final IntBuffer weakClauses = reader.nextInts(counts[WEAK_COUNT]);
+		final List<LiteralList> complexClauses = getClauses(reader, counts[CLAUSE_COUNT],
+			counts[CLAUSE_LITERAL_COUNT], Order.NATURAL);
+		final CNF migCnf = getCnf(reader, header, cnf);
+		final List<LiteralList> strongClauses = getClauses(reader, counts[STRONG_CLAUSE_COUNT],
+			counts[STRONG_LITERAL_COUNT], Order.NATURAL);
+
+		final MIG mig = new MIG(migCnf);
+		final List<Vertex> vertices = mig.getVertices();
+		if (vertices.size() != vertexCount) {
+			throw new IOException("Binary MIG file does not match its CNF");
+		}
+		for (int i = 0; i < vertexCount; i++) {
+			final Vertex vertex = vertices.get(i);
+			switch (status.get(i)) {
+			case CompactMIG.CORE:
+				vertex.setStatus(Status.Core);
+				break;
+			case CompactMIG.DEAD:
+				vertex.setStatus(Status.Dead);
+				break;
+			default:
+				break;
+			}
+			for (int j = strongOffsets.get(i); j < strongOffsets.get(i + 1); j++) {
+				vertex.addStronglyConnected(mig.getVertex(strongTargets.get(j)));
+			}
+			for (int j = weakOffsets.get(i); j < weakOffsets.get(i + 1); j++) {
+				vertex.addWeaklyConnected(complexClauses.get(weakClauses.get(j)));
+			}
+		}
+		mig.getDetectedStrong().addAll(strongClauses);
+		mig.getDetectedStrong().trimToSize();
+		mig.setRedundancyStatus(header.redundancyStatus);
+		mig.setStrongStatus(header.strongStatus);
+		return mig;
+	}
+
+	private static ByteBuffer map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	private static CNF getCnf(SectionReader reader, Header header, CNF cnf) throws IOException {
+		final int[] counts = header.counts;
+		if (cnf != null) {
+			if (getFingerprint(cnf) != header.fingerprint) {
+				throw new IOException("Binary MIG file does not belong to the given CNF");
+			}
+			reader.nextInts(counts[CNF_CLAUSE_COUNT] + 1);
+			reader.nextInts(counts[CNF_LITERAL_COUNT]);
+			return cnf;
+		}
+		final List<LiteralList> clauses = getClauses(reader, counts[CNF_CLAUSE_COUNT], counts[CNF_LITERAL_COUNT],
+			Order.UNORDERED);
+		final int strongSection = (counts[STRONG_CLAUSE_COUNT] + 1 + counts[STRONG_LITERAL_COUNT]) * Integer.BYTES;
+		final ByteBuffer names = new SectionReader(reader.buffer, reader.position + strongSection) //
+			.nextBytes(counts[NAME_BYTE_COUNT]);
+		final List<String> variableNames = new ArrayList<>(counts[VARIABLE_COUNT]);
+		for (int i = 0; i < counts[VARIABLE_COUNT]; i++) {
+			final byte[] name = new byte[names.getInt()];
+			names.get(name);
+			variableNames.add(new String(name, StandardCharsets.UTF_8));
+		}
+		return new CNF(VariableMap.fromNames(variableNames), clauses);
+	}
+
+	private static List<LiteralList> getClauses(SectionReader reader, int clauseCount, int literalCount, Order order)
+		throws IOException {
+		final IntBuffer offsets = reader.nextInts(clauseCount + 1);
+		final IntBuffer literals = reader.nextInts(literalCount);
+		final List<LiteralList> clauses = new ArrayList<>(clauseCount);
+		for (int i = 0; i < clauseCount; i++) {
+			final int[] clause = new int[offsets.get(i + 1) - offsets.get(i)];
+			literals.position(offsets.get(i));
+			literals.get(clause);
+			clauses.add(new LiteralList(clause, order));
+		}
+		return clauses;
+	}
+
+	private static void putClauses(ByteBuffer buffer, List<LiteralList> clauses) {
+		int offset = 0;
+		for (final LiteralList clause : clauses) {
+			buffer.putInt(offset);
+			offset += clause.size();
+		}
+		buffer.putInt(offset);
+		for (final LiteralList clause : clauses) {
+			for (final int literal : clause.getLiterals()) {
+				buffer.putInt(literal);
+			}
+		}
+	}
+
+	private static int countLiterals(List<LiteralList> clauses) {
+		int count = 0;
+		for (final LiteralList clause : clauses) {
+			count += clause.size();
+		}
+		return count;
+	}
+
+	private static long getSize(int[] counts) {
+		final long vertexCount = (long) counts[VARIABLE_COUNT] << 1;
+		long ints = HEADER_INTS;
+		ints += 2 * (vertexCount + 1);
+		ints += counts[STRONG_COUNT] + counts[WEAK_COUNT];
+		ints += counts[CLAUSE_COUNT] + 1L + counts[CLAUSE_LITERAL_COUNT];
+		ints += counts[CNF_CLAUSE_COUNT] + 1L + counts[CNF_LITERAL_COUNT];
+		ints += counts[STRONG_CLAUSE_COUNT] + 1L + counts[STRONG_LITERAL_COUNT];
+		return (ints * Integer.BYTES) + pad((int) vertexCount) + counts[NAME_BYTE_COUNT];
+	}
+
+	private static int pad(int byteCount) {
+		return (byteCount + 3) & ~3;
+	}
+
+}
@@ -26,7 +26,8 @@ import org.spldev.analysis.mig.solver.*;
 import org.spldev.util.io.format.*;
 
 /**
- * Reads / Writes a MIG.
+ * Describes the MIG file type. Parsing and serialization are not supported by
+ * this text-based format, use {@link MIGBinaryFormat} to read and write MIGs.
  *
  * @author Sebastian Krieter
  */
@@ -36,12 +37,12 @@ public class MIGFormat implements Format<MIG> {
 
 	@Override
 	public boolean supportsParse() {
-		return true;
+		return false;
 	}
 
 	@Override
 	public boolean supportsSerialize() {
-		return true;
+		return false;
 	}
 
 	@Override
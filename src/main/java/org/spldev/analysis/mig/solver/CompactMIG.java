@@ -0,0 +1,289 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.mig.solver;
+
+import java.nio.*;
+import java.util.*;
+
+import org.spldev.analysis.mig.solver.Vertex.*;
+import org.spldev.analysis.mig.solver.visitor.*;
+import org.spldev.clauses.*;
+import org.spldev.clauses.LiteralList.*;
+
+/**
+ * Immutable compressed sparse row representation of a {@link MIG}.<br>
+ * Vertices are identified by their {@link MIG#getVertexIndex(int) index}. The
+ * strong edges of all vertices are stored in one array of target literals,
+ * such that the edges of vertex {@code i} are at the positions
+ * {@code [getStrongBegin(i), getStrongEnd(i))}. The complex clauses of the MIG
+ * are stored once in a shared clause arena and each vertex references the
+ * clauses it is weakly connected to by their ids. The status of all vertices
+ * is kept in a byte array.<br>
+ * Instances are created via {@link MIG#freeze()} or are read from a file in
+ * the {@link org.spldev.analysis.mig.io.MIGBinaryFormat binary MIG format}, in
+ * which case the buffers may directly map the file.
+ *
+ * @author Sebastian Krieter
+ */
+public class CompactMIG {
+
+	public static final byte NORMAL = 0;
+	public static final byte CORE = 1;
+	public static final byte DEAD = 2;
+
+	private final CNF cnf;
+	private final ByteBuffer status;
+
+	private final IntBuffer strongOffsets;
+	private final IntBuffer strongTargets;
+
+	private final IntBuffer weakOffsets;
+	private final IntBuffer weakClauses;
+
+	private final IntBuffer clauseOffsets;
+	private final IntBuffer clauseLiterals;
+
+	/**
+	 * Creates a MIG from the given buffers without copying them. The buffers must
+	 * be laid out as described in the class comment and must not be modified
+	 * afterwards.
+	 *
+	 * @param cnf            the CNF of the MIG
+	 * @param status         the status of each vertex ({@link #NORMAL},
+	 *                       {@link #CORE}, or {@link #DEAD})
+	 * @param strongOffsets  the start of the strong edges of each vertex followed
+	 *                       by the total number of strong edges
+	 * @param strongTargets  the target literals of all strong edges
+	 * @param weakOffsets    the start of the weak edges of each vertex followed by
+	 *                       the total number of weak edges
+	 * @param weakClauses    the clause ids of all weak edges
+	 * @param clauseOffsets  the start of each clause in the clause arena followed
+	 *                       by the total number of literals
+	 * @param clauseLiterals the literals of all clauses
+	 */
+	public CompactMIG(CNF cnf, ByteBuffer status, IntBuffer strongOffsets, IntBuffer strongTargets,
+		IntBuffer weakOffsets, IntBuffer weakClauses, IntBuffer clauseOffsets, IntBuffer clauseLiterals) {
+		this.cnf = cnf;
+		this.status = status;
+		this.strongOffsets = strongOffsets;
+		this.strongTargets = strongTargets;
+		this.weakOffsets = weakOffsets;
+		this.weakClauses = weakClauses;
+		this.clauseOffsets = clauseOffsets;
+		this.clauseLiterals = clauseLiterals;
+	}
+
+	CompactMIG(MIG mig) {
+		cnf = mig.getCnf();
+		final List<Vertex> vertices = mig.getVertices();
+		final int numberOfVertices = vertices.size();
+
+		final byte[] status = new byte[numberOfVertices];
+		final int[] strongOffsets = new int[numberOfVertices + 1];
+		final int[] weakOffsets = new int[numberOfVertices + 1];
+		final Map<LiteralList, Integer> clauseIds = new HashMap<>();
+		int numberOfClauseLiterals = 0;
+		for (int i = 0; i < numberOfVertices; i++) {
+			final Vertex vertex = vertices.get(i);
+			status[i] = vertex.isCore() ? CORE : vertex.isDead() ? DEAD : NORMAL;
+			strongOffsets[i + 1] = strongOffsets[i] + vertex.getStrongEdges().size();
+			weakOffsets[i + 1] = weakOffsets[i] + vertex.getComplexClauses().size();
+			for (final LiteralList clause : vertex.getComplexClauses()) {
+				if (clauseIds.putIfAbsent(clause, clauseIds.size()) == null) {
+					numberOfClauseLiterals += clause.size();
+				}
+			}
+		}
+
+		final int[] strongTargets = new int[strongOffsets[numberOfVertices]];
+		final int[] weakClauses = new int[weakOffsets[numberOfVertices]];
+		for (int i = 0; i < numberOfVertices; i++) {
+			final Vertex vertex = vertices.get(i);
+			int position = strongOffsets[i];
+			for (final Vertex strongVertex : vertex.getStrongEdges()) {
+				strongTargets[position++] = strongVertex.getVar();
+			}
+			position = weakOffsets[i];
+			for (final LiteralList clause : vertex.getComplexClauses()) {
+				weakClauses[position++] = clauseIds.get(clause);
+			}
+		}
+
+		final int[] clauseOffsets = new int[clauseIds.size() + 1];
+		final int[] clauseLiterals = new int[numberOfClauseLiterals];
+		final LiteralList[] clauses = new LiteralList[clauseIds.size()];
+		for (final Map.Entry<LiteralList, Integer> entry : clauseIds.entrySet()) {
+			clauses[entry.getValue()] = entry.getKey();
+		}
+		for (int id = 0; id < clauses.length; id++) {
+			final int size = clauses[id].size();
+			clauseOffsets[id + 1] = clauseOffsets[id] + size;
+			System.arraycopy(clauses[id].getLiterals(), 0, clauseLiterals, clauseOffsets[id], size);
+		}
+
+		this.status = ByteBuffer.wrap(status);
+		this.strongOffsets = IntBuffer.wrap(strongOffsets);
+		this.strongTargets = IntBuffer.wrap(strongTargets);
+		this.weakOffsets = IntBuffer.wrap(weakOffsets);
+		this.weakClauses = IntBuffer.wrap(weakClauses);
+		this.clauseOffsets = IntBuffer.wrap(clauseOffsets);
+		this.clauseLiterals = IntBuffer.wrap(clauseLiterals);
+	}
+
+	/**
+	 * @param vertexIndex the index of a vertex
+	 * @return the literal of the vertex
+	 *
+	 * @see MIG#getVertexIndex(int)
+	 */
+	public static int getLiteral(int vertexIndex) {
+		return (vertexIndex & 1) == 0
+			? -((vertexIndex >> 1) + 1)
+			: (vertexIndex >> 1) + 1;
+	}
+
+	public CompactTraverser traverse() {
+		return new CompactTraverser(this);
+	}
+
+	public CNF getCnf() {
+		return cnf;
+	}
+
+	/**
+	 * @return the number of variables
+	 */
+	public int size() {
+		return status.capacity() >> 1;
+	}
+
+	public int getVertexCount() {
+		return status.capacity();
+	}
+
+	public Status getStatus(int vertexIndex) {
+		switch (status.get(vertexIndex)) {
+		case CORE:
+			return Status.Core;
+		case DEAD:
+			return Status.Dead;
+		default:
+			return Status.Normal;
+		}
+	}
+
+	public boolean isCore(int vertexIndex) {
+		return status.get(vertexIndex) == CORE;
+	}
+
+	public boolean isDead(int vertexIndex) {
+		return status.get(vertexIndex) == DEAD;
+	}
+
+	public boolean isNormal(int vertexIndex) {
+		return status.get(vertexIndex) == NORMAL;
+	}
+
+	public int getStrongBegin(int vertexIndex) {
+		return strongOffsets.get(vertexIndex);
+	}
+
+	public int getStrongEnd(int vertexIndex) {
+		return strongOffsets.get(vertexIndex + 1);
+	}
+
+	/**
+	 * @param position a position between {@link #getStrongBegin(int)} and
+	 *                 {@link #getStrongEnd(int)} of a vertex
+	 * @return the literal of the target of the strong edge
+	 */
+	public int getStrongTarget(int position) {
+		return strongTargets.get(position);
+	}
+
+	/**
+	 * @param vertexIndex the index of a vertex
+	 * @return a copy of the literals of all vertices the vertex is strongly
+	 *         connected to
+	 */
+	public int[] getStrongEdges(int vertexIndex) {
+		return copy(strongTargets, strongOffsets.get(vertexIndex), strongOffsets.get(vertexIndex + 1));
+	}
+
+	public int getWeakBegin(int vertexIndex) {
+		return weakOffsets.get(vertexIndex);
+	}
+
+	public int getWeakEnd(int vertexIndex) {
+		return weakOffsets.get(vertexIndex + 1);
+	}
+
+	/**
+	 * @param position a position between {@link #getWeakBegin(int)} and
+	 *                 {@link #getWeakEnd(int)} of a vertex
+	 * @return the id of the complex clause
+	 */
+	public int getWeakClause(int position) {
+		return weakClauses.get(position);
+	}
+
+	public int getClauseCount() {
+		return clauseOffsets.capacity() - 1;
+	}
+
+	public int getClauseBegin(int clauseId) {
+		return clauseOffsets.get(clauseId);
+	}
+
+	public int getClauseEnd(int clauseId) {
+		return clauseOffsets.get(clauseId + 1);
+	}
+
+	public int getClauseLiteral(int position) {
+		return clauseLiterals.get(position);
+	}
+
+	public LiteralList getClause(int clauseId) {
+		return new LiteralList(copy(clauseLiterals, clauseOffsets.get(clauseId), clauseOffsets.get(clauseId + 1)),
+			Order.NATURAL);
+	}
+
+	/**
+	 * @return the approximate number of bytes used by the buffers of this MIG
+	 */
+	public long getMemorySize() {
+		return status.capacity() //
+			+ ((long) Integer.BYTES * (strongOffsets.capacity() + strongTargets.capacity())) //
+			+ ((long) Integer.BYTES * (weakOffsets.capacity() + weakClauses.capacity())) //
+			+ ((long) Integer.BYTES * (clauseOffsets.capacity() + clauseLiterals.capacity()));
+	}
+
+	private static int[] copy(IntBuffer buffer, int from, int to) {
+		final int[] array = new int[to - from];
+		for (int i = from; i < to; i++) {
+			array[i - from] = buffer.get(i);
+		}
+		return array;
+	}
+
+}
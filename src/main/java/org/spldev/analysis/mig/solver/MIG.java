@@ -81,6 +81,16 @@ public class MIG {
 		return new Traverser(this);
 	}
 
+	/**
+	 * Creates an immutable compact copy of this MIG. Should be called after the
+	 * MIG was completely built, as later changes are not reflected in the copy.
+	 *
+	 * @return the compact representation of this MIG
+	 */
+	public CompactMIG freeze() {
+		return new CompactMIG(this);
+	}
+
 	public Vertex getVertex(int literal) {
 		return adjList.get(getVertexIndex(literal));
 	}
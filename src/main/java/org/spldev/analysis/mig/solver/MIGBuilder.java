@@ -51,6 +51,7 @@ public abstract class MIGBuilder implements MonitorableFunction<CNF, MIG> {
 	protected boolean detectStrong = true;
 
 	protected Sat4JSolver solver;
+	protected ClauseStore clauseStore = null;
 	protected List<LiteralList> cleanedClausesList;
 	protected int[] fixedFeatures;
 
@@ -60,8 +61,25 @@ public abstract class MIGBuilder implements MonitorableFunction<CNF, MIG> {
 		mig = new MIG(cnf);
 	}
 
+	/**
+	 * Sets a compact copy of the clauses of the CNF. If set, the solver and the
+	 * clause cleaning read the clauses from the store instead of the
+	 * {@link LiteralList} objects of the CNF.
+	 *
+	 * @param clauseStore the clauses of the CNF or {@code null}
+	 */
+	public void setClauseStore(ClauseStore clauseStore) {
+		this.clauseStore = clauseStore;
+	}
+
+	public ClauseStore getClauseStore() {
+		return clauseStore;
+	}
+
 	protected boolean satCheck(CNF cnf) {
-		solver = new Sat4JSolver(cnf);
+		solver = clauseStore != null //
+			? new Sat4JSolver(cnf.getVariableMap(), clauseStore)
+			: new Sat4JSolver(cnf);
 		solver.rememberSolutionHistory(1000);
 		fixedFeatures = solver.findSolution().getLiterals();
 		return fixedFeatures != null;
@@ -188,6 +206,10 @@ public abstract class MIGBuilder implements MonitorableFunction<CNF, MIG> {
 //	}
 
 	protected void cleanClauses() {
+		if (clauseStore != null) {
+			cleanClauses(clauseStore);
+			return;
+		}
 		cleanedClausesList = new ArrayList<>(mig.getCnf().getClauses().size());
 		mig.getCnf().getClauses().stream().map(c -> cleanClause(c, mig)).filter(Objects::nonNull)
 			.forEach(cleanedClausesList::add);
@@ -235,6 +257,61 @@ public abstract class MIGBuilder implements MonitorableFunction<CNF, MIG> {
 		return new LiteralList(literalArray, Order.NATURAL);
 	}
 
+	protected void cleanClauses(ClauseStore clauses) {
+		cleanedClausesList = new ArrayList<>(clauses.size());
+		int maxClauseSize = 0;
+		for (int i = 0; i < clauses.size(); i++) {
+			maxClauseSize = Math.max(maxClauseSize, clauses.getClauseSize(i));
+		}
+		final int[] buffer = new int[maxClauseSize];
+		final int[] marks = new int[clauses.getMaxVariable() + 1];
+		final int[] stamps = new int[marks.length];
+		for (int i = 0; i < clauses.size(); i++) {
+			final LiteralList cleanClause = cleanClause(clauses, i, buffer, marks, stamps);
+			if (cleanClause != null) {
+				cleanedClausesList.add(cleanClause);
+			}
+		}
+	}
+
+	private LiteralList cleanClause(ClauseStore clauses, int clause, int[] buffer, int[] marks, int[] stamps) {
+		final int stamp = clause + 1;
+		final int end = clauses.getEnd(clause);
+		int childrenCount = clauses.getClauseSize(clause);
+		int length = 0;
+
+		// Sort out dead and core features
+		for (int i = clauses.getStart(clause); i < end; i++) {
+			final int literal = clauses.getLiteralAt(i);
+			final Status status = mig.getVertex(literal).getStatus();
+			switch (status) {
+			case Core:
+				return null;
+			case Dead:
+				if (childrenCount <= 2) {
+					return null;
+				}
+				childrenCount--;
+				break;
+			case Normal:
+				final int var = Math.abs(literal);
+				if (stamps[var] == stamp) {
+					if (marks[var] != literal) {
+						return null;
+					}
+				} else {
+					stamps[var] = stamp;
+					marks[var] = literal;
+					buffer[length++] = literal;
+				}
+				break;
+			default:
+				throw new IllegalStateException(String.valueOf(status));
+			}
+		}
+		return new LiteralList(Arrays.copyOf(buffer, length), Order.NATURAL);
+	}
+
 	protected final boolean isRedundant(Sat4JSolver solver, LiteralList curClause) {
 		return solver.hasSolution(curClause.negate()) == SatResult.FALSE;
 	}
@@ -286,17 +363,8 @@ public abstract class MIGBuilder implements MonitorableFunction<CNF, MIG> {
 				final int negVar = -var;
 				Arrays.fill(mark, false);
 				Arrays.fill(fixed, 0);
-				int[] model = null;
-
-				for (final LiteralList solution : solver.getSolutionHistory()) {
-					if (solution.containsAllLiterals(var)) {
-						if (model == null) {
-							model = Arrays.copyOf(solution.getLiterals(), solution.size());
-						} else {
-							LiteralList.resetConflicts(model, solution.getLiterals());
-						}
-					}
-				}
+				final SolutionCache solutionCache = solver.getSolutionCache();
+				int[] model = solutionCache != null ? solutionCache.getCommonModel(var) : null;
 
 				solver.getAssumptions().push(var);
 				fixed[Math.abs(var)] = var;
@@ -48,21 +48,31 @@ public class MIGComparator implements Comparator<LiteralList> {
 	private final VertexInfo[] vertexInfos;
 
 	public MIGComparator(MIG mig) {
-		vertexInfos = new VertexInfo[mig.getVertices().size()];
-		for (final Vertex vertex : mig.getVertices()) {
-			vertexInfos[MIG.getVertexIndex(vertex)] = new VertexInfo();
+		this(mig.freeze());
+	}
+
+	public MIGComparator(CompactMIG mig) {
+		vertexInfos = new VertexInfo[mig.getVertexCount()];
+		for (int i = 0; i < vertexInfos.length; i++) {
+			vertexInfos[i] = new VertexInfo();
 		}
-		for (final Vertex vertex : mig.getVertices()) {
-			final VertexInfo vertexInfo = vertexInfos[MIG.getVertexIndex(vertex)];
-			vertexInfo.strongOut = vertex.getStrongEdges().size();
-			vertexInfo.weakOut = vertex.getComplexClauses().size();
-			for (final Vertex strongEdge : vertex.getStrongEdges()) {
-				vertexInfos[MIG.getVertexIndex(strongEdge)].strongIn++;
+		for (int i = 0; i < vertexInfos.length; i++) {
+			final VertexInfo vertexInfo = vertexInfos[i];
+			final int literal = CompactMIG.getLiteral(i);
+			final int strongEnd = mig.getStrongEnd(i);
+			final int weakEnd = mig.getWeakEnd(i);
+			vertexInfo.strongOut = strongEnd - mig.getStrongBegin(i);
+			vertexInfo.weakOut = weakEnd - mig.getWeakBegin(i);
+			for (int j = mig.getStrongBegin(i); j < strongEnd; j++) {
+				vertexInfos[MIG.getVertexIndex(mig.getStrongTarget(j))].strongIn++;
 			}
-			for (final LiteralList clause : vertex.getComplexClauses()) {
-				for (final int literal : clause.getLiterals()) {
-					if (literal != vertex.getVar()) {
-						vertexInfos[MIG.getVertexIndex(literal)].weakIn++;
+			for (int j = mig.getWeakBegin(i); j < weakEnd; j++) {
+				final int clauseId = mig.getWeakClause(j);
+				final int clauseEnd = mig.getClauseEnd(clauseId);
+				for (int k = mig.getClauseBegin(clauseId); k < clauseEnd; k++) {
+					final int clauseLiteral = mig.getClauseLiteral(k);
+					if (clauseLiteral != literal) {
+						vertexInfos[MIG.getVertexIndex(clauseLiteral)].weakIn++;
 					}
 				}
 			}
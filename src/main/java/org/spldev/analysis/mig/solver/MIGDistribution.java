@@ -25,7 +25,6 @@ package org.spldev.analysis.mig.solver;
 import java.util.*;
 
 import org.spldev.analysis.sat4j.solver.*;
-import org.spldev.clauses.*;
 
 /**
  * Uses a sample of configurations to achieve a phase selection that corresponds
@@ -36,15 +35,19 @@ import org.spldev.clauses.*;
 public class MIGDistribution extends LiteralDistribution {
 
 	private final byte[] model;
-	private final MIG mig;
+	private final CompactMIG mig;
 	private int count;
 
 	public MIGDistribution(MIG mig) {
+		this(mig.freeze());
+	}
+
+	public MIGDistribution(CompactMIG mig) {
 		this.mig = mig;
 		model = new byte[mig.size()];
 		count = 0;
-		for (final Vertex vertex : mig.getVertices()) {
-			if (vertex.isNormal()) {
+		for (int i = 0; i < mig.getVertexCount(); i++) {
+			if (mig.isNormal(i)) {
 				count++;
 			}
 		}
@@ -80,14 +83,11 @@ public class MIGDistribution extends LiteralDistribution {
 		int weakInPositive = 0;
 		int weakInNegative = 0;
 
-//		count = 0;
-		for (final Vertex vertex : mig.getVertices()) {
-			if (vertex.isNormal() && (model[Math.abs(vertex.getVar()) - 1] == 0)) {
-//				if (vertex.getVar() > 0) {
-//					count++;
-//				}s
-				for (final Vertex strong : vertex.getStrongEdges()) {
-					final int strongLiteral = strong.getVar();
+		for (int i = 0; i < mig.getVertexCount(); i++) {
+			if (mig.isNormal(i) && (model[i >> 1] == 0)) {
+				final int strongEnd = mig.getStrongEnd(i);
+				for (int j = mig.getStrongBegin(i); j < strongEnd; j++) {
+					final int strongLiteral = mig.getStrongTarget(j);
 					if (Math.abs(strongLiteral) == var) {
 						if (strongLiteral > 0) {
 							strongInPositive++;
@@ -96,13 +96,18 @@ public class MIGDistribution extends LiteralDistribution {
 						}
 					}
 				}
-				for (final LiteralList weak : vertex.getComplexClauses()) {
-					for (final int l : weak.getLiterals()) {
+				final int weakEnd = mig.getWeakEnd(i);
+				for (int j = mig.getWeakBegin(i); j < weakEnd; j++) {
+					final int clauseId = mig.getWeakClause(j);
+					final int clauseBegin = mig.getClauseBegin(clauseId);
+					final int clauseEnd = mig.getClauseEnd(clauseId);
+					for (int k = clauseBegin; k < clauseEnd; k++) {
+						final int l = mig.getClauseLiteral(k);
 						if (Math.abs(l) == var) {
 							if (l > 0) {
-								weakInPositive += 1.0 / (weak.getLiterals().length - 1);
+								weakInPositive += 1.0 / (clauseEnd - clauseBegin - 1);
 							} else {
-								weakInNegative += 1.0 / (weak.getLiterals().length - 1);
+								weakInNegative += 1.0 / (clauseEnd - clauseBegin - 1);
 							}
 						}
 					}
@@ -27,7 +27,6 @@ import java.nio.file.*;
 import org.spldev.analysis.mig.io.*;
 import org.spldev.clauses.*;
 import org.spldev.util.data.*;
-import org.spldev.util.io.format.*;
 
 /**
  * Abstract creator to derive an element from a {@link Cache }.
@@ -52,8 +51,16 @@ public interface MIGProvider extends Provider<MIG> {
 		return (c, m) -> Result.of(mig);
 	}
 
+	/**
+	 * Loads a MIG from a binary MIG file. The file is checked against the CNF of
+	 * the cache, such that a file of another formula is not used.
+	 *
+	 * @param path the file
+	 * @return the provider
+	 */
 	static MIGProvider loader(Path path) {
-		return (c, m) -> Provider.load(path, FormatSupplier.of(new MIGFormat()));
+		return (c, m) -> Provider.convert(c, CNFProvider.fromFormula(), (cnf, monitor) -> MIGBinaryFormat.read(path,
+			cnf), m);
 	}
 
 	static <T> MIGProvider fromFormula() {
@@ -37,6 +37,11 @@ abstract class ATraverser implements ITraverser {
 		dfsMark = new boolean[mig.getVertices().size()];
 	}
 
+	protected ATraverser(int numberOfVertices) {
+		mig = null;
+		dfsMark = new boolean[numberOfVertices];
+	}
+
 	@Override
 	public Visitor<?> getVisitor() {
 		return visitor;
@@ -0,0 +1,304 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.mig.solver.visitor;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.sat4j.core.*;
+import org.spldev.analysis.mig.solver.*;
+import org.spldev.analysis.mig.solver.visitor.Visitor.*;
+
+/**
+ * Traverser for a {@link CompactMIG}. Visits literals in the same way as
+ * {@link Traverser}, but reads edges and clauses directly from the arrays of
+ * the compact representation. Open clauses are addressed by their clause id.
+ * The buffers holding them are not owned by a traverser, but shared by all
+ * traversers of the same {@link CompactMIG} and reused between traversals.
+ * Thus, creating a traverser costs memory proportional to the number of
+ * vertices only. The buffers are released together with their MIG.
+ *
+ * @author Sebastian Krieter
+ */
+public class CompactTraverser extends ATraverser {
+
+	private static class CancelException extends Exception {
+		private static final long serialVersionUID = -2166541049463380405L;
+	}
+
+	private static final byte UNSEEN = 0;
+	private static final byte OPEN = 1;
+	private static final byte CLOSED = 2;
+
+	/**
+	 * The state of all clauses of one MIG during a traversal. Between traversals,
+	 * all clauses are {@link #UNSEEN}.
+	 */
+	private static final class ClauseArena {
+		private final byte[] clauseState;
+		private final VecInt[] openClauses;
+		private final VecInt seenClauses = new VecInt();
+
+		private ClauseArena(int clauseCount) {
+			clauseState = new byte[clauseCount];
+			openClauses = new VecInt[clauseCount];
+		}
+	}
+
+	/**
+	 * The idle arenas of each MIG. There is one arena for each traversal that ran
+	 * concurrently to other traversals of the same MIG. The arenas do not
+	 * reference their MIG, such that they can be removed with it.
+	 */
+	private static final Map<CompactMIG, Deque<ClauseArena>> arenas = Collections.synchronizedMap(
+		new WeakHashMap<>());
+
+	private final CompactMIG mig;
+	private final Deque<ClauseArena> idleArenas;
+
+	private ClauseArena arena;
+	private byte[] clauseState;
+	private VecInt[] openClauses;
+	private VecInt seenClauses;
+
+	public CompactTraverser(CompactMIG mig) {
+		super(mig.getVertexCount());
+		this.mig = mig;
+		idleArenas = arenas.computeIfAbsent(mig, m -> new ConcurrentLinkedDeque<>());
+	}
+
+	@Override
+	public void traverse(int... curLiterals) {
+		acquireArena();
+		try {
+			traverseAll(curLiterals);
+		} catch (final CancelException e) {
+		} finally {
+			releaseArena();
+		}
+	}
+
+	private void traverseAll(int... curLiterals) throws CancelException {
+		Arrays.fill(dfsMark, false);
+
+		traverseStrongLiterals(curLiterals);
+		mainLoop: while (true) {
+			for (int i = 0; i < seenClauses.size(); i++) {
+				final int clauseId = seenClauses.get(i);
+				if (clauseState[clauseId] == OPEN) {
+					final VecInt openClause = openClauses[clauseId];
+					for (int j = 0; j < openClause.size(); j++) {
+						final int literal = openClause.get(j);
+						if (currentConfiguration[getIndex(literal)] == 0) {
+							final int vertexIndex = MIG.getVertexIndex(literal);
+							if (!dfsMark[vertexIndex]) {
+								dfsMark[vertexIndex] = true;
+								boolean changed = false;
+								final VisitResult visitWeakResult = visitor.visitWeak(literal);
+								switch (visitWeakResult) {
+								case Cancel:
+									return;
+								case Continue:
+									changed |= addComplexClauses(vertexIndex) > 0;
+									break;
+								case Select:
+									changed |= attemptStrongSelect(literal);
+									break;
+								case Skip:
+									break;
+								default:
+									throw new AssertionError(visitWeakResult);
+								}
+								changed |= processComplexClauses();
+								if (changed) {
+									continue mainLoop;
+								}
+							}
+						}
+					}
+				}
+			}
+			break;
+		}
+	}
+
+	@Override
+	public void traverseStrong(int... curLiterals) {
+		acquireArena();
+		try {
+			traverseStrongLiterals(curLiterals);
+		} catch (final CancelException e) {
+		} finally {
+			releaseArena();
+		}
+	}
+
+	private void traverseStrongLiterals(int... curLiterals) throws CancelException {
+		boolean changed = false;
+		for (final int curLiteral : curLiterals) {
+			changed |= attemptStrongSelect(curLiteral);
+		}
+		if (changed) {
+			processComplexClauses();
+		}
+	}
+
+	private boolean processComplexClauses() throws CancelException {
+		boolean changedInLoop, changed = false;
+		final VecInt unitLiterals = new VecInt();
+		do {
+			changedInLoop = false;
+			unitLiterals.clear();
+			for (int i = 0; i < seenClauses.size(); i++) {
+				final int clauseId = seenClauses.get(i);
+				if (clauseState[clauseId] == OPEN) {
+					final VecInt v = openClauses[clauseId];
+					for (int j = v.size() - 1; j >= 0; j--) {
+						final int literal = v.get(j);
+						final int value = currentConfiguration[getIndex(literal)];
+						if (value != 0) {
+							if (value == literal) {
+								clauseState[clauseId] = CLOSED;
+							} else {
+								v.delete(j);
+							}
+							changed = true;
+						}
+					}
+
+					if ((clauseState[clauseId] == OPEN) && (v.size() == 1)) {
+						clauseState[clauseId] = CLOSED;
+						unitLiterals.push(v.get(0));
+					}
+				}
+			}
+
+			for (int i = 0; i < unitLiterals.size(); i++) {
+				changedInLoop |= attemptStrongSelect(unitLiterals.get(i));
+			}
+			changed |= changedInLoop;
+		} while (changedInLoop);
+		return changed;
+	}
+
+	private boolean attemptStrongSelect(final int curLiteral) throws CancelException {
+		final int modelIndex = getIndex(curLiteral);
+		if (currentConfiguration[modelIndex] == 0) {
+			currentConfiguration[modelIndex] = curLiteral;
+			VisitResult visitStrongResult = visitor.visitStrong(curLiteral);
+			switch (visitStrongResult) {
+			case Cancel:
+				throw new CancelException();
+			case Skip:
+				return true;
+			case Select:
+			case Continue:
+				break;
+			default:
+				throw new AssertionError(visitStrongResult);
+			}
+
+			final int curVertexIndex = MIG.getVertexIndex(curLiteral);
+			addComplexClauses(curVertexIndex);
+
+			final int end = mig.getStrongEnd(curVertexIndex);
+			for (int i = mig.getStrongBegin(curVertexIndex); i < end; i++) {
+				final int literal = mig.getStrongTarget(i);
+				final int strongVertexIndex = getIndex(literal);
+				if (currentConfiguration[strongVertexIndex] == 0) {
+					currentConfiguration[strongVertexIndex] = literal;
+					visitStrongResult = visitor.visitStrong(literal);
+					switch (visitStrongResult) {
+					case Cancel:
+						throw new CancelException();
+					case Skip:
+						break;
+					case Select:
+					case Continue:
+						addComplexClauses(MIG.getVertexIndex(literal));
+						break;
+					default:
+						throw new AssertionError(visitStrongResult);
+					}
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private int getIndex(final int literal) {
+		return Math.abs(literal) - 1;
+	}
+
+	private int addComplexClauses(final int vertexIndex) {
+		int added = 0;
+		final int end = mig.getWeakEnd(vertexIndex);
+		for (int i = mig.getWeakBegin(vertexIndex); i < end; i++) {
+			final int clauseId = mig.getWeakClause(i);
+			if (clauseState[clauseId] == UNSEEN) {
+				clauseState[clauseId] = OPEN;
+				seenClauses.push(clauseId);
+				VecInt openClause = openClauses[clauseId];
+				final int clauseEnd = mig.getClauseEnd(clauseId);
+				final int clauseBegin = mig.getClauseBegin(clauseId);
+				if (openClause == null) {
+					openClause = new VecInt(clauseEnd - clauseBegin);
+					openClauses[clauseId] = openClause;
+				} else {
+					openClause.clear();
+				}
+				for (int j = clauseBegin; j < clauseEnd; j++) {
+					openClause.push(mig.getClauseLiteral(j));
+				}
+				added++;
+			}
+		}
+		return added;
+	}
+
+	private void acquireArena() {
+		ClauseArena idleArena = idleArenas.pollFirst();
+		if (idleArena == null) {
+			// first or concurrent traversal, e.g., started by a visitor
+			idleArena = new ClauseArena(mig.getClauseCount());
+		}
+		arena = idleArena;
+		clauseState = idleArena.clauseState;
+		openClauses = idleArena.openClauses;
+		seenClauses = idleArena.seenClauses;
+	}
+
+	private void releaseArena() {
+		for (int i = 0; i < seenClauses.size(); i++) {
+			clauseState[seenClauses.get(i)] = UNSEEN;
+		}
+		seenClauses.clear();
+		idleArenas.offerFirst(arena);
+		arena = null;
+		clauseState = null;
+		openClauses = null;
+		seenClauses = null;
+	}
+
+}
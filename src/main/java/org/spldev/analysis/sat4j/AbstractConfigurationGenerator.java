@@ -92,7 +92,8 @@ public abstract class AbstractConfigurationGenerator extends Sat4JAnalysis<Solut
 
 	@Override
 	public void init(ModelRepresentation rep, InternalMonitor monitor) {
-		solver = createSolver(rep.get(solverInputProvider));
+		// the generator keeps its solver, so it must not be borrowed from a pool
+		solver = newSolver(rep.get(solverInputProvider));
 		monitor.checkCancel();
 		prepareSolver(solver);
 		init(monitor);
@@ -22,13 +22,19 @@
  */
 package org.spldev.analysis.sat4j;
 
+import org.spldev.analysis.sat4j.solver.*;
 import org.spldev.analysis.solver.*;
 import org.spldev.clauses.*;
 import org.spldev.clauses.solutions.*;
 import org.spldev.util.data.*;
+import org.spldev.util.job.*;
 
 /**
- * Generates all configurations for a given propositional formula.
+ * Generates all configurations for a given propositional formula. The
+ * configurations are enumerated by a {@link SolutionEnumerator}, which does not
+ * add any clauses to the solver. Thus, configurations can be streamed via
+ * {@link #get()} or {@link #tryAdvance(java.util.function.Consumer)} with
+ * constant memory.
  *
  * @author Sebastian Krieter
  */
@@ -41,24 +47,44 @@ public class AllConfigurationGenerator extends AbstractConfigurationGenerator {
 		return identifier;
 	}
 
-	private boolean satisfiable = true;
+	private LiteralList projection = null;
+
+	private SolutionEnumerator enumerator;
+
+	public LiteralList getProjection() {
+		return projection;
+	}
+
+	/**
+	 * Restricts the configurations to the given variables. Each assignment of
+	 * these variables that can be extended to a solution is returned exactly once.
+	 *
+	 * @param projection the variables or {@code null} for all variables
+	 */
+	public void setProjection(LiteralList projection) {
+		this.projection = projection;
+	}
 
 	@Override
-	public LiteralList get() {
-		if (!satisfiable) {
-			return null;
+	protected void init(InternalMonitor monitor) {
+		if (enumerator != null) {
+			enumerator.finish();
 		}
-		final LiteralList solution = solver.findSolution();
-		if (solution == null) {
-			satisfiable = false;
+		enumerator = new SolutionEnumerator(solver, projection != null ? projection.getLiterals() : null);
+	}
+
+	@Override
+	public LiteralList get() {
+		if (enumerator == null) {
 			return null;
 		}
 		try {
-			solver.getFormula().push(solution.negate());
-		} catch (final RuntimeContradictionException e) {
-			satisfiable = false;
+			return enumerator.next();
+		} catch (final RuntimeTimeoutException e) {
+			enumerator = null;
+			reportTimeout();
+			return null;
 		}
-		return solution;
 	}
 
 }
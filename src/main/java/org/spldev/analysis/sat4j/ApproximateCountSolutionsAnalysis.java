@@ -0,0 +1,432 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j;
+
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.clauses.LiteralList.*;
+import org.spldev.formula.structure.atomic.literal.*;
+import org.spldev.util.data.*;
+import org.spldev.util.job.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Estimates the number of solutions of a given {@link CNF} under the
+ * assumptions of the solver, following the ApproxMC algorithm. With
+ * probability of at least {@code 1 - delta}, the estimate lies within a factor
+ * of {@code 1 + epsilon} of the exact count.<br>
+ * Each trial partitions the solution space into cells using random XOR
+ * constraints over all variables and counts the solutions of one cell by
+ * enumeration up to a threshold. The number of XOR constraints is searched such
+ * that the cell is just below the threshold. The estimate is the median of the
+ * trials, which run in parallel on separate solvers. The XOR constraints are
+ * encoded as clauses with auxiliary variables and added as
+ * {@link Sat4JFormula#pushGuarded(List) guarded groups}. Each trial uses a
+ * fresh solver, such that selectors, auxiliary variables, and removed groups
+ * do not accumulate over the trials.
+ *
+ * @see CountSolutionsAnalysis
+ *
+ * @author Sebastian Krieter
+ */
+public class ApproximateCountSolutionsAnalysis extends Sat4JAnalysis<BigInteger> {
+
+	public static final Identifier<BigInteger> identifier = new Identifier<>();
+
+	/**
+	 * Maximum number of variables in the clauses of one XOR segment.
+	 */
+	private static final int XOR_SEGMENT_SIZE = 5;
+
+	private double epsilon = 0.8;
+	private double delta = 0.2;
+	private long timeBudget = 0;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	@Override
+	public Identifier<BigInteger> getIdentifier() {
+		return identifier;
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * @param epsilon the tolerance of the estimate (greater than zero)
+	 */
+	public void setEpsilon(double epsilon) {
+		if (epsilon <= 0) {
+			throw new IllegalArgumentException(String.valueOf(epsilon));
+		}
+		this.epsilon = epsilon;
+	}
+
+	public double getDelta() {
+		return delta;
+	}
+
+	/**
+	 * @param delta the probability that the estimate exceeds the tolerance
+	 *              (between zero and one)
+	 */
+	public void setDelta(double delta) {
+		if ((delta <= 0) || (delta >= 1)) {
+			throw new IllegalArgumentException(String.valueOf(delta));
+		}
+		this.delta = delta;
+	}
+
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Sets the maximum time for the whole analysis. If the budget is exceeded,
+	 * the median of all completed trials is returned, which does not meet the
+	 * requested confidence. If no trial was completed, a timeout is reported.<br>
+	 * The timeout of each single solver call is set via {@link #setTimeout(int)}.
+	 *
+	 * @param timeBudget the time in milliseconds (values less than one disable the
+	 *                   budget)
+	 */
+	public void setTimeBudget(long timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism the number of solvers that run trials in parallel
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @return the maximum number of solutions counted per cell
+	 */
+	public int getThreshold() {
+		return (int) Math.ceil(1 + (9.84 * (1 + (epsilon / (1 + epsilon))) * (1 + (1 / epsilon)) * (1 + (1
+			/ epsilon))));
+	}
+
+	/**
+	 * @return the number of trials
+	 */
+	public int getNumberOfTrials() {
+		return (int) Math.ceil(17 * (Math.log(3 / delta) / Math.log(2)));
+	}
+
+	@Override
+	public BigInteger analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+		if (!solver.getFormula().getActiveSelectors().isEmpty()) {
+			throw new IllegalStateException("Cannot count solutions of a solver with guarded clauses");
+		}
+		// the clauses of the solver include clauses pushed after its creation
+		final ClauseStore clauses = ClauseStore.of(solver.getFormula().toClauses());
+		final VariableMap variables = solver.getVariables();
+		final int[] assumptions = solver.getAssumptions().asArray();
+		final int numberOfVariables = solver.getVariables().getMaxIndex();
+		final int threshold = getThreshold();
+		final int numberOfTrials = getNumberOfTrials();
+		final long deadline = timeBudget > 0 ? System.nanoTime() + (timeBudget * 1_000_000L) : Long.MAX_VALUE;
+		monitor.setTotalWork(numberOfTrials + 1);
+
+		// small solution spaces are counted exactly
+		final Sat4JSolver exactSolver = createTrialSolver(variables, clauses, assumptions);
+		final int exactCount = countCell(exactSolver, threshold, deadline);
+		monitor.step();
+		if (exactCount < 0) {
+			reportTimeout();
+			return null;
+		} else if (exactCount < threshold) {
+			return BigInteger.valueOf(exactCount);
+		}
+
+		final BigInteger[] estimates = new BigInteger[numberOfTrials];
+		final AtomicInteger nextTrial = new AtomicInteger();
+		final long seed = getRandom().nextLong();
+		final int numberOfWorkers = Math.min(parallelism, numberOfTrials);
+		runParallel(numberOfWorkers, worker -> {
+			int hint = 1;
+			for (int trial = nextTrial.getAndIncrement(); trial < numberOfTrials; trial = nextTrial.getAndIncrement()) {
+				final Sat4JSolver trialSolver = createTrialSolver(variables, clauses, assumptions);
+				final Random random = new Random(seed + trial);
+				final Trial result = new Trial(trialSolver, random, numberOfVariables, threshold, deadline);
+				estimates[trial] = result.estimate(hint);
+				if (estimates[trial] != null) {
+					hint = result.level;
+				}
+				synchronized (monitor) {
+					monitor.step();
+				}
+			}
+		}, () -> nextTrial.set(numberOfTrials));
+
+		final List<BigInteger> completedEstimates = new ArrayList<>(numberOfTrials);
+		for (final BigInteger estimate : estimates) {
+			if (estimate != null) {
+				completedEstimates.add(estimate);
+			}
+		}
+		if (completedEstimates.isEmpty()) {
+			reportTimeout();
+			return null;
+		}
+		if (completedEstimates.size() < numberOfTrials) {
+			Logger.logDebug(getClass().getSimpleName() + ": only " + completedEstimates.size() + " of "
+				+ numberOfTrials + " trials completed");
+		}
+		Collections.sort(completedEstimates);
+		return completedEstimates.get((completedEstimates.size() - 1) / 2);
+	}
+
+	private Sat4JSolver createTrialSolver(VariableMap variables, ClauseStore clauses, int[] assumptions) {
+		final Sat4JSolver trialSolver = new Sat4JSolver(variables, clauses, getSolverProfile());
+		trialSolver.setTimeout(getTimeout());
+		trialSolver.getAssumptions().pushAll(assumptions);
+		return trialSolver;
+	}
+
+	/**
+	 * Counts the solutions of the current cell up to the threshold. Each found
+	 * solution is excluded by a blocking clause in a guarded group, which is
+	 * disabled when the cell is left. As the blocking clauses are not removed
+	 * from the solver, the clauses learned from them remain valid.
+	 *
+	 * @return the number of solutions (at most {@code threshold}) or {@code -1}, if
+	 *         a timeout occurred
+	 */
+	private static int countCell(Sat4JSolver solver, int threshold, long deadline) {
+		final Sat4JFormula formula = solver.getFormula();
+		formula.pushGuarded(Collections.emptyList());
+		try {
+			int count = 0;
+			while (count < threshold) {
+				if (System.nanoTime() > deadline) {
+					return -1;
+				}
+				switch (solver.hasSolution()) {
+				case FALSE:
+					return count;
+				case TIMEOUT:
+					return -1;
+				case TRUE:
+					count++;
+					final int[] solution = solver.getInternalSolution();
+					final int[] blockingClause = new int[solution.length];
+					int length = 0;
+					for (final int literal : solution) {
+						if (literal != 0) {
+							blockingClause[length++] = -literal;
+						}
+					}
+					try {
+						formula.addGuarded(new LiteralList(Arrays.copyOf(blockingClause, length), Order.UNORDERED));
+					} catch (final RuntimeContradictionException e) {
+						return count;
+					}
+					break;
+				default:
+					throw new AssertionError();
+				}
+			}
+			return count;
+		} finally {
+			formula.popGuarded();
+		}
+	}
+
+	/**
+	 * One trial of the counting algorithm. The random XOR constraints form a
+	 * prefix family, i.e., the cell for {@code m} constraints is a subset of the
+	 * cell for {@code m - 1} constraints. Thus, the number of constraints can be
+	 * searched by galloping and binary search.
+	 */
+	private static final class Trial {
+
+		private final Sat4JSolver solver;
+		private final Random random;
+		private final int numberOfVariables;
+		private final int threshold;
+		private final long deadline;
+
+		private final List<List<LiteralList>> xorClauses = new ArrayList<>();
+		private int pushedConstraints = 0;
+
+		private int level;
+
+		private Trial(Sat4JSolver solver, Random random, int numberOfVariables, int threshold, long deadline) {
+			this.solver = solver;
+			this.random = random;
+			this.numberOfVariables = numberOfVariables;
+			this.threshold = threshold;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * @param hint the number of constraints to start the search with
+		 * @return the estimated number of solutions or {@code null}, if a timeout
+		 *         occurred
+		 */
+		private BigInteger estimate(int hint) {
+			try {
+				// invariant: cell(low) >= threshold and cell(high) < threshold
+				int low = 0;
+				int high;
+				int highCount;
+				int m = Math.max(1, Math.min(hint, numberOfVariables));
+				int count = countCell(m);
+				if (count < 0) {
+					return null;
+				}
+				if (count < threshold) {
+					high = m;
+					highCount = count;
+				} else {
+					low = m;
+					int step = 1;
+					while (true) {
+						m = Math.min(low + step, numberOfVariables);
+						count = countCell(m);
+						if (count < 0) {
+							return null;
+						}
+						if ((count < threshold) || (m == numberOfVariables)) {
+							high = m;
+							highCount = count;
+							break;
+						}
+						low = m;
+						step <<= 1;
+					}
+				}
+				while ((high - low) > 1) {
+					final int mid = (low + high) >>> 1;
+					count = countCell(mid);
+					if (count < 0) {
+						return null;
+					}
+					if (count < threshold) {
+						high = mid;
+						highCount = count;
+					} else {
+						low = mid;
+					}
+				}
+				level = high;
+				return BigInteger.valueOf(highCount).shiftLeft(high);
+			} finally {
+				solver.getFormula().popGuarded(pushedConstraints);
+				pushedConstraints = 0;
+			}
+		}
+
+		private int countCell(int m) {
+			if (pushedConstraints > m) {
+				solver.getFormula().popGuarded(pushedConstraints - m);
+				pushedConstraints = m;
+			}
+			while (pushedConstraints < m) {
+				if (xorClauses.size() == pushedConstraints) {
+					createConstraint();
+				}
+				solver.getFormula().pushGuarded(xorClauses.get(pushedConstraints));
+				pushedConstraints++;
+			}
+			return ApproximateCountSolutionsAnalysis.countCell(solver, threshold, deadline);
+		}
+
+		private void createConstraint() {
+			final int[] variables = new int[numberOfVariables];
+			int size = 0;
+			for (int variable = 1; variable <= numberOfVariables; variable++) {
+				if (random.nextBoolean()) {
+					variables[size++] = variable;
+				}
+			}
+			// the encoding is reused when the constraint is pushed again, which is
+			// sound, because the auxiliary variables are unconstrained once the
+			// previous group was removed
+			xorClauses.add(encodeXor(solver.getFormula(), Arrays.copyOf(variables, size), random.nextBoolean()));
+		}
+	}
+
+	/**
+	 * Encodes the constraint {@code x_1 xor ... xor x_n = parity} as clauses. The
+	 * variables are split into segments, each of which is encoded directly and
+	 * linked to the next segment by an auxiliary variable.
+	 */
+	private static List<LiteralList> encodeXor(Sat4JFormula formula, int[] variables, boolean parity) {
+		final List<LiteralList> clauses = new ArrayList<>();
+		if (variables.length == 0) {
+			if (parity) {
+				clauses.add(new LiteralList(new int[] { 0 }, Order.UNORDERED));
+			}
+			return clauses;
+		}
+		int carry = variables[0];
+		int index = 1;
+		while ((variables.length - index) >= XOR_SEGMENT_SIZE) {
+			final int auxiliary = formula.newAuxiliaryVariable();
+			final int[] segment = new int[XOR_SEGMENT_SIZE];
+			segment[0] = carry;
+			for (int i = 1; i < (XOR_SEGMENT_SIZE - 1); i++) {
+				segment[i] = variables[index++];
+			}
+			segment[XOR_SEGMENT_SIZE - 1] = auxiliary;
+			encodeSegment(segment, false, clauses);
+			carry = auxiliary;
+		}
+		final int[] segment = new int[(variables.length - index) + 1];
+		segment[0] = carry;
+		System.arraycopy(variables, index, segment, 1, variables.length - index);
+		encodeSegment(segment, parity, clauses);
+		return clauses;
+	}
+
+	/**
+	 * Adds one clause for each assignment of the given variables that violates the
+	 * parity.
+	 */
+	private static void encodeSegment(int[] variables, boolean parity, List<LiteralList> clauses) {
+		for (int mask = 0; mask < (1 << variables.length); mask++) {
+			if (((Integer.bitCount(mask) & 1) == 1) != parity) {
+				final int[] clause = new int[variables.length];
+				for (int i = 0; i < variables.length; i++) {
+					clause[i] = ((mask >>> i) & 1) == 1 ? -variables[i] : variables[i];
+				}
+				clauses.add(new LiteralList(clause, Order.UNORDERED));
+			}
+		}
+	}
+
+}
@@ -23,14 +23,25 @@
 package org.spldev.analysis.sat4j;
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
+import org.sat4j.core.*;
+import org.spldev.analysis.mig.solver.*;
 import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
 import org.spldev.clauses.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
 /**
- * Finds atomic sets.
+ * Finds atomic sets.<br>
+ * Two variables can only be in the same atomic set if they have equal or
+ * complementary values in every known solution. Thus, the variables are first
+ * grouped by their values in a set of sampled solutions. Variables that lie in
+ * the same strongly connected component of the implication graph induced by
+ * the binary clauses are atomic without further checks. The solver is only used
+ * to split the remaining candidate groups, which can be done in parallel (see
+ * {@link #setParallelism(int)}).
  *
  * @author Sebastian Krieter
  */
@@ -38,6 +49,9 @@ public class AtomicSetAnalysis extends Sat4JAnalysis<List<LiteralList>> { // tod
 
 	public static final Identifier<List<LiteralList>> identifier = new Identifier<>();
 
+	private int numberOfSamples = 64;
+	private int parallelism = 1;
+
 	@Override
 	public Identifier<List<LiteralList>> getIdentifier() {
 		return identifier;
@@ -47,9 +61,423 @@ public class AtomicSetAnalysis extends Sat4JAnalysis<List<LiteralList>> { // tod
 		super();
 	}
 
+	public int getNumberOfSamples() {
+		return numberOfSamples;
+	}
+
+	/**
+	 * Sets the number of random solutions that are computed in addition to the
+	 * solution history to separate variables before any pair is checked.
+	 *
+	 * @param numberOfSamples the number of random solutions
+	 */
+	public void setNumberOfSamples(int numberOfSamples) {
+		this.numberOfSamples = numberOfSamples;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that split the candidate groups in parallel.
+	 * Parallel splitting is only used if the solver contains exactly the clauses
+	 * of its CNF.
+	 *
+	 * @param parallelism the number of solvers
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
 	@Override
 	public List<LiteralList> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
 		final List<LiteralList> result = new ArrayList<>();
+
+		solver.setSelectionStrategy(SStrategy.positive());
+		final int[] model1 = solver.findSolution().getLiterals();
+		solver.rememberSolutionHistory(AbstractSat4JSolver.MAX_SOLUTION_BUFFER);
+
+		if (model1 != null) {
+			// initial atomic set consists of core and dead features
+			solver.setSelectionStrategy(SStrategy.negative());
+			final int[] model2 = solver.findSolution().getLiterals();
+			solver.setSelectionStrategy(SStrategy.positive());
+
+			final boolean[] fixed = new boolean[model1.length];
+			final int[] model1Copy = Arrays.copyOf(model1, model1.length);
+
+			LiteralList.resetConflicts(model1Copy, model2);
+			for (int i = 0; i < model1Copy.length; i++) {
+				final int varX = model1Copy[i];
+				if (varX != 0) {
+					solver.getAssumptions().push(-varX);
+					switch (solver.hasSolution()) {
+					case FALSE:
+						fixed[i] = true;
+						solver.getAssumptions().replaceLast(varX);
+						break;
+					case TIMEOUT:
+						solver.getAssumptions().pop();
+						reportTimeout();
+						break;
+					case TRUE:
+						solver.getAssumptions().pop();
+						LiteralList.resetConflicts(model1Copy, solver.getInternalSolution());
+						solver.shuffleOrder(getRandom());
+						break;
+					}
+				}
+			}
+			final int fixedSize = solver.getAssumptions().size();
+			result.add(new LiteralList(solver.getAssumptions().asArray(0, fixedSize)));
+
+			final List<int[]> samples = sampleSolutions(solver, model1);
+			final List<int[]> groups = groupVariables(samples, fixed);
+			final int[] components = computeComponents(solver.getCnf(), model1.length);
+			final boolean[] phase = new boolean[model1.length];
+			for (int i = 0; i < phase.length; i++) {
+				phase[i] = samples.get(0)[i] > 0;
+			}
+
+			final List<int[]> classes = new ArrayList<>();
+			for (final int[] group : groups) {
+				if (group.length == 1) {
+					classes.add(group);
+				}
+			}
+			final List<int[]> openGroups = new ArrayList<>();
+			for (final int[] group : groups) {
+				if (group.length > 1) {
+					openGroups.add(group);
+				}
+			}
+			if ((parallelism > 1) && (openGroups.size() > 1) && isParallelizable(solver)) {
+				classes.addAll(splitParallel(solver, openGroups, fixedSize, phase, components));
+			} else {
+				final List<int[]> models = new ArrayList<>();
+				for (final int[] group : openGroups) {
+					models.clear();
+					split(solver, group, phase, components, models, classes);
+				}
+			}
+
+			// report the atomic sets in the same order and polarity as the pairwise
+			// variant
+			classes.sort(Comparator.comparingInt(c -> c[0]));
+			for (final int[] atomicSet : classes) {
+				final int representative = atomicSet[0];
+				final int leader = -model1[representative - 1];
+				final boolean leaderPhase = phase[representative - 1];
+				final int[] literals = new int[atomicSet.length];
+				literals[0] = leader;
+				for (int k = 1; k < atomicSet.length; k++) {
+					final int var = atomicSet[k];
+					final boolean equivalent = phase[var - 1] == leaderPhase;
+					literals[k] = ((leader > 0) == equivalent) ? var : -var;
+				}
+				result.add(new LiteralList(literals));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the solution history and a number of random solutions. The
+	 * solution history is disabled afterwards, as it would answer all further
+	 * queries that are used for sampling.
+	 */
+	private List<int[]> sampleSolutions(Sat4JSolver solver, int[] model1) {
+		final List<int[]> samples = new ArrayList<>();
+		samples.add(model1);
+		for (final LiteralList solution : solver.getSolutionHistory()) {
+			samples.add(solution.getLiterals());
+		}
+		solver.rememberSolutionHistory(0);
+		solver.setSelectionStrategy(SStrategy.random(getRandom()));
+		for (int i = 0; i < numberOfSamples; i++) {
+			if (solver.hasSolution() != SatResult.TRUE) {
+				break;
+			}
+			samples.add(Arrays.copyOf(solver.getInternalSolution(), model1.length));
+			solver.shuffleOrder(getRandom());
+		}
+		return samples;
+	}
+
+	/**
+	 * Groups all variables that are not fixed by their values in the given
+	 * solutions. The values of a variable are normalized to its value in the first
+	 * solution, such that equal and complementary variables fall into the same
+	 * group.
+	 *
+	 * @return the groups, each containing variables in ascending order
+	 */
+	private static List<int[]> groupVariables(List<int[]> samples, boolean[] fixed) {
+		final int numberOfWords = ((samples.size() - 1) >>> 6) + 1;
+		final int[] first = samples.get(0);
+		final LinkedHashMap<Signature, VecInt> groups = new LinkedHashMap<>();
+		for (int i = 0; i < fixed.length; i++) {
+			if (!fixed[i]) {
+				final long[] bits = new long[numberOfWords];
+				for (int s = 1; s < samples.size(); s++) {
+					if ((samples.get(s)[i] > 0) != (first[i] > 0)) {
+						bits[s >>> 6] |= 1L << s;
+					}
+				}
+				groups.computeIfAbsent(new Signature(bits), k -> new VecInt()).push(i + 1);
+			}
+		}
+		final List<int[]> result = new ArrayList<>(groups.size());
+		for (final VecInt group : groups.values()) {
+			result.add(toArray(group));
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the strongly connected components of the implication graph of all
+	 * binary clauses (i.e., the strong edges of a {@link MIG}). Literals in the
+	 * same component are equivalent.
+	 *
+	 * @return the component of each literal, indexed by
+	 *         {@link MIG#getVertexIndex(int)}
+	 */
+	private static int[] computeComponents(CNF cnf, int numberOfVariables) {
+		final int numberOfVertices = numberOfVariables << 1;
+		final int[] offsets = new int[numberOfVertices + 1];
+		final List<LiteralList> binaryClauses = new ArrayList<>();
+		if (cnf != null) {
+			for (final LiteralList clause : cnf.getClauses()) {
+				final int[] literals = clause.getLiterals();
+				if ((literals.length == 2) && (Math.abs(literals[0]) <= numberOfVariables)
+					&& (Math.abs(literals[1]) <= numberOfVariables)) {
+					binaryClauses.add(clause);
+					offsets[MIG.getVertexIndex(-literals[0]) + 1]++;
+					offsets[MIG.getVertexIndex(-literals[1]) + 1]++;
+				}
+			}
+		}
+		for (int i = 0; i < numberOfVertices; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		final int[] targets = new int[offsets[numberOfVertices]];
+		final int[] fill = Arrays.copyOf(offsets, numberOfVertices);
+		for (final LiteralList clause : binaryClauses) {
+			final int[] literals = clause.getLiterals();
+			targets[fill[MIG.getVertexIndex(-literals[0])]++] = MIG.getVertexIndex(literals[1]);
+			targets[fill[MIG.getVertexIndex(-literals[1])]++] = MIG.getVertexIndex(literals[0]);
+		}
+
+		// iterative version of Tarjan's algorithm
+		final int[] components = new int[numberOfVertices];
+		final int[] index = new int[numberOfVertices];
+		final int[] lowLink = new int[numberOfVertices];
+		final int[] edgeCursor = new int[numberOfVertices];
+		final boolean[] onStack = new boolean[numberOfVertices];
+		final int[] stack = new int[numberOfVertices];
+		final int[] callStack = new int[numberOfVertices];
+		Arrays.fill(index, -1);
+		int stackSize = 0;
+		int nextIndex = 0;
+		int nextComponent = 0;
+		for (int root = 0; root < numberOfVertices; root++) {
+			if (index[root] >= 0) {
+				continue;
+			}
+			int callSize = 0;
+			callStack[callSize++] = root;
+			index[root] = lowLink[root] = nextIndex++;
+			edgeCursor[root] = offsets[root];
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			while (callSize > 0) {
+				final int vertex = callStack[callSize - 1];
+				if (edgeCursor[vertex] < offsets[vertex + 1]) {
+					final int target = targets[edgeCursor[vertex]++];
+					if (index[target] < 0) {
+						index[target] = lowLink[target] = nextIndex++;
+						edgeCursor[target] = offsets[target];
+						stack[stackSize++] = target;
+						onStack[target] = true;
+						callStack[callSize++] = target;
+					} else if (onStack[target]) {
+						lowLink[vertex] = Math.min(lowLink[vertex], index[target]);
+					}
+				} else {
+					callSize--;
+					if (callSize > 0) {
+						final int parent = callStack[callSize - 1];
+						lowLink[parent] = Math.min(lowLink[parent], lowLink[vertex]);
+					}
+					if (lowLink[vertex] == index[vertex]) {
+						int member;
+						do {
+							member = stack[--stackSize];
+							onStack[member] = false;
+							components[member] = nextComponent;
+						} while (member != vertex);
+						nextComponent++;
+					}
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Splits a group of candidate variables into atomic sets.
+	 *
+	 * @param models solutions found while splitting this group
+	 * @param classes list to add the atomic sets to
+	 */
+	private void split(Sat4JSolver solver, int[] group, boolean[] phase, int[] components, List<int[]> models,
+		List<int[]> classes) {
+		int[] open = group;
+		while (open.length > 0) {
+			final int representative = open[0];
+			final VecInt atomicSet = new VecInt();
+			final VecInt rest = new VecInt();
+			atomicSet.push(representative);
+			for (int k = 1; k < open.length; k++) {
+				final int var = open[k];
+				final int literal = phase[var - 1] == phase[representative - 1] ? var : -var;
+				if (isEquivalent(components, representative, literal)) {
+					atomicSet.push(var);
+				} else if (isSeparated(models, representative, literal)
+					|| !isImplied(solver, representative, literal, models)
+					|| !isImplied(solver, -representative, -literal, models)) {
+					rest.push(var);
+				} else {
+					atomicSet.push(var);
+				}
+			}
+			classes.add(toArray(atomicSet));
+			open = toArray(rest);
+		}
+	}
+
+	private static int[] toArray(VecInt vector) {
+		return Arrays.copyOf(vector.toArray(), vector.size());
+	}
+
+	private static boolean isEquivalent(int[] components, int literal1, int literal2) {
+		return components[MIG.getVertexIndex(literal1)] == components[MIG.getVertexIndex(literal2)];
+	}
+
+	private static boolean isSeparated(List<int[]> models, int literal1, int literal2) {
+		for (final int[] model : models) {
+			if ((model[Math.abs(literal1) - 1] == literal1) != (model[Math.abs(literal2) - 1] == literal2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isImplied(Sat4JSolver solver, int premise, int conclusion, List<int[]> models) {
+		solver.getAssumptions().push(premise);
+		solver.getAssumptions().push(-conclusion);
+		try {
+			switch (solver.hasSolution()) {
+			case FALSE:
+				return true;
+			case TIMEOUT:
+				reportTimeout();
+				return false;
+			case TRUE:
+				final int[] solution = solver.getInternalSolution();
+				models.add(Arrays.copyOf(solution, solution.length));
+				solver.shuffleOrder(getRandom());
+				return false;
+			default:
+				throw new AssertionError();
+			}
+		} finally {
+			solver.getAssumptions().pop(2);
+		}
+	}
+
+	private static boolean isParallelizable(Sat4JSolver solver) {
+		final CNF cnf = solver.getCnf();
+		return (cnf != null) && !solver.getFormula().hasSelectors()
+			&& (solver.getFormula().getConstraints().size() == cnf.getClauses().size());
+	}
+
+	/**
+	 * Splits the candidate groups with several solvers in parallel. Each solver
+	 * repeatedly takes the next unprocessed group. The additional solvers are
+	 * borrowed from a {@link Sat4JSolverPool}, unless all of its solvers are in
+	 * use.
+	 */
+	private List<int[]> splitParallel(Sat4JSolver solver, List<int[]> groups, int fixedSize, boolean[] phase,
+		int[] components) {
+		final int[] fixedLiterals = solver.getAssumptions().asArray(0, fixedSize);
+		final AtomicInteger nextGroup = new AtomicInteger();
+		final List<int[]> classes = Collections.synchronizedList(new ArrayList<>());
+		final Sat4JSolverPool workerPool = getWorkerSolverPool(solver.getCnf(), parallelism - 1);
+		final long[] seeds = new long[parallelism];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = getRandom().nextLong();
+		}
+		runParallel(parallelism, worker -> {
+			if (worker == 0) {
+				splitGroups(solver, groups, nextGroup, phase, components, classes);
+				return;
+			}
+			final Sat4JSolver workerSolver = acquireWorkerSolver(workerPool);
+			try {
+				workerSolver.setTimeout(solver.getTimeout());
+				workerSolver.getAssumptions().pushAll(fixedLiterals);
+				workerSolver.setSelectionStrategy(SStrategy.random(new Random(seeds[worker])));
+				splitGroups(workerSolver, groups, nextGroup, phase, components, classes);
+			} finally {
+				releaseWorkerSolver(workerPool, workerSolver);
+			}
+		}, () -> nextGroup.set(groups.size()));
+		return classes;
+	}
+
+	private void splitGroups(Sat4JSolver solver, List<int[]> groups, AtomicInteger nextGroup, boolean[] phase,
+		int[] components, List<int[]> classes) {
+		final List<int[]> models = new ArrayList<>();
+		final List<int[]> localClasses = new ArrayList<>();
+		try {
+			for (int i = nextGroup.getAndIncrement(); i < groups.size(); i = nextGroup.getAndIncrement()) {
+				models.clear();
+				split(solver, groups.get(i), phase, components, models, localClasses);
+			}
+		} finally {
+			classes.addAll(localClasses);
+		}
+	}
+
+	private static final class Signature {
+		private final long[] bits;
+		private final int hashCode;
+
+		private Signature(long[] bits) {
+			this.bits = bits;
+			hashCode = Arrays.hashCode(bits);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof Signature) && Arrays.equals(bits, ((Signature) obj).bits);
+		}
+	}
+
+	/**
+	 * Pairwise variant that tests each pair of variables with the same occurrence
+	 * in the solution history. Returns the same result as
+	 * {@link #analyze(Sat4JSolver, InternalMonitor)}.
+	 */
+	public List<LiteralList> analyzePairwise(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+		final List<LiteralList> result = new ArrayList<>();
 //		if (variables == null) {
 //			variables = LiteralList.getVariables(solver.getVariables());
 //		}
@@ -58,7 +486,8 @@ public class AtomicSetAnalysis extends Sat4JAnalysis<List<LiteralList>> { // tod
 
 		solver.setSelectionStrategy(SStrategy.positive());
 		final int[] model1 = solver.findSolution().getLiterals();
-		final List<LiteralList> solutions = solver.rememberSolutionHistory(1000);
+		solver.rememberSolutionHistory(AbstractSat4JSolver.MAX_SOLUTION_BUFFER);
+		final SolutionCache solutions = solver.getSolutionCache();
 
 		if (model1 != null) {
 			// initial atomic set consists of core and dead features
@@ -109,12 +538,8 @@ public class AtomicSetAnalysis extends Sat4JAnalysis<List<LiteralList>> { // tod
 					inner: for (int j = i + 1; j < xModel0.length; j++) {
 						final int my0 = xModel0[j];
 						if ((my0 != 0) && (done[j] == 0)) {
-							for (final LiteralList solution : solutions) {
-								final int mxI = solution.getLiterals()[i];
-								final int myI = solution.getLiterals()[j];
-								if ((mx0 == mxI) != (my0 == myI)) {
-									continue inner;
-								}
+							if (!solutions.haveSameOccurrence(mx0, my0)) {
+								continue inner;
 							}
 
 							solver.getAssumptions().push(-my0);
@@ -148,7 +573,9 @@ public class AtomicSetAnalysis extends Sat4JAnalysis<List<LiteralList>> { // tod
 						reportTimeout();
 						break;
 					case TRUE:
-						xModel0 = solver.getInternalSolution();
+						// copy, as the model may be shared with the solution history
+						final int[] solution = solver.getInternalSolution();
+						xModel0 = Arrays.copyOf(solution, solution.length);
 						break;
 					}
 
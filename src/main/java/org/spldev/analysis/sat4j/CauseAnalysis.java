@@ -23,15 +23,25 @@
 package org.spldev.analysis.sat4j;
 
 import java.util.*;
+import java.util.stream.*;
 
 import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
 import org.spldev.clauses.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 import org.spldev.util.logging.*;
 
 /**
- * Finds clauses responsible for core and dead features.
+ * Finds clauses responsible for core and dead features.<br>
+ * For each anomaly (i.e., a core or dead variable or a redundant clause), the
+ * analysis finds the first relevant clause group, such that the anomaly occurs
+ * in the formula consisting of the {@link CNF} and all clause groups up to this
+ * group. All groups are added to one solver at once, guarded by a chain of
+ * selector variables, such that every prefix of groups can be enabled by a
+ * single assumption. The first prefix causing an anomaly is then found by a
+ * binary search. Every solution found during the search is used to rule out
+ * prefixes for all other anomalies at once.
  *
  * @author Sebastian Krieter
  */
@@ -94,8 +104,253 @@ public class CauseAnalysis extends AClauseAnalysis<List<CauseAnalysis.Anomalies>
 		this.relevantConstraint = relevantConstraint;
 	}
 
+	/**
+	 * An anomaly that is found by a binary search over the relevant clause groups.
+	 * The anomaly does not occur for the prefix up to the relevant group
+	 * {@code lower} and occurs for the prefix up to the relevant group
+	 * {@code upper}.
+	 */
+	private static final class Cause {
+		private final int[] query;
+		private final LiteralList literal;
+		private final LiteralList clause;
+		private int lower = -1;
+		private int upper;
+
+		private Cause(int[] query, LiteralList literal, LiteralList clause, int upper) {
+			this.query = query;
+			this.literal = literal;
+			this.clause = clause;
+			this.upper = upper;
+		}
+	}
+
 	@Override
 	public List<Anomalies> analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+		if (clauseList == null) {
+			return Collections.emptyList();
+		}
+		if (clauseGroupSize == null) {
+			clauseGroupSize = new int[clauseList.size()];
+			Arrays.fill(clauseGroupSize, 1);
+		}
+		final List<Anomalies> resultList = new ArrayList<>(clauseGroupSize.length);
+		for (int i = 0; i < clauseList.size(); i++) {
+			resultList.add(null);
+		}
+		if (anomalies == null) {
+			return resultList;
+		}
+		monitor.setTotalWork(6);
+
+		LiteralList remainingVariables = anomalies.deadVariables.getVariables();
+		final List<LiteralList> remainingClauses = new ArrayList<>(anomalies.redundantClauses);
+		monitor.step();
+
+		if (!remainingClauses.isEmpty()) {
+			final List<LiteralList> result = Executor.run(
+				new IndependentRedundancyAnalysis(remainingClauses)::execute,
+				solver.getCnf()).orElse(Logger::logProblems);
+			remainingClauses.removeIf(result::contains);
+		}
+		monitor.step();
+
+		if (remainingVariables.getLiterals().length > 0) {
+			final LiteralList coreDead = Executor.run(new CoreDeadAnalysis(remainingVariables)::execute,
+				solver.getCnf()).orElse(Logger::logProblems);
+			remainingVariables = remainingVariables.removeVariables(coreDead.getVariables().getLiterals());
+		}
+		monitor.step();
+
+		final int[] relevantGroups = IntStream.range(0, clauseGroupSize.length) //
+			.filter(i -> (relevantConstraint == null) || relevantConstraint[i]) //
+			.toArray();
+		if ((relevantGroups.length == 0)
+			|| ((remainingVariables.getLiterals().length == 0) && remainingClauses.isEmpty())) {
+			return resultList;
+		}
+
+		final int[] groupStart = new int[relevantGroups[relevantGroups.length - 1] + 2];
+		for (int i = 0; i < (groupStart.length - 1); i++) {
+			groupStart[i + 1] = groupStart[i] + clauseGroupSize[i];
+		}
+		final int[] prefixSelectors = pushPrefixes(solver.getFormula(), groupStart);
+		monitor.step();
+
+		final int lastGroup = relevantGroups.length - 1;
+		final List<Cause> causes = new ArrayList<>();
+		final int[] fullPrefix = new int[] { prefixSelectors[relevantGroups[lastGroup]] };
+		// values of the variables in any solution of the complete formula
+		final boolean[] positive = new boolean[solver.getVariables().getMaxIndex() + 1];
+		final boolean[] negative = new boolean[positive.length];
+		for (final int variable : remainingVariables.getLiterals()) {
+			for (final int literal : new int[] { variable, -variable }) {
+				if ((literal > 0) ? negative[variable] : positive[variable]) {
+					// a solution contains the complement of the literal
+					continue;
+				}
+				final int[] query = new int[] { -literal };
+				final SatResult hasSolution = solver.hasSolution(concat(fullPrefix, query));
+				switch (hasSolution) {
+				case FALSE:
+					causes.add(new Cause(query, new LiteralList(literal), null, lastGroup));
+					break;
+				case TIMEOUT:
+					reportTimeout();
+					break;
+				case TRUE:
+					for (final int value : solver.getInternalSolution()) {
+						if (value > 0) {
+							positive[value] = true;
+						} else if (value < 0) {
+							negative[-value] = true;
+						}
+					}
+					continue;
+				default:
+					throw new AssertionError(hasSolution);
+				}
+				break;
+			}
+		}
+		for (final LiteralList clause : remainingClauses) {
+			final int[] query = clause.negate().getLiterals();
+			final SatResult hasSolution = solver.hasSolution(concat(fullPrefix, query));
+			switch (hasSolution) {
+			case FALSE:
+				causes.add(new Cause(query, null, clause, lastGroup));
+				break;
+			case TIMEOUT:
+				reportTimeout();
+				break;
+			case TRUE:
+				break;
+			default:
+				throw new AssertionError(hasSolution);
+			}
+		}
+		monitor.step();
+
+		for (final Cause cause : causes) {
+			while ((cause.upper - cause.lower) > 1) {
+				final int middle = (cause.lower + cause.upper) >>> 1;
+				final int[] prefix = new int[] { prefixSelectors[relevantGroups[middle]] };
+				final SatResult hasSolution = solver.hasSolution(concat(prefix, cause.query));
+				switch (hasSolution) {
+				case FALSE:
+					cause.upper = middle;
+					break;
+				case TIMEOUT:
+					reportTimeout();
+					cause.lower = cause.upper - 1;
+					break;
+				case TRUE:
+					updateLowerBounds(causes, solver.getInternalSolution(), groupStart, relevantGroups);
+					break;
+				default:
+					throw new AssertionError(hasSolution);
+				}
+			}
+		}
+
+		final Map<Integer, List<Cause>> causesPerGroup = new TreeMap<>();
+		for (final Cause cause : causes) {
+			causesPerGroup.computeIfAbsent(relevantGroups[cause.upper], g -> new ArrayList<>()).add(cause);
+		}
+		for (final Map.Entry<Integer, List<Cause>> entry : causesPerGroup.entrySet()) {
+			final int[] deadVariables = entry.getValue().stream() //
+				.filter(cause -> cause.literal != null) //
+				.mapToInt(cause -> cause.literal.getLiterals()[0]) //
+				.toArray();
+			final List<LiteralList> redundantClauses = entry.getValue().stream() //
+				.map(cause -> cause.clause) //
+				.filter(Objects::nonNull) //
+				.collect(Collectors.toList());
+			if (deadVariables.length > 0) {
+				getAnomalies(resultList, entry.getKey()).setDeadVariables(new LiteralList(deadVariables));
+			}
+			if (!redundantClauses.isEmpty()) {
+				getAnomalies(resultList, entry.getKey()).setRedundantClauses(redundantClauses);
+			}
+		}
+		monitor.step();
+
+		return resultList;
+	}
+
+	/**
+	 * Adds all clause groups, such that assuming the returned selector of a group
+	 * enables this group and all groups before it. Each clause {@code C} of group
+	 * {@code i} is added as {@code C | -p_i} and each selector implies the
+	 * selector of the previous group ({@code -p_i | p_(i-1)}).
+	 *
+	 * @return the selector of each group
+	 */
+	private int[] pushPrefixes(Sat4JFormula formula, int[] groupStart) {
+		final int[] prefixSelectors = new int[groupStart.length - 1];
+		for (int i = 0; i < prefixSelectors.length; i++) {
+			prefixSelectors[i] = formula.newAuxiliaryVariable();
+			if (i > 0) {
+				formula.push(new LiteralList(-prefixSelectors[i], prefixSelectors[i - 1]));
+			}
+			for (int j = groupStart[i]; j < groupStart[i + 1]; j++) {
+				final int[] literals = clauseList.get(j).getLiterals();
+				final int[] guardedClause = Arrays.copyOf(literals, literals.length + 1);
+				guardedClause[literals.length] = -prefixSelectors[i];
+				formula.push(new LiteralList(guardedClause));
+			}
+		}
+		return prefixSelectors;
+	}
+
+	/**
+	 * Determines the longest prefix of clause groups that is satisfied by the
+	 * given solution and rules out this prefix for every anomaly whose query is
+	 * satisfied by the solution as well.
+	 */
+	private void updateLowerBounds(List<Cause> causes, int[] solution, int[] groupStart, int[] relevantGroups) {
+		int satisfiedClauses = 0;
+		clauseLoop: for (; satisfiedClauses < groupStart[groupStart.length - 1]; satisfiedClauses++) {
+			for (final int literal : clauseList.get(satisfiedClauses).getLiterals()) {
+				if (solution[Math.abs(literal) - 1] == literal) {
+					continue clauseLoop;
+				}
+			}
+			break;
+		}
+		// the last relevant group that is completely satisfied
+		int satisfiedGroup = -1;
+		while (((satisfiedGroup + 1) < relevantGroups.length)
+			&& (groupStart[relevantGroups[satisfiedGroup + 1] + 1] <= satisfiedClauses)) {
+			satisfiedGroup++;
+		}
+		if (satisfiedGroup < 0) {
+			return;
+		}
+		causeLoop: for (final Cause cause : causes) {
+			if (cause.lower < satisfiedGroup) {
+				for (final int literal : cause.query) {
+					if (solution[Math.abs(literal) - 1] != literal) {
+						continue causeLoop;
+					}
+				}
+				cause.lower = Math.min(satisfiedGroup, cause.upper - 1);
+			}
+		}
+	}
+
+	private static int[] concat(int[] prefix, int[] query) {
+		final int[] assumptions = Arrays.copyOf(prefix, prefix.length + query.length);
+		System.arraycopy(query, 0, assumptions, prefix.length, query.length);
+		return assumptions;
+	}
+
+	/**
+	 * Variant that adds one clause group after another and runs a
+	 * {@link CoreDeadAnalysis} and an {@link IndependentRedundancyAnalysis} after
+	 * every relevant group.
+	 */
+	public List<Anomalies> analyzeSequential(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
 		if (clauseList == null) {
 			return Collections.emptyList();
 		}
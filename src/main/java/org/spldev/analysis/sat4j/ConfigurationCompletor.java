@@ -2,6 +2,8 @@ package org.spldev.analysis.sat4j;
 
 import java.util.*;
 
+import org.spldev.analysis.mig.*;
+import org.spldev.analysis.mig.solver.*;
 import org.spldev.clauses.*;
 import org.spldev.clauses.solutions.analysis.*;
 import org.spldev.formula.*;
@@ -11,14 +13,51 @@ import org.spldev.util.data.*;
 public class ConfigurationCompletor implements SolutionUpdater {
 	private final ConfigurationGenerator generator;
 	private final ModelRepresentation model;
+	private boolean useSession = false;
+	private ConfigurationSession session;
 
 	public ConfigurationCompletor(ModelRepresentation model, ConfigurationGenerator generator) {
 		this.generator = generator;
 		this.model = model;
 	}
 
+	public boolean isUseSession() {
+		return useSession;
+	}
+
+	/**
+	 * If set to {@code true}, {@link #update(LiteralList)} keeps a
+	 * {@link ConfigurationSession} based on the MIG of the model and adapts it
+	 * incrementally instead of running a new {@link CoreDeadAnalysis} for every
+	 * partial configuration. Contradictory or unsatisfiable partial configurations
+	 * are still handled by the analysis.
+	 *
+	 * @param useSession whether to use a configuration session
+	 */
+	public void setUseSession(boolean useSession) {
+		this.useSession = useSession;
+		if (!useSession) {
+			session = null;
+		}
+	}
+
 	@Override
 	public LiteralList update(LiteralList partialSolution) {
+		if (useSession) {
+			if (session == null) {
+				final MIG mig = model.get(MIGProvider.fromFormula());
+				if (mig != null) {
+					session = new ConfigurationSession(mig);
+				}
+			}
+			if (session != null) {
+				try {
+					return partialSolution.addAll(session.update(partialSolution));
+				} catch (final IllegalArgumentException | IllegalStateException e) {
+					// fall back to the analysis, which handles contradictions
+				}
+			}
+		}
 		final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
 		for (int literal : partialSolution.getLiterals()) {
 			analysis.getAssumptions().set(Math.abs(literal), literal > 0);
@@ -39,6 +39,11 @@ import org.spldev.util.job.*;
  * from the {@link CNF}. Otherwise it is kept as part of the {@link CNF} for the
  * remaining analysis. Clauses are added in the same order a they appear in the
  * given clauses list.<br>
+ * In {@link #setBatchSearch(boolean) batch search} mode, all remaining clause
+ * groups are added at once and a batch is only split in halves if it
+ * contradicts the current formula. This yields the same result with a number
+ * of solver calls that is logarithmic in the number of clause groups per
+ * contradiction.<br>
  * For an independent analysis of every clause group use
  * {@link IndependentContradictionAnalysis}.
  *
@@ -55,6 +60,23 @@ public class ContradictionAnalysis extends AClauseAnalysis<List<LiteralList>> {
 		return identifier;
 	}
 
+	private boolean batchSearch = false;
+
+	public boolean isBatchSearch() {
+		return batchSearch;
+	}
+
+	/**
+	 * If set to {@code true}, clause groups are added in batches, which are split
+	 * in halves only if they contradict the current formula. The result is the
+	 * same as for adding the clause groups one by one.
+	 *
+	 * @param batchSearch whether to use batch search
+	 */
+	public void setBatchSearch(boolean batchSearch) {
+		this.batchSearch = batchSearch;
+	}
+
 	public ContradictionAnalysis() {
 		super();
 	}
@@ -81,30 +103,50 @@ public class ContradictionAnalysis extends AClauseAnalysis<List<LiteralList>> {
 		}
 		monitor.step();
 
+		if (batchSearch) {
+			final int[] groupStart = new int[clauseGroupSize.length + 1];
+			for (int i = 0; i < clauseGroupSize.length; i++) {
+				groupStart[i + 1] = groupStart[i] + clauseGroupSize[i];
+			}
+			checkBatch(solver, monitor, groupStart, 0, clauseGroupSize.length, false, resultList);
+			return resultList;
+		}
+
 		int endIndex = 0;
 		for (int i = 0; i < clauseGroupSize.length; i++) {
 			final int startIndex = endIndex;
 			endIndex += clauseGroupSize[i];
 			final List<LiteralList> subList = clauseList.subList(startIndex, endIndex);
 
-			try {
-				solver.getFormula().push(subList);
-			} catch (final RuntimeContradictionException e) {
-				resultList.set(i, clauseList.get(startIndex));
-				monitor.step();
-				continue;
+			if (isPreserveLearnedClauses()) {
+				solver.getFormula().pushGuarded(subList);
+			} else {
+				try {
+					solver.getFormula().push(subList);
+				} catch (final RuntimeContradictionException e) {
+					resultList.set(i, clauseList.get(startIndex));
+					monitor.step();
+					continue;
+				}
 			}
 
 			final SatResult hasSolution = solver.hasSolution();
 			switch (hasSolution) {
 			case FALSE:
 				resultList.set(i, clauseList.get(startIndex));
-				solver.getFormula().pop(subList.size());
+				if (isPreserveLearnedClauses()) {
+					solver.getFormula().popGuarded();
+				} else {
+					solver.getFormula().pop(subList.size());
+				}
 				break;
 			case TIMEOUT:
 				reportTimeout();
 				break;
 			case TRUE:
+				if (isPreserveLearnedClauses()) {
+					solver.getFormula().commitGuarded();
+				}
 				break;
 			default:
 				throw new AssertionError(hasSolution);
@@ -116,4 +158,94 @@ public class ContradictionAnalysis extends AClauseAnalysis<List<LiteralList>> {
 		return resultList;
 	}
 
+	/**
+	 * Adds the clause groups {@code [fromGroup, toGroup)} at once. If they
+	 * contradict the current formula, the first half is checked before the second
+	 * half, such that the second half is checked with all non-contradicting groups
+	 * of the first half, as in the sequential order.
+	 *
+	 * @param contradicting whether the batch is already known to contradict the
+	 *                      current formula
+	 */
+	private void checkBatch(Sat4JSolver solver, InternalMonitor monitor, int[] groupStart, int fromGroup,
+		int toGroup, boolean contradicting, List<LiteralList> resultList) {
+		if (fromGroup >= toGroup) {
+			return;
+		}
+		if (!contradicting) {
+			final List<LiteralList> subList = clauseList.subList(groupStart[fromGroup], groupStart[toGroup]);
+			final SatResult hasSolution = pushBatch(solver, subList);
+			switch (hasSolution) {
+			case FALSE:
+				break;
+			case TIMEOUT:
+				reportTimeout();
+				// keep the batch as the sequential order keeps a group on timeout
+				stepGroups(monitor, toGroup - fromGroup);
+				return;
+			case TRUE:
+				if (isPreserveLearnedClauses()) {
+					solver.getFormula().commitGuarded();
+				}
+				stepGroups(monitor, toGroup - fromGroup);
+				return;
+			default:
+				throw new AssertionError(hasSolution);
+			}
+		}
+
+		if ((toGroup - fromGroup) == 1) {
+			resultList.set(fromGroup, clauseList.get(groupStart[fromGroup]));
+			monitor.step();
+		} else {
+			final int middleGroup = (fromGroup + toGroup) >>> 1;
+			checkBatch(solver, monitor, groupStart, fromGroup, middleGroup, false, resultList);
+			// if the whole first half was added, the second half must contain a
+			// contradiction
+			final boolean firstHalfAdded = !containsContradiction(resultList, fromGroup, middleGroup);
+			checkBatch(solver, monitor, groupStart, middleGroup, toGroup, firstHalfAdded, resultList);
+		}
+	}
+
+	/**
+	 * Adds the given clauses and checks whether the formula is still satisfiable.
+	 * If not, the clauses are removed again.
+	 */
+	private SatResult pushBatch(Sat4JSolver solver, List<LiteralList> clauses) {
+		if (isPreserveLearnedClauses()) {
+			solver.getFormula().pushGuarded(clauses);
+		} else {
+			try {
+				solver.getFormula().push(clauses);
+			} catch (final RuntimeContradictionException e) {
+				return SatResult.FALSE;
+			}
+		}
+
+		final SatResult hasSolution = solver.hasSolution();
+		if (hasSolution == SatResult.FALSE) {
+			if (isPreserveLearnedClauses()) {
+				solver.getFormula().popGuarded();
+			} else {
+				solver.getFormula().pop(clauses.size());
+			}
+		}
+		return hasSolution;
+	}
+
+	private static boolean containsContradiction(List<LiteralList> resultList, int fromGroup, int toGroup) {
+		for (int i = fromGroup; i < toGroup; i++) {
+			if (resultList.get(i) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void stepGroups(InternalMonitor monitor, int numberOfGroups) {
+		for (int i = 0; i < numberOfGroups; i++) {
+			monitor.step();
+		}
+	}
+
 }
@@ -23,11 +23,13 @@
 package org.spldev.analysis.sat4j;
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import org.sat4j.core.*;
 import org.sat4j.specs.*;
 import org.spldev.analysis.sat4j.solver.*;
 import org.spldev.analysis.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
 import org.spldev.clauses.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
@@ -39,10 +41,53 @@ import org.spldev.util.job.*;
  */
 public class CoreDeadAnalysis extends AVariableAnalysis<LiteralList> {
 
+	/**
+	 * Algorithms for testing whether the candidate variables are core or dead.
+	 */
+	public enum Strategy {
+		/**
+		 * Uses {@link #ONE_BY_ONE} for models with less than
+		 * {@link CoreDeadAnalysis#AUTO_THRESHOLD} variables and {@link #CHUNKED}
+		 * otherwise.
+		 */
+		AUTO,
+		/**
+		 * Tests one candidate per call to the solver.
+		 */
+		ONE_BY_ONE,
+		/**
+		 * Tests several candidates at once by adding a single clause that is
+		 * satisfied by every solution in which at least one of the candidates is
+		 * flipped.
+		 */
+		CHUNKED,
+		/**
+		 * Like {@link #CHUNKED}, but tests all candidates at once and recursively
+		 * splits them in halves (divide and conquer).
+		 */
+		SPLIT,
+		/**
+		 * Assumes the negation of all candidates at once. An unsatisfiable result
+		 * only proves that at least one of the candidates in its explanation is core
+		 * or dead. Hence, a single candidate in the explanation is fixed directly,
+		 * while several candidates are tested as a chunk (see {@link #CHUNKED}),
+		 * which fixes all of them with one unsatisfiable result.
+		 */
+		CORE_GUIDED
+	}
+
+	public static final int AUTO_THRESHOLD = 1000;
+
 	public static final Identifier<LiteralList> identifier = new Identifier<>();
 
 	private Sat4JSolver solver;
 
+	private Strategy strategy = Strategy.ONE_BY_ONE;
+	private int chunkSize = 16;
+	private int parallelism = 1;
+
+	VecInt vars;
+
 	@Override
 	public Identifier<LiteralList> getIdentifier() {
 		return identifier;
@@ -57,48 +102,347 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralList> {
 		this.variables = variables;
 	}
 
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Sets the algorithm for testing the candidate variables. The default is
+	 * {@link Strategy#ONE_BY_ONE}.
+	 *
+	 * @param strategy the strategy
+	 */
+	public void setStrategy(Strategy strategy) {
+		this.strategy = Objects.requireNonNull(strategy);
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the maximum number of candidates tested with one call to the solver by
+	 * {@link Strategy#CHUNKED}.
+	 *
+	 * @param chunkSize a positive number
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException(String.valueOf(chunkSize));
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that test the candidate variables in parallel.
+	 * The additional solvers contain the clauses of the CNF of the analysis'
+	 * solver. Parallel testing is only used by {@link Strategy#ONE_BY_ONE} (which is also
+	 * selected by {@link Strategy#AUTO} in parallel mode) and only if the solver
+	 * contains exactly the clauses of its CNF.
+	 *
+	 * @param parallelism the number of solvers
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
 	@Override
 	public LiteralList analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
 		this.solver = solver;
-		return analyze1(monitor);
+		return analyze(strategy);
 	}
 
-	// currently unused (divide & conquer)
+	/**
+	 * Divide and conquer variant, equivalent to {@link Strategy#SPLIT}.
+	 */
 	public LiteralList analyze2(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+		this.solver = solver;
+		return analyze(Strategy.SPLIT);
+	}
+
+	/**
+	 * One-by-one variant, equivalent to {@link Strategy#ONE_BY_ONE}.
+	 */
+	public LiteralList analyze1(InternalMonitor monitor) throws Exception {
+		return analyze(Strategy.ONE_BY_ONE);
+	}
+
+	private LiteralList analyze(Strategy strategy) throws Exception {
 		final int initialAssignmentLength = solver.getAssumptions().size();
+		final int[] model = findCandidates(initialAssignmentLength);
+		if (model != null) {
+			final Strategy selectedStrategy = strategy == Strategy.AUTO ? selectStrategy() : strategy;
+			switch (selectedStrategy) {
+			case ONE_BY_ONE:
+				if ((parallelism > 1) && isParallelizable()) {
+					analyzeParallel(model, initialAssignmentLength);
+				} else {
+					testOneByOne(model);
+				}
+				break;
+			case CHUNKED:
+				testChunked(model);
+				break;
+			case SPLIT:
+				vars = new VecInt(model.length);
+				split(model, 0, model.length);
+				break;
+			case CORE_GUIDED:
+				testCoreGuided(model);
+				testOneByOne(model);
+				break;
+			default:
+				throw new IllegalStateException(String.valueOf(selectedStrategy));
+			}
+		}
+
+		// report the literals in variable order, independent of the strategy
+		final int[] literals = solver.getAssumptions().asArray(initialAssignmentLength, solver.getAssumptions()
+			.size());
+		final int[] sortedLiterals = new int[solver.getVariables().getMaxIndex() + 1];
+		for (final int literal : literals) {
+			sortedLiterals[Math.abs(literal)] = literal;
+		}
+		int index = 0;
+		for (final int literal : sortedLiterals) {
+			if (literal != 0) {
+				literals[index++] = literal;
+			}
+		}
+		return new LiteralList(literals);
+	}
+
+	private Strategy selectStrategy() {
+		return (parallelism > 1) || (solver.getVariables().getMaxIndex() < AUTO_THRESHOLD) //
+			? Strategy.ONE_BY_ONE
+			: Strategy.CHUNKED;
+	}
+
+	/**
+	 * Computes two solutions and returns the literals that occur in both of them
+	 * as candidates. All other entries of the returned array are 0.
+	 */
+	private int[] findCandidates(int initialAssignmentLength) {
 		solver.setSelectionStrategy(SStrategy.positive());
-		int[] model1 = solver.findSolution().getLiterals();
-
-		if (model1 != null) {
-			solver.setSelectionStrategy(SStrategy.negative());
-			final int[] model2 = solver.findSolution().getLiterals();
-
-			if (variables != null) {
-				final int[] model3 = new int[model1.length];
-				for (int i = 0; i < variables.getLiterals().length; i++) {
-					final int index = variables.getLiterals()[i] - 1;
-					if (index >= 0) {
-						model3[index] = model1[index];
+		final LiteralList solution1 = solver.findSolution();
+		if (solution1 == null) {
+			return null;
+		}
+		int[] model1 = solution1.getLiterals();
+		solver.setSelectionStrategy(SStrategy.inverse(model1));
+		final int[] model2 = solver.findSolution().getLiterals();
+
+		if (variables != null) {
+			final int[] model3 = new int[model1.length];
+			for (int i = 0; i < variables.getLiterals().length; i++) {
+				final int index = variables.getLiterals()[i] - 1;
+				if (index >= 0) {
+					model3[index] = model1[index];
+				}
+			}
+			model1 = model3;
+		}
+
+		for (int i = 0; i < initialAssignmentLength; i++) {
+			model1[Math.abs(solver.getAssumptions().peek(i)) - 1] = 0;
+		}
+
+		LiteralList.resetConflicts(model1, model2);
+		return model1;
+	}
+
+	private void testOneByOne(int[] model) {
+		for (int i = 0; i < model.length; i++) {
+			final int varX = model[i];
+			if (varX != 0) {
+				test(model, varX);
+			}
+		}
+	}
+
+	private void test(int[] model, int varX) {
+		solver.getAssumptions().push(-varX);
+		switch (solver.hasSolution()) {
+		case FALSE:
+			solver.getAssumptions().replaceLast(varX);
+			model[Math.abs(varX) - 1] = 0;
+			break;
+		case TIMEOUT:
+			solver.getAssumptions().pop();
+			model[Math.abs(varX) - 1] = 0;
+			reportTimeout();
+			break;
+		case TRUE:
+			solver.getAssumptions().pop();
+			LiteralList.resetConflicts(model, solver.getInternalSolution());
+			solver.shuffleOrder(getRandom());
+			break;
+		}
+	}
+
+	private void testChunked(int[] model) {
+		final int[] chunk = new int[chunkSize];
+		int start = 0;
+		while (true) {
+			while ((start < model.length) && (model[start] == 0)) {
+				start++;
+			}
+			int size = 0;
+			for (int i = start; (i < model.length) && (size < chunk.length); i++) {
+				if (model[i] != 0) {
+					chunk[size++] = -model[i];
+				}
+			}
+			if (size == 0) {
+				return;
+			} else if (size == 1) {
+				test(model, -chunk[0]);
+				continue;
+			}
+
+			if (!pushClause(chunk, size)) {
+				fixVariables(model, chunk, size);
+				continue;
+			}
+			final SatResult hasSolution = solver.hasSolution();
+			popClause();
+			switch (hasSolution) {
+			case FALSE:
+				fixVariables(model, chunk, size);
+				break;
+			case TIMEOUT:
+				reportTimeout();
+				for (int i = 0; i < size; i++) {
+					if (model[Math.abs(chunk[i]) - 1] != 0) {
+						test(model, -chunk[i]);
 					}
 				}
-				model1 = model3;
+				break;
+			case TRUE:
+				LiteralList.resetConflicts(model, solver.getInternalSolution());
+				solver.shuffleOrder(getRandom());
+				break;
 			}
+		}
+	}
+
+	private void fixVariables(int[] model, int[] negatedLiterals, int size) {
+		for (int i = 0; i < size; i++) {
+			final int var = negatedLiterals[i];
+			solver.getAssumptions().push(-var);
+			model[Math.abs(var) - 1] = 0;
+		}
+	}
 
-			for (int i = 0; i < initialAssignmentLength; i++) {
-				model1[Math.abs(solver.getAssumptions().peek(i)) - 1] = 0;
+	private void testCoreGuided(int[] model) {
+		final boolean[] postponed = new boolean[model.length];
+		final int[] chunk = new int[model.length];
+		while (true) {
+			int count = 0;
+			for (int i = 0; i < model.length; i++) {
+				if ((model[i] != 0) && !postponed[i]) {
+					solver.getAssumptions().push(-model[i]);
+					count++;
+				}
+			}
+			if (count == 0) {
+				return;
+			}
+			final SatResult hasSolution = solver.hasSolution();
+			switch (hasSolution) {
+			case FALSE:
+				final int[] explanation = solver.getContradictoryAssignment();
+				solver.getAssumptions().pop(count);
+				int size = 0;
+				for (final int literal : explanation) {
+					final int index = Math.abs(literal) - 1;
+					if ((index < model.length) && (model[index] == -literal) && !postponed[index]) {
+						chunk[size++] = literal;
+					}
+				}
+				if (size == 0) {
+					// the remaining candidates are tested one by one
+					return;
+				} else if (size == 1) {
+					solver.getAssumptions().push(-chunk[0]);
+					model[Math.abs(chunk[0]) - 1] = 0;
+				} else {
+					testCore(model, chunk, size, postponed);
+				}
+				break;
+			case TIMEOUT:
+				solver.getAssumptions().pop(count);
+				reportTimeout();
+				return;
+			case TRUE:
+				solver.getAssumptions().pop(count);
+				LiteralList.resetConflicts(model, solver.getInternalSolution());
+				solver.shuffleOrder(getRandom());
+				break;
+			default:
+				throw new AssertionError(hasSolution);
 			}
+		}
+	}
 
-			LiteralList.resetConflicts(model1, model2);
-			solver.setSelectionStrategy(SStrategy.inverse(model1));
+	/**
+	 * Tests the candidates of an explanation as a chunk. If no solution flips any
+	 * of them, all candidates are fixed. Otherwise, the found solution removes at
+	 * least one of them and the others are contained in the next explanation
+	 * again, if necessary.
+	 */
+	private void testCore(int[] model, int[] negatedLiterals, int size, boolean[] postponed) {
+		if (!pushClause(negatedLiterals, size)) {
+			fixVariables(model, negatedLiterals, size);
+			return;
+		}
+		final SatResult hasSolution = solver.hasSolution();
+		popClause();
+		switch (hasSolution) {
+		case FALSE:
+			fixVariables(model, negatedLiterals, size);
+			break;
+		case TIMEOUT:
+			reportTimeout();
+			// the candidates are tested one by one
+			for (int i = 0; i < size; i++) {
+				postponed[Math.abs(negatedLiterals[i]) - 1] = true;
+			}
+			break;
+		case TRUE:
+			LiteralList.resetConflicts(model, solver.getInternalSolution());
+			solver.shuffleOrder(getRandom());
+			break;
+		default:
+			throw new AssertionError(hasSolution);
+		}
+	}
 
-			vars = new VecInt(model1.length);
-			split(model1, 0, model1.length);
+	private boolean pushClause(int[] literals, int size) {
+		final LiteralList clause = new LiteralList(Arrays.copyOf(literals, size));
+		try {
+			if (isPreserveLearnedClauses()) {
+				solver.getFormula().pushGuarded(Collections.singletonList(clause));
+			} else {
+				solver.getFormula().push(clause);
+			}
+			return true;
+		} catch (final RuntimeContradictionException e) {
+			return false;
 		}
-		return new LiteralList(solver.getAssumptions().asArray(initialAssignmentLength, solver.getAssumptions()
-			.size()));
 	}
 
-	VecInt vars;
+	private void popClause() {
+		if (isPreserveLearnedClauses()) {
+			solver.getFormula().popGuarded();
+		} else {
+			solver.getFormula().pop();
+		}
+	}
 
 	private void split(int[] model, int start, int end) {
 		vars.clear();
@@ -112,57 +456,40 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralList> {
 		case 0:
 			return;
 		case 1:
-			test(model, 0);
+			test(model, -vars.get(0));
 			break;
 		case 2:
-			test(model, 0);
-			test(model, 1);
+			test(model, -vars.get(0));
+			if (model[Math.abs(vars.get(1)) - 1] != 0) {
+				test(model, -vars.get(1));
+			}
 			break;
 		default:
-			try {
-				solver.getFormula().push(new LiteralList(Arrays.copyOf(vars.toArray(), vars.size())));
-				switch (solver.hasSolution()) {
-				case FALSE:
-					foundVariables(model, vars);
-					break;
-				case TIMEOUT:
-					reportTimeout();
-					break;
-				case TRUE:
-					LiteralList.resetConflicts(model, solver.getInternalSolution());
-					solver.shuffleOrder(getRandom());
-
-					final int halfLength = (end - start) / 2;
-					if (halfLength > 0) {
-						split(model, start + halfLength, end);
-						split(model, start, start + halfLength);
-					}
-					break;
-				}
-				solver.getFormula().pop();
-			} catch (final RuntimeContradictionException e) {
+			if (!pushClause(vars.toArray(), vars.size())) {
 				foundVariables(model, vars);
+				break;
 			}
-			break;
-		}
-	}
+			switch (solver.hasSolution()) {
+			case FALSE:
+				foundVariables(model, vars);
+				popClause();
+				break;
+			case TIMEOUT:
+				popClause();
+				reportTimeout();
+				break;
+			case TRUE:
+				popClause();
+				LiteralList.resetConflicts(model, solver.getInternalSolution());
+				solver.shuffleOrder(getRandom());
 
-	private void test(int[] model, int i) {
-		final int var = vars.get(i);
-		solver.getAssumptions().push(var);
-		switch (solver.hasSolution()) {
-		case FALSE:
-			solver.getAssumptions().replaceLast(-var);
-			model[Math.abs(var) - 1] = 0;
-			break;
-		case TIMEOUT:
-			solver.getAssumptions().pop();
-			reportTimeout();
-			break;
-		case TRUE:
-			solver.getAssumptions().pop();
-			LiteralList.resetConflicts(model, solver.getInternalSolution());
-			solver.shuffleOrder(getRandom());
+				final int halfLength = (end - start) / 2;
+				if (halfLength > 0) {
+					split(model, start + halfLength, end);
+					split(model, start, start + halfLength);
+				}
+				break;
+			}
 			break;
 		}
 	}
@@ -175,56 +502,135 @@ public class CoreDeadAnalysis extends AVariableAnalysis<LiteralList> {
 		}
 	}
 
-	public LiteralList analyze1(InternalMonitor monitor) throws Exception {
-		final int initialAssignmentLength = solver.getAssumptions().size();
-		solver.setSelectionStrategy(SStrategy.positive());
-		int[] model1 = solver.findSolution().getLiterals();
-
-		if (model1 != null) {
-			solver.setSelectionStrategy(SStrategy.inverse(model1));
-			final int[] model2 = solver.findSolution().getLiterals();
-
-			if (variables != null) {
-				final int[] model3 = new int[model1.length];
-				for (int i = 0; i < variables.getLiterals().length; i++) {
-					final int index = variables.getLiterals()[i] - 1;
-					if (index >= 0) {
-						model3[index] = model1[index];
-					}
+	private boolean isParallelizable() {
+		final CNF cnf = solver.getCnf();
+		return (cnf != null) && !solver.getFormula().hasSelectors()
+			&& (solver.getFormula().getConstraints().size() == cnf.getClauses().size());
+	}
+
+	/**
+	 * Tests the candidate variables with several solvers in parallel. The solvers
+	 * share the list of remaining candidates, such that every found model removes
+	 * candidates for all solvers. Every found core or dead literal is broadcast to
+	 * all solvers, which add it to their assumptions before their next call.
+	 * The additional solvers are borrowed from a {@link Sat4JSolverPool}, unless
+	 * all solvers of the pool are in use. Timeouts are recorded by the solvers and
+	 * reported after all of them are finished.
+	 */
+	private void analyzeParallel(int[] model, int initialAssignmentLength) {
+		final ParallelState state = new ParallelState(model);
+		final int[] initialAssumptions = solver.getAssumptions().asArray(0, initialAssignmentLength);
+		final Sat4JSolverPool workerPool = getWorkerSolverPool(solver.getCnf(), parallelism - 1);
+		final long[] seeds = new long[parallelism];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = getRandom().nextLong();
+		}
+		runParallel(parallelism, worker -> {
+			if (worker == 0) {
+				testCandidates(solver, state, new Random(seeds[worker]));
+				return;
+			}
+			final Sat4JSolver workerSolver = acquireWorkerSolver(workerPool);
+			try {
+				workerSolver.setTimeout(solver.getTimeout());
+				workerSolver.getAssumptions().pushAll(initialAssumptions);
+				workerSolver.setSelectionStrategy(SStrategy.inverse(model));
+				testCandidates(workerSolver, state, new Random(seeds[worker]));
+			} finally {
+				releaseWorkerSolver(workerPool, workerSolver);
+			}
+		}, () -> state.aborted = true);
+		if (state.timeoutOccurred) {
+			reportTimeout();
+		}
+
+		solver.getAssumptions().clear(initialAssignmentLength);
+		for (int i = 0; i < model.length; i++) {
+			final int literal = state.found.get(i);
+			if (literal != 0) {
+				solver.getAssumptions().push(literal);
+			}
+		}
+	}
+
+	private void testCandidates(Sat4JSolver workerSolver, ParallelState state, Random random) {
+		int broadcastCursor = 0;
+		while (!state.aborted) {
+			final int i = state.nextIndex.getAndIncrement();
+			if (i >= state.candidates.length()) {
+				break;
+			}
+			final int varX = state.candidates.get(i);
+			if (varX == 0) {
+				continue;
+			}
+			broadcastCursor = state.receive(workerSolver, broadcastCursor);
+			workerSolver.getAssumptions().push(-varX);
+			switch (workerSolver.hasSolution()) {
+			case FALSE:
+				workerSolver.getAssumptions().pop();
+				state.found.set(i, varX);
+				state.broadcast(varX);
+				break;
+			case TIMEOUT:
+				workerSolver.getAssumptions().pop();
+				state.timeoutOccurred = true;
+				if (isThrowTimeoutException()) {
+					// the timeout is reported after all solvers are finished
+					state.aborted = true;
 				}
-				model1 = model3;
-			}
-
-			for (int i = 0; i < initialAssignmentLength; i++) {
-				model1[Math.abs(solver.getAssumptions().peek(i)) - 1] = 0;
-			}
-
-			LiteralList.resetConflicts(model1, model2);
-
-			for (int i = 0; i < model1.length; i++) {
-				final int varX = model1[i];
-				if (varX != 0) {
-					solver.getAssumptions().push(-varX);
-					switch (solver.hasSolution()) {
-					case FALSE:
-						solver.getAssumptions().replaceLast(varX);
-						break;
-					case TIMEOUT:
-						solver.getAssumptions().pop();
-						reportTimeout();
-						break;
-					case TRUE:
-						solver.getAssumptions().pop();
-						LiteralList.resetConflicts(model1, solver.getInternalSolution());
-						solver.shuffleOrder(getRandom());
-						break;
-					}
+				break;
+			case TRUE:
+				workerSolver.getAssumptions().pop();
+				state.removeConflicts(workerSolver.getInternalSolution());
+				workerSolver.shuffleOrder(random);
+				break;
+			}
+		}
+	}
+
+	private static class ParallelState {
+
+		private final AtomicIntegerArray candidates;
+		private final AtomicIntegerArray found;
+		private final AtomicIntegerArray broadcastLiterals;
+		private final AtomicInteger broadcastCount = new AtomicInteger();
+		private final AtomicInteger nextIndex = new AtomicInteger();
+		private volatile boolean aborted = false;
+		private volatile boolean timeoutOccurred = false;
+
+		private ParallelState(int[] model) {
+			candidates = new AtomicIntegerArray(model);
+			found = new AtomicIntegerArray(model.length);
+			broadcastLiterals = new AtomicIntegerArray(model.length);
+		}
+
+		private void broadcast(int literal) {
+			broadcastLiterals.set(broadcastCount.getAndIncrement(), literal);
+		}
+
+		private int receive(Sat4JSolver solver, int cursor) {
+			final int count = broadcastCount.get();
+			while (cursor < count) {
+				final int literal = broadcastLiterals.get(cursor);
+				if (literal == 0) {
+					// slot was reserved but not written yet
+					break;
 				}
+				solver.getAssumptions().push(literal);
+				cursor++;
 			}
+			return cursor;
 		}
 
-		return new LiteralList(solver.getAssumptions().asArray(initialAssignmentLength, solver.getAssumptions()
-			.size()));
+		private void removeConflicts(int[] solution) {
+			for (int i = 0; i < solution.length; i++) {
+				final int candidate = candidates.get(i);
+				if ((candidate != 0) && (candidate != solution[i])) {
+					candidates.compareAndSet(i, candidate, 0);
+				}
+			}
+		}
 	}
 
 }
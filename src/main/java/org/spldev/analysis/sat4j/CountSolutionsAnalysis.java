@@ -22,44 +22,62 @@
  */
 package org.spldev.analysis.sat4j;
 
+import java.math.*;
+
 import org.spldev.analysis.sat4j.solver.*;
 import org.spldev.analysis.solver.*;
-import org.spldev.analysis.solver.SatSolver.*;
 import org.spldev.clauses.*;
-import org.spldev.clauses.LiteralList.*;
 import org.spldev.util.data.*;
 import org.spldev.util.job.*;
 
 /**
- * Attempts to count the number of possible solutions of a given {@link CNF}.
+ * Counts the number of possible solutions of a given {@link CNF} under the
+ * assumptions of the solver using a {@link ModelCounter}. The counter is built
+ * from the clauses that are currently contained in the solver, including
+ * clauses that were pushed after its creation. The timeout of the analysis
+ * applies to the whole counting process.
  *
  * @author Sebastian Krieter
  */
-public class CountSolutionsAnalysis extends Sat4JAnalysis<Long> {
+public class CountSolutionsAnalysis extends Sat4JAnalysis<BigInteger> {
+
+	public static final Identifier<BigInteger> identifier = new Identifier<>();
 
-	public static final Identifier<Long> identifier = new Identifier<>();
+	private long cacheSize = ModelCounter.DEFAULT_CACHE_SIZE;
 
 	@Override
-	public Identifier<Long> getIdentifier() {
+	public Identifier<BigInteger> getIdentifier() {
 		return identifier;
 	}
 
+	public long getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @param cacheSize the maximum memory in bytes used for caching the counts of
+	 *                  components
+	 * @see ModelCounter#setCacheSize(long)
+	 */
+	public void setCacheSize(long cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
 	@Override
-	public Long analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
-		solver.setGlobalTimeout(true);
-		long solutionCount = 0;
-		SatResult hasSolution = solver.hasSolution();
-		while (hasSolution == SatResult.TRUE) {
-			solutionCount++;
-			final int[] solution = solver.getInternalSolution();
-			try {
-				solver.getFormula().push(new LiteralList(solution, Order.INDEX, false).negate());
-			} catch (final RuntimeContradictionException e) {
-				break;
-			}
-			hasSolution = solver.hasSolution();
+	public BigInteger analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+		if (!solver.getFormula().getActiveSelectors().isEmpty()) {
+			throw new IllegalStateException("Cannot count solutions of a solver with guarded clauses");
+		}
+		final ModelCounter counter = new ModelCounter(solver.getFormula().toClauses(),
+			solver.getVariables().getMaxIndex());
+		counter.setTimeout(getTimeout());
+		counter.setCacheSize(cacheSize);
+		try {
+			return counter.count(monitor, solver.getAssumptions().asArray());
+		} catch (final RuntimeTimeoutException e) {
+			reportTimeout();
+			return null;
 		}
-		return hasSolution == SatResult.TIMEOUT ? -(solutionCount + 1) : solutionCount;
 	}
 
 }
@@ -23,7 +23,10 @@
 package org.spldev.analysis.sat4j;
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.*;
 import org.spldev.clauses.*;
 import org.spldev.clauses.solutions.*;
 import org.spldev.util.data.*;
@@ -31,7 +34,14 @@ import org.spldev.util.job.*;
 import org.spldev.util.logging.*;
 
 /**
- * Finds certain solutions of propositional formulas.
+ * Finds certain solutions of propositional formulas.<br>
+ * By default, all solutions are enumerated and kept in memory. In
+ * {@link #setReservoirSampling(boolean) reservoir sampling} mode, only a
+ * uniform sample of {@link #getLimit()} solutions is kept while enumerating.
+ * The enumeration can then be split across several solvers (see
+ * {@link #setParallelism(int)}), each of which keeps its own reservoir.
+ * The parts of the solution space are assigned to the solvers statically, so
+ * the sample only depends on the {@link #getRandom() random generator}.
  *
  * @author Sebastian Krieter
  */
@@ -46,12 +56,57 @@ public class EnumeratingRandomConfigurationGenerator extends RandomConfiguration
 
 	private List<LiteralList> allConfigurations;
 
+	private boolean reservoirSampling = false;
+	private int parallelism = 1;
+
+	public boolean isReservoirSampling() {
+		return reservoirSampling;
+	}
+
+	/**
+	 * If set to {@code true}, only a uniform sample of {@link #getLimit()}
+	 * solutions is kept during enumeration instead of all solutions. If duplicates
+	 * are allowed, the sample is drawn with replacement, which requires a finite
+	 * limit.
+	 *
+	 * @param reservoirSampling whether to use reservoir sampling
+	 */
+	public void setReservoirSampling(boolean reservoirSampling) {
+		this.reservoirSampling = reservoirSampling;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that enumerate disjoint parts of the solution
+	 * space in reservoir sampling mode. The reservoirs of all solvers are merged
+	 * afterwards. Each additional solver contains the same clauses as the solver
+	 * of this generator. If the solver contains guarded clauses, the solution
+	 * space is enumerated by a single solver.
+	 *
+	 * @param parallelism the number of solvers
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
 	@Override
 	protected void init(InternalMonitor monitor) {
-		final AllConfigurationGenerator gen = new AllConfigurationGenerator();
-		allConfigurations = Executor.run(gen::execute, solver.getCnf(), monitor)
-			.map(SolutionList::getSolutions)
-			.orElse(Collections::emptyList, Logger::logProblems);
+		if (useReservoir()) {
+			try {
+				allConfigurations = sample(monitor);
+			} catch (final RuntimeTimeoutException e) {
+				allConfigurations = new ArrayList<>();
+				reportTimeout();
+			}
+		} else {
+			final AllConfigurationGenerator gen = new AllConfigurationGenerator();
+			allConfigurations = Executor.run(gen::execute, solver.getCnf(), monitor)
+				.map(SolutionList::getSolutions)
+				.orElse(Collections::emptyList, Logger::logProblems);
+		}
 		if (!allowDuplicates) {
 			Collections.shuffle(allConfigurations, getRandom());
 		}
@@ -62,10 +117,179 @@ public class EnumeratingRandomConfigurationGenerator extends RandomConfiguration
 		if (allConfigurations.isEmpty()) {
 			return null;
 		}
-		if (allowDuplicates) {
+		if (allowDuplicates && !useReservoir()) {
 			return allConfigurations.get(getRandom().nextInt(allConfigurations.size()));
 		} else {
-			return allConfigurations.remove(allConfigurations.size());
+			return allConfigurations.remove(allConfigurations.size() - 1);
+		}
+	}
+
+	private boolean useReservoir() {
+		return reservoirSampling && (!allowDuplicates || (getLimit() < Integer.MAX_VALUE));
+	}
+
+	private List<LiteralList> sample(InternalMonitor monitor) {
+		final int sampleSize = getLimit();
+		if ((parallelism <= 1) || !solver.getFormula().getActiveSelectors().isEmpty()) {
+			final Reservoir reservoir = new Reservoir(sampleSize, allowDuplicates, new Random(getRandom()
+				.nextLong()));
+			enumerate(new SolutionEnumerator(solver), reservoir, monitor);
+			return reservoir.getSamples();
+		}
+
+		// split the solution space into cubes over the first variables
+		final int numberOfVariables = solver.getVariables().getMaxIndex();
+		final int cubeVariables = Math.min(numberOfVariables, 32 - Integer.numberOfLeadingZeros((parallelism
+			<< 2) - 1));
+		final int numberOfCubes = 1 << cubeVariables;
+		final int[] assumptions = solver.getAssumptions().asArray();
+		// the clauses of the solver include clauses pushed after its creation
+		final ClauseStore clauses = ClauseStore.of(solver.getFormula().toClauses());
+		final int numberOfWorkers = parallelism;
+		final List<Reservoir> reservoirs = new ArrayList<>(numberOfWorkers);
+		for (int i = 0; i < numberOfWorkers; i++) {
+			reservoirs.add(new Reservoir(sampleSize, allowDuplicates, new Random(getRandom().nextLong())));
+		}
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		// each worker enumerates a fixed set of cubes, which makes the sample
+		// independent of the scheduling of the threads
+		runParallel(numberOfWorkers, worker -> {
+			final Reservoir reservoir = reservoirs.get(worker);
+			final Sat4JSolver workerSolver = new Sat4JSolver(solver.getVariables(), clauses, getSolverProfile());
+			workerSolver.setTimeout(solver.getTimeout());
+			workerSolver.getAssumptions().pushAll(assumptions);
+			for (int cube = worker; (cube < numberOfCubes) && !cancelled.get(); cube += numberOfWorkers) {
+				for (int i = 0; i < cubeVariables; i++) {
+					workerSolver.getAssumptions().push(((cube >>> i) & 1) == 1 ? i + 1 : -(i + 1));
+				}
+				enumerate(new SolutionEnumerator(workerSolver), reservoir, monitor);
+				workerSolver.getAssumptions().clear(assumptions.length);
+			}
+		}, () -> cancelled.set(true));
+		return Reservoir.merge(reservoirs, sampleSize, allowDuplicates, getRandom());
+	}
+
+	private static void enumerate(SolutionEnumerator enumerator, Reservoir reservoir, InternalMonitor monitor) {
+		for (LiteralList solution = enumerator.next(); solution != null; solution = enumerator.next()) {
+			reservoir.add(solution);
+			if ((reservoir.getCount() & 0x3ff) == 0) {
+				monitor.checkCancel();
+			}
+		}
+	}
+
+	/**
+	 * Uniform sample of a stream of solutions with constant memory (Algorithm R).
+	 * If duplicates are allowed, each slot is an independent reservoir of size one,
+	 * which yields a sample with replacement.
+	 */
+	private static final class Reservoir {
+
+		private final int size;
+		private final boolean withReplacement;
+		private final Random random;
+		private LiteralList[] slots;
+		private long count = 0;
+
+		private Reservoir(int size, boolean withReplacement, Random random) {
+			this.size = size;
+			this.withReplacement = withReplacement;
+			this.random = random;
+			slots = new LiteralList[Math.min(size, 1 << 16)];
+		}
+
+		private long getCount() {
+			return count;
+		}
+
+		private void add(LiteralList solution) {
+			count++;
+			if (withReplacement) {
+				ensureCapacity(size);
+				// replace each slot with probability 1 / count, using geometric jumps
+				for (int slot = skip(); slot < size; slot += 1 + skip()) {
+					slots[slot] = solution;
+				}
+			} else if (count <= size) {
+				ensureCapacity((int) count);
+				slots[(int) count - 1] = solution;
+			} else {
+				final long slot = (long) (random.nextDouble() * count);
+				if (slot < size) {
+					slots[(int) slot] = solution;
+				}
+			}
+		}
+
+		private int skip() {
+			if (count == 1) {
+				return 0;
+			}
+			final double skip = Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - (1.0 / count)));
+			return skip >= size ? size : (int) skip;
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity > slots.length) {
+				slots = Arrays.copyOf(slots, Math.min(size, Math.max(capacity, slots.length << 1)));
+			}
+		}
+
+		private List<LiteralList> getSamples() {
+			final int sampleSize = withReplacement ? (count > 0 ? size : 0) : (int) Math.min(size, count);
+			return new ArrayList<>(Arrays.asList(Arrays.copyOf(slots, sampleSize)));
+		}
+
+		/**
+		 * Merges reservoirs over disjoint populations into one uniform sample. Each
+		 * element is taken from a reservoir with a probability proportional to the
+		 * remaining size of its population.
+		 */
+		private static List<LiteralList> merge(List<Reservoir> reservoirs, int size, boolean withReplacement,
+			Random random) {
+			long total = 0;
+			for (final Reservoir reservoir : reservoirs) {
+				total += reservoir.count;
+			}
+			final List<LiteralList> samples = new ArrayList<>();
+			if (total == 0) {
+				return samples;
+			}
+			if (withReplacement) {
+				for (int slot = 0; slot < size; slot++) {
+					samples.add(select(reservoirs, (long) (random.nextDouble() * total)).slots[slot]);
+				}
+			} else {
+				final List<List<LiteralList>> remainingSamples = new ArrayList<>();
+				final long[] remainingCounts = new long[reservoirs.size()];
+				for (int i = 0; i < reservoirs.size(); i++) {
+					final List<LiteralList> reservoirSamples = reservoirs.get(i).getSamples();
+					Collections.shuffle(reservoirSamples, random);
+					remainingSamples.add(reservoirSamples);
+					remainingCounts[i] = reservoirs.get(i).count;
+				}
+				for (long remaining = total; (samples.size() < size) && (remaining > 0); remaining--) {
+					long position = (long) (random.nextDouble() * remaining);
+					int i = 0;
+					while (position >= remainingCounts[i]) {
+						position -= remainingCounts[i++];
+					}
+					remainingCounts[i]--;
+					final List<LiteralList> reservoirSamples = remainingSamples.get(i);
+					samples.add(reservoirSamples.remove(reservoirSamples.size() - 1));
+				}
+			}
+			return samples;
+		}
+
+		private static Reservoir select(List<Reservoir> reservoirs, long position) {
+			for (final Reservoir reservoir : reservoirs) {
+				if (position < reservoir.count) {
+					return reservoir;
+				}
+				position -= reservoir.count;
+			}
+			return reservoirs.get(reservoirs.size() - 1);
 		}
 	}
 
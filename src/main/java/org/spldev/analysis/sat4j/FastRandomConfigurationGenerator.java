@@ -50,9 +50,10 @@ public class FastRandomConfigurationGenerator extends RandomConfigurationGenerat
 
 	@Override
 	protected void resetSolver(Sat4JSolver solver) {
-		super.resetSolver(solver);
+		// restore the strategy first, as the solver may be returned to a pool
 		solver.setSelectionStrategy(originalSelectionStrategy);
 		originalSelectionStrategy = null;
+		super.resetSolver(solver);
 	}
 
 }
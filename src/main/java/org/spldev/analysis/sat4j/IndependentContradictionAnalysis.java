@@ -85,12 +85,16 @@ public class IndependentContradictionAnalysis extends AClauseAnalysis<List<Liter
 			endIndex += clauseGroupSize[i];
 			final List<LiteralList> subList = clauseList.subList(startIndex, endIndex);
 
-			try {
-				solver.getFormula().push(subList);
-			} catch (final RuntimeContradictionException e) {
-				resultList.set(i, clauseList.get(startIndex));
-				monitor.step();
-				continue;
+			if (isPreserveLearnedClauses()) {
+				solver.getFormula().pushGuarded(subList);
+			} else {
+				try {
+					solver.getFormula().push(subList);
+				} catch (final RuntimeContradictionException e) {
+					resultList.set(i, clauseList.get(startIndex));
+					monitor.step();
+					continue;
+				}
 			}
 
 			final SatResult hasSolution = solver.hasSolution();
@@ -107,7 +111,11 @@ public class IndependentContradictionAnalysis extends AClauseAnalysis<List<Liter
 				throw new AssertionError(hasSolution);
 			}
 
-			solver.getFormula().pop(subList.size());
+			if (isPreserveLearnedClauses()) {
+				solver.getFormula().popGuarded();
+			} else {
+				solver.getFormula().pop(subList.size());
+			}
 			monitor.step();
 		}
 
@@ -23,6 +23,7 @@
 package org.spldev.analysis.sat4j;
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import org.spldev.analysis.sat4j.solver.*;
 import org.spldev.analysis.solver.SatSolver.*;
@@ -36,7 +37,9 @@ import org.spldev.util.job.*;
  * to the given {@link CNF} individually. All clause groups are analyzed
  * separately without considering their interdependencies.<br>
  * For a dependent analysis of all clause groups use
- * {@link RemoveRedundancyAnalysis}.
+ * {@link RemoveRedundancyAnalysis}.<br>
+ * As the clause groups are independent of each other, they can be checked by
+ * several solvers in parallel (see {@link #setParallelism(int)}).
  *
  * @author Sebastian Krieter
  *
@@ -51,6 +54,26 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralL
 		return identifier;
 	}
 
+	private int parallelism = 1;
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that check the clause groups in parallel. The
+	 * solvers are borrowed from the {@link #getSolverPool() solver pool} of this
+	 * analysis or a {@link Sat4JSolverPool#getPool(CNF) registered pool}, unless
+	 * all solvers of the pool are in use, and are created otherwise. All solvers
+	 * share the solutions they find, such that a clause can be skipped if
+	 * any of these solutions satisfies its complement.
+	 *
+	 * @param parallelism the number of solvers
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
 	public IndependentRedundancyAnalysis() {
 		super();
 	}
@@ -77,10 +100,20 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralL
 		}
 		monitor.step();
 
-		final List<LiteralList> solutionList = solver.rememberSolutionHistory(AbstractSat4JSolver.MAX_SOLUTION_BUFFER);
+		if (parallelism > 1) {
+			final LiteralList[] redundantClauses = analyzeParallel(solver, monitor);
+			for (int i = 0; i < redundantClauses.length; i++) {
+				resultList.set(i, redundantClauses[i]);
+			}
+			return resultList;
+		}
+
+		solver.rememberSolutionHistory(AbstractSat4JSolver.MAX_SOLUTION_BUFFER);
+		final SolutionCache solutionCache = solver.getSolutionCache();
 
 		if (solver.hasSolution() == SatResult.TRUE) {
 			solver.setSelectionStrategy(SStrategy.random(getRandom()));
+			final int[] assumptions = solver.getAssumptions().asArray();
 
 			int endIndex = 0;
 			groupLoop: for (int i = 0; i < clauseGroupSize.length; i++) {
@@ -90,13 +123,12 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralL
 					final LiteralList clause = clauseList.get(j);
 					final LiteralList complement = clause.negate();
 
-					for (final LiteralList solution : solutionList) {
-						if (solution.containsAll(complement)) {
-							continue clauseLoop;
-						}
+					if (solutionCache.peekContains(complement.getLiterals())) {
+						continue clauseLoop;
 					}
 
-					final SatResult hasSolution = solver.hasSolution(complement);
+					final SatResult hasSolution = solver.hasSolution(withAssumptions(assumptions, complement
+						.getLiterals()));
 					switch (hasSolution) {
 					case FALSE:
 						resultList.set(i, clause);
@@ -117,4 +149,139 @@ public class IndependentRedundancyAnalysis extends AClauseAnalysis<List<LiteralL
 		return resultList;
 	}
 
+	/**
+	 * Checks the clause groups with several solvers. Each solver takes the next
+	 * unchecked group, so every group is checked completely by one solver and the
+	 * result for each group does not depend on the order in which the groups are
+	 * processed. Timeouts are recorded by the solvers and reported after all of
+	 * them are finished.
+	 */
+	private LiteralList[] analyzeParallel(Sat4JSolver solver, InternalMonitor monitor) {
+		final LiteralList[] redundantClauses = new LiteralList[clauseGroupSize.length];
+		final int[] groupStart = new int[clauseGroupSize.length + 1];
+		for (int i = 0; i < clauseGroupSize.length; i++) {
+			groupStart[i + 1] = groupStart[i] + clauseGroupSize[i];
+		}
+
+		final SatResult hasSolution = solver.hasSolution();
+		switch (hasSolution) {
+		case FALSE:
+			return redundantClauses;
+		case TIMEOUT:
+			reportTimeout();
+			return redundantClauses;
+		case TRUE:
+			break;
+		default:
+			throw new AssertionError(hasSolution);
+		}
+
+		final SolutionCache sharedSolutions = new SolutionCache(AbstractSat4JSolver.MAX_SOLUTION_BUFFER);
+		sharedSolutions.add(solver.getInternalSolution());
+
+		final Sat4JSolverPool workerPool = getWorkerSolverPool(solver.getCnf(), parallelism - 1);
+		final int[] initialAssumptions = solver.getAssumptions().asArray();
+
+		final AtomicInteger nextGroup = new AtomicInteger();
+		final AtomicBoolean timeoutOccurred = new AtomicBoolean();
+		final long[] seeds = new long[parallelism];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = getRandom().nextLong();
+		}
+		final int numberOfGroups = clauseGroupSize.length;
+		runParallel(parallelism, worker -> {
+			if (worker == 0) {
+				checkGroups(solver, new Random(seeds[worker]), groupStart, nextGroup, timeoutOccurred,
+					sharedSolutions, redundantClauses, monitor);
+				return;
+			}
+			final Sat4JSolver workerSolver = acquireWorkerSolver(workerPool);
+			try {
+				workerSolver.setTimeout(solver.getTimeout());
+				workerSolver.getAssumptions().pushAll(initialAssumptions);
+				if (assumedConstraints != null) {
+					workerSolver.getFormula().push(assumedConstraints);
+				}
+				checkGroups(workerSolver, new Random(seeds[worker]), groupStart, nextGroup, timeoutOccurred,
+					sharedSolutions, redundantClauses, monitor);
+			} finally {
+				releaseWorkerSolver(workerPool, workerSolver);
+			}
+		}, () -> nextGroup.set(numberOfGroups));
+		if (timeoutOccurred.get()) {
+			reportTimeout();
+		}
+		return redundantClauses;
+	}
+
+	private void checkGroups(Sat4JSolver solver, Random random, int[] groupStart, AtomicInteger nextGroup,
+		AtomicBoolean timeoutOccurred, SolutionCache sharedSolutions, LiteralList[] redundantClauses,
+		InternalMonitor monitor) {
+		solver.setSelectionStrategy(SStrategy.random(random));
+		final int[] assumptions = solver.getAssumptions().asArray();
+		final int numberOfGroups = groupStart.length - 1;
+		for (int i = nextGroup.getAndIncrement(); i < numberOfGroups; i = nextGroup.getAndIncrement()) {
+			redundantClauses[i] = checkGroup(solver, random, assumptions, groupStart[i], groupStart[i + 1],
+				timeoutOccurred, sharedSolutions);
+			if (timeoutOccurred.get() && isThrowTimeoutException()) {
+				// the timeout is reported after all solvers are finished
+				nextGroup.set(numberOfGroups);
+				break;
+			}
+			synchronized (monitor) {
+				monitor.checkCancel();
+			}
+		}
+	}
+
+	private LiteralList checkGroup(Sat4JSolver solver, Random random, int[] assumptions, int startIndex,
+		int endIndex, AtomicBoolean timeoutOccurred, SolutionCache sharedSolutions) {
+		for (int j = startIndex; j < endIndex; j++) {
+			final LiteralList clause = clauseList.get(j);
+			final int[] complement = clause.negate().getLiterals();
+
+			synchronized (sharedSolutions) {
+				if (sharedSolutions.peekContains(complement)) {
+					continue;
+				}
+			}
+
+			final SatResult hasSolution = solver.hasSolution(withAssumptions(assumptions, complement));
+			switch (hasSolution) {
+			case FALSE:
+				return clause;
+			case TIMEOUT:
+				timeoutOccurred.set(true);
+				if (isThrowTimeoutException()) {
+					return null;
+				}
+				break;
+			case TRUE:
+				final int[] solution = solver.getInternalSolution();
+				synchronized (sharedSolutions) {
+					sharedSolutions.add(solution);
+				}
+				solver.shuffleOrder(random);
+				break;
+			default:
+				throw new AssertionError(hasSolution);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Clause checks pass their literals directly to the solver, which ignores the
+	 * global assumptions in this case. Hence, the assumptions are added
+	 * explicitly.
+	 */
+	private static int[] withAssumptions(int[] assumptions, int[] literals) {
+		if (assumptions.length == 0) {
+			return literals;
+		}
+		final int[] assignment = Arrays.copyOf(assumptions, assumptions.length + literals.length);
+		System.arraycopy(literals, 0, assignment, assumptions.length, literals.length);
+		return assignment;
+	}
+
 }
@@ -23,6 +23,7 @@
 package org.spldev.analysis.sat4j;
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import org.sat4j.core.*;
 import org.spldev.analysis.sat4j.solver.*;
@@ -48,8 +49,157 @@ public class IndeterminateAnalysis extends AVariableAnalysis<LiteralList> { // t
 		return identifier;
 	}
 
+	private int parallelism = 1;
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that check the variables in parallel. The
+	 * additional solvers are borrowed from the {@link #getSolverPool() solver
+	 * pool} of this analysis or a {@link Sat4JSolverPool#getPool(CNF) registered
+	 * pool}, unless all solvers of the pool are in use.
+	 *
+	 * @param parallelism the number of solvers
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * For each variable {@code v}, checks whether the CNF is still satisfiable
+	 * after removing {@code v} from all clauses. Instead of building a new solver
+	 * for each variable, the shortened clauses containing {@code v} are added to
+	 * the solver as a {@link Sat4JFormula#pushGuarded(List) guarded group}, which
+	 * is removed again after the check. As every shortened clause subsumes its
+	 * original clause, the original clauses can stay in the solver. Clauses
+	 * learned by the solver remain valid for all subsequent checks.
+	 */
 	@Override
 	public LiteralList analyze(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
+		if (variables == null) {
+			variables = LiteralList.getVariables(solver.getVariables());
+		}
+		final int[] variableArray = variables.getLiterals();
+		monitor.setTotalWork(variableArray.length);
+
+		final List<List<LiteralList>> occurrences = getOccurrences(solver.getCnf().getClauses(), variableArray);
+		final boolean[] indeterminate = new boolean[variableArray.length];
+		final AtomicInteger nextVariable = new AtomicInteger();
+		final AtomicBoolean timeoutOccurred = new AtomicBoolean();
+		final Sat4JSolverPool workerPool = parallelism > 1 ? getWorkerSolverPool(solver.getCnf(), parallelism - 1)
+			: null;
+		runParallel(parallelism, worker -> {
+			if (worker == 0) {
+				checkVariables(solver, variableArray, occurrences, nextVariable, timeoutOccurred, indeterminate,
+					monitor);
+				return;
+			}
+			final Sat4JSolver workerSolver = acquireWorkerSolver(workerPool);
+			try {
+				workerSolver.setTimeout(solver.getTimeout());
+				if (assumedConstraints != null) {
+					workerSolver.getFormula().push(assumedConstraints);
+				}
+				checkVariables(workerSolver, variableArray, occurrences, nextVariable, timeoutOccurred,
+					indeterminate, monitor);
+			} finally {
+				releaseWorkerSolver(workerPool, workerSolver);
+			}
+		}, () -> nextVariable.set(variableArray.length));
+		if (timeoutOccurred.get()) {
+			reportTimeout();
+		}
+
+		final VecInt resultList = new VecInt();
+		for (int i = 0; i < variableArray.length; i++) {
+			if (indeterminate[i]) {
+				resultList.push(variableArray[i]);
+			}
+		}
+		return new LiteralList(Arrays.copyOf(resultList.toArray(), resultList.size()));
+	}
+
+	/**
+	 * @return for each given variable, all clauses containing this variable
+	 */
+	private static List<List<LiteralList>> getOccurrences(List<LiteralList> clauses, int[] variableArray) {
+		int maxVariable = 0;
+		for (final int variable : variableArray) {
+			maxVariable = Math.max(maxVariable, variable);
+		}
+		final int[] positions = new int[maxVariable + 1];
+		Arrays.fill(positions, -1);
+		final List<List<LiteralList>> occurrences = new ArrayList<>(variableArray.length);
+		for (int i = 0; i < variableArray.length; i++) {
+			positions[variableArray[i]] = i;
+			occurrences.add(new ArrayList<>());
+		}
+		for (final LiteralList clause : clauses) {
+			for (final int literal : clause.getLiterals()) {
+				final int variable = Math.abs(literal);
+				if ((variable <= maxVariable) && (positions[variable] >= 0)) {
+					occurrences.get(positions[variable]).add(clause);
+				}
+			}
+		}
+		return occurrences;
+	}
+
+	private void checkVariables(Sat4JSolver solver, int[] variableArray, List<List<LiteralList>> occurrences,
+		AtomicInteger nextVariable, AtomicBoolean timeoutOccurred, boolean[] indeterminate,
+		InternalMonitor monitor) {
+		for (int i = nextVariable.getAndIncrement(); i < variableArray.length; i = nextVariable.getAndIncrement()) {
+			indeterminate[i] = isIndeterminate(solver, variableArray[i], occurrences.get(i), timeoutOccurred);
+			if (timeoutOccurred.get() && isThrowTimeoutException()) {
+				// the timeout is reported after all solvers are finished
+				nextVariable.set(variableArray.length);
+				break;
+			}
+			synchronized (monitor) {
+				monitor.step();
+			}
+		}
+	}
+
+	private boolean isIndeterminate(Sat4JSolver solver, int variable, List<LiteralList> occurrences,
+		AtomicBoolean timeoutOccurred) {
+		final List<LiteralList> shortenedClauses = new ArrayList<>(occurrences.size());
+		for (final LiteralList clause : occurrences) {
+			final LiteralList newClause = clause.removeVariables(variable);
+			if ((newClause == null) || (newClause.size() == 0)) {
+				return false;
+			}
+			shortenedClauses.add(newClause);
+		}
+
+		solver.getFormula().pushGuarded(shortenedClauses);
+		try {
+			// ignores the assumptions of the solver, as the shortened clauses are
+			// checked on their own
+			final SatResult hasSolution = solver.hasSolution(new int[0]);
+			switch (hasSolution) {
+			case FALSE:
+				return false;
+			case TIMEOUT:
+				timeoutOccurred.set(true);
+				return false;
+			case TRUE:
+				return true;
+			default:
+				throw new AssertionError(hasSolution);
+			}
+		} finally {
+			solver.getFormula().popGuarded();
+		}
+	}
+
+	/**
+	 * Variant that builds a new solver for every variable. Returns the same result
+	 * as {@link #analyze(Sat4JSolver, InternalMonitor)}.
+	 */
+	public LiteralList analyzeRebuilding(Sat4JSolver solver, InternalMonitor monitor) throws Exception {
 		if (variables == null) {
 			variables = LiteralList.getVariables(solver.getVariables());
 		}
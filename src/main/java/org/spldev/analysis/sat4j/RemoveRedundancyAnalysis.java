@@ -38,8 +38,13 @@ import org.spldev.util.job.*;
  * individually. If a clause group is redundant with respect to the current
  * formula, it is marked as redundant and removed completely from the
  * {@link CNF}, otherwise it is kept as part of the {@link CNF} for the
- * remaining analysis. Clauses are added in the same order a they appear in the
- * given clauses list.<br>
+ * remaining analysis. By default, clause groups are checked in the same order
+ * as they appear in the given clauses list (see {@link #setGroupOrder(GroupOrder)}
+ * for other orders).<br>
+ * If {@link #isPreserveLearnedClauses() learned clauses are preserved}, every
+ * clause is guarded by a selector variable instead, such that a clause group is
+ * removed and re-added by omitting or assuming its selectors without changing
+ * the clause database of the solver.<br>
  * For an independent analysis of every clause group use
  * {@link IndependentRedundancyAnalysis}.
  *
@@ -57,6 +62,38 @@ public class RemoveRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>>
 		return identifier;
 	}
 
+	/**
+	 * The order in which clause groups are checked. As the result of this analysis
+	 * depends on the clauses that remain in the formula, different orders may
+	 * yield different, but equally valid, results.
+	 */
+	public enum GroupOrder {
+		/**
+		 * Checks the clause groups in the order of the clause list.
+		 */
+		INPUT,
+		/**
+		 * Checks the clause groups with the longest clauses first. Long clauses are
+		 * more likely to be implied by the remaining shorter clauses.
+		 */
+		LONGEST_FIRST,
+		/**
+		 * Checks the clause groups with the fewest occurrences of their variables in
+		 * the formula and the clause list first.
+		 */
+		CHEAPEST_FIRST
+	}
+
+	private GroupOrder groupOrder = GroupOrder.INPUT;
+
+	public GroupOrder getGroupOrder() {
+		return groupOrder;
+	}
+
+	public void setGroupOrder(GroupOrder groupOrder) {
+		this.groupOrder = Objects.requireNonNull(groupOrder);
+	}
+
 	public RemoveRedundancyAnalysis() {
 		super();
 	}
@@ -81,6 +118,17 @@ public class RemoveRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>>
 			resultList.add(null);
 		}
 
+		final int[] groupStart = new int[clauseGroupSize.length + 1];
+		for (int i = 0; i < clauseGroupSize.length; i++) {
+			groupStart[i + 1] = groupStart[i] + clauseGroupSize[i];
+		}
+		final int[] orderedGroups = getOrderedGroups(solver, groupStart);
+
+		if (isPreserveLearnedClauses()) {
+			analyzeGuarded(solver, monitor, groupStart, orderedGroups, resultList);
+			return resultList;
+		}
+
 		final List<IConstr> constrs = new ArrayList<>(clauseList.size());
 		for (final LiteralList clause : clauseList) {
 			constrs.add(solver.getFormula().push(clause));
@@ -88,10 +136,9 @@ public class RemoveRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>>
 
 		monitor.step();
 
-		int endIndex = 0;
-		for (int i = 0; i < clauseGroupSize.length; i++) {
-			final int startIndex = endIndex;
-			endIndex += clauseGroupSize[i];
+		for (final int i : orderedGroups) {
+			final int startIndex = groupStart[i];
+			final int endIndex = groupStart[i + 1];
 			boolean completelyRedundant = true;
 			boolean removedAtLeastOne = false;
 			for (int j = startIndex; j < endIndex; j++) {
@@ -132,4 +179,131 @@ public class RemoveRedundancyAnalysis extends AClauseAnalysis<List<LiteralList>>
 		return resultList;
 	}
 
+	/**
+	 * Adds every clause {@code C} as {@code C | -s} with a fresh selector
+	 * {@code s}. A clause is checked under the assumption of all selectors of the
+	 * groups that are not checked yet. Afterwards, its selector is fixed to
+	 * {@code true} if it is kept or to {@code false} if it is redundant.
+	 */
+	private void analyzeGuarded(Sat4JSolver solver, InternalMonitor monitor, int[] groupStart,
+		int[] orderedGroups, List<LiteralList> resultList) {
+		final Sat4JFormula formula = solver.getFormula();
+		final int[] selectors = new int[groupStart[groupStart.length - 1]];
+		for (int j = 0; j < selectors.length; j++) {
+			selectors[j] = formula.newAuxiliaryVariable();
+			final int[] literals = clauseList.get(j).getLiterals();
+			final int[] guardedClause = Arrays.copyOf(literals, literals.length + 1);
+			guardedClause[literals.length] = -selectors[j];
+			formula.push(new LiteralList(guardedClause));
+		}
+		// clauses that do not belong to any group are never removed
+		for (int j = selectors.length; j < clauseList.size(); j++) {
+			formula.push(clauseList.get(j));
+		}
+
+		// selectors in the order of the groups, such that the selectors of all
+		// unchecked groups form a suffix
+		final int[] orderedSelectors = new int[selectors.length];
+		int pendingStart = 0;
+		for (final int i : orderedGroups) {
+			for (int j = groupStart[i]; j < groupStart[i + 1]; j++) {
+				orderedSelectors[pendingStart++] = selectors[j];
+			}
+		}
+		pendingStart = 0;
+
+		monitor.step();
+
+		for (final int i : orderedGroups) {
+			final int startIndex = groupStart[i];
+			final int endIndex = groupStart[i + 1];
+			pendingStart += endIndex - startIndex;
+			final int pendingCount = orderedSelectors.length - pendingStart;
+			boolean completelyRedundant = true;
+			for (int j = startIndex; j < endIndex; j++) {
+				final int[] complement = clauseList.get(j).negate().getLiterals();
+				final int[] assumptions = Arrays.copyOf(complement, complement.length + pendingCount);
+				System.arraycopy(orderedSelectors, pendingStart, assumptions, complement.length, pendingCount);
+
+				final SatResult hasSolution = solver.hasSolution(assumptions);
+				switch (hasSolution) {
+				case FALSE:
+					formula.push(new LiteralList(-selectors[j]));
+					break;
+				case TIMEOUT:
+					reportTimeout();
+					formula.push(new LiteralList(-selectors[j]));
+					break;
+				case TRUE:
+					formula.push(new LiteralList(selectors[j]));
+					completelyRedundant = false;
+					break;
+				default:
+					throw new AssertionError(hasSolution);
+				}
+			}
+
+			if (completelyRedundant) {
+				resultList.set(i, clauseList.get(startIndex));
+			}
+			monitor.step();
+		}
+	}
+
+	private int[] getOrderedGroups(Sat4JSolver solver, int[] groupStart) {
+		final int numberOfGroups = groupStart.length - 1;
+		final Integer[] groups = new Integer[numberOfGroups];
+		for (int i = 0; i < numberOfGroups; i++) {
+			groups[i] = i;
+		}
+		switch (groupOrder) {
+		case INPUT:
+			break;
+		case LONGEST_FIRST: {
+			final int[] length = new int[numberOfGroups];
+			for (int i = 0; i < numberOfGroups; i++) {
+				for (int j = groupStart[i]; j < groupStart[i + 1]; j++) {
+					length[i] = Math.max(length[i], clauseList.get(j).size());
+				}
+			}
+			Arrays.sort(groups, Comparator.comparingInt((Integer i) -> -length[i]));
+			break;
+		}
+		case CHEAPEST_FIRST: {
+			final int[] occurrences = new int[solver.getVariables().getMaxIndex() + 1];
+			countOccurrences(solver.getCnf().getClauses(), occurrences);
+			countOccurrences(clauseList, occurrences);
+			final long[] cost = new long[numberOfGroups];
+			for (int i = 0; i < numberOfGroups; i++) {
+				for (int j = groupStart[i]; j < groupStart[i + 1]; j++) {
+					for (final int literal : clauseList.get(j).getLiterals()) {
+						final int variable = Math.abs(literal);
+						cost[i] += variable < occurrences.length ? occurrences[variable] : 0;
+					}
+				}
+			}
+			Arrays.sort(groups, Comparator.comparingLong((Integer i) -> cost[i]));
+			break;
+		}
+		default:
+			throw new IllegalStateException(String.valueOf(groupOrder));
+		}
+		final int[] orderedGroups = new int[numberOfGroups];
+		for (int i = 0; i < numberOfGroups; i++) {
+			orderedGroups[i] = groups[i];
+		}
+		return orderedGroups;
+	}
+
+	private static void countOccurrences(List<LiteralList> clauses, int[] occurrences) {
+		for (final LiteralList clause : clauses) {
+			for (final int literal : clause.getLiterals()) {
+				final int variable = Math.abs(literal);
+				if (variable < occurrences.length) {
+					occurrences[variable]++;
+				}
+			}
+		}
+	}
+
 }
@@ -23,12 +23,15 @@
 package org.spldev.analysis.sat4j;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 
 import org.spldev.analysis.*;
 import org.spldev.analysis.sat4j.solver.*;
 import org.spldev.analysis.solver.*;
 import org.spldev.clauses.*;
 import org.spldev.util.job.*;
+import org.spldev.util.logging.*;
 
 /**
  * Base class for analyses using a {@link Sat4JSolver}.
@@ -42,9 +45,18 @@ public abstract class Sat4JAnalysis<T> extends AbstractAnalysis<T, Sat4JSolver,
 	protected boolean timeoutOccurred = false;
 	private boolean throwTimeoutException = true;
 	private int timeout = 1000;
+	private boolean preserveLearnedClauses = false;
+	private SolverProfile solverProfile = SolverProfile.DEFAULT;
 
 	protected Random random = new Random(112358);
 
+	private Sat4JSolverPool solverPool = null;
+	private Sat4JSolverPool borrowedSolverPool = null;
+	private Sat4JSolver borrowedSolver = null;
+
+	private SolverStatistics solverStatistics = null;
+	private boolean logSolverStatistics = false;
+
 	public Sat4JAnalysis() {
 		super();
 		solverInputProvider = CNFProvider.fromFormula();
@@ -65,14 +77,232 @@ public abstract class Sat4JAnalysis<T> extends AbstractAnalysis<T, Sat4JSolver,
 
 	public final T execute(CNF cnf, InternalMonitor monitor) {
 		if (solver == null) {
-			solver = createSolver(cnf);
+			final Sat4JSolverPool pool = getSolverPool(cnf);
+			if (pool != null) {
+				final Sat4JSolver pooledSolver = pool.acquire();
+				solver = pooledSolver;
+				try {
+					return executeWithStatistics(pooledSolver, monitor);
+				} finally {
+					solver = null;
+					pool.release(pooledSolver);
+				}
+			}
+			solver = newSolver(cnf);
+		}
+		return executeWithStatistics(solver, monitor);
+	}
+
+	private T executeWithStatistics(Sat4JSolver solver, InternalMonitor monitor) {
+		final SolverStatistics before = solver.getStatistics();
+		try {
+			return execute(solver, monitor);
+		} finally {
+			solverStatistics = solver.getStatistics().subtract(before);
+			if (logSolverStatistics) {
+				Logger.logDebug(getClass().getSimpleName() + ": " + solverStatistics);
+			}
+		}
+	}
+
+	/**
+	 * Returns the statistics of all solver calls made during the last execution of
+	 * this analysis via {@link #execute(CNF, InternalMonitor)}. Comparing the
+	 * accumulated time of the solver calls with the overall execution time shows
+	 * whether an analysis is bound by the solver or by its own bookkeeping.
+	 *
+	 * @return the statistics or {@code null}, if the analysis was not executed yet
+	 */
+	public SolverStatistics getSolverStatistics() {
+		return solverStatistics;
+	}
+
+	public boolean isLogSolverStatistics() {
+		return logSolverStatistics;
+	}
+
+	/**
+	 * If set to {@code true}, the {@link #getSolverStatistics() solver
+	 * statistics} are logged after each execution.
+	 *
+	 * @param logSolverStatistics whether to log the solver statistics
+	 */
+	public void setLogSolverStatistics(boolean logSolverStatistics) {
+		this.logSolverStatistics = logSolverStatistics;
+	}
+
+	private Sat4JSolverPool getSolverPool(CNF cnf) {
+		if ((solverPool != null) && (solverPool.getCnf() == cnf)) {
+			return solverPool;
+		}
+		return Sat4JSolverPool.getPool(cnf);
+	}
+
+	/**
+	 * Returns a pool to borrow the solvers of parallel workers from. This is the
+	 * pool of this analysis or of the CNF, if there is one, and a new pool
+	 * otherwise.
+	 *
+	 * @param cnf             the CNF
+	 * @param numberOfWorkers the number of workers
+	 * @return the pool
+	 * @see #acquireWorkerSolver(Sat4JSolverPool)
+	 */
+	protected Sat4JSolverPool getWorkerSolverPool(CNF cnf, int numberOfWorkers) {
+		final Sat4JSolverPool pool = getSolverPool(cnf);
+		return pool != null ? pool : new Sat4JSolverPool(cnf, numberOfWorkers, solverProfile);
+	}
+
+	/**
+	 * Borrows a solver for a parallel worker from the given pool. As the solvers
+	 * of the pool may be held by the calling threads of other analyses that wait
+	 * for their workers, this method never blocks. Instead, it creates a new
+	 * solver, if all solvers of the pool are in use.
+	 *
+	 * @param pool the pool
+	 * @return the solver
+	 * @see #releaseWorkerSolver(Sat4JSolverPool, Sat4JSolver)
+	 */
+	protected Sat4JSolver acquireWorkerSolver(Sat4JSolverPool pool) {
+		final Sat4JSolver workerSolver = pool.tryAcquire();
+		return workerSolver != null ? workerSolver : new Sat4JSolver(pool.getCnf(), pool.getProfile());
+	}
+
+	/**
+	 * Returns a solver obtained by {@link #acquireWorkerSolver(Sat4JSolverPool)}
+	 * to the given pool, if it was borrowed from it.
+	 *
+	 * @param pool         the pool
+	 * @param workerSolver the solver
+	 */
+	protected void releaseWorkerSolver(Sat4JSolverPool pool, Sat4JSolver workerSolver) {
+		if (pool.contains(workerSolver)) {
+			pool.release(workerSolver);
+		}
+	}
+
+	/**
+	 * Runs the given worker with the indices {@code 0} to
+	 * {@code numberOfWorkers - 1} in parallel. The worker with index {@code 0}
+	 * runs on the calling thread, all others run on a temporary thread pool. If a
+	 * worker fails, {@code stop} is called, such that the other workers can
+	 * finish early. This method returns after all workers are finished and
+	 * rethrows the first failure, if any.
+	 *
+	 * @param numberOfWorkers the number of workers (with less than two workers,
+	 *                        the worker only runs on the calling thread)
+	 * @param worker          the worker, which receives its index
+	 * @param stop            notifies the other workers of a failure
+	 */
+	public static void runParallel(int numberOfWorkers, IntConsumer worker, Runnable stop) {
+		final IntConsumer stoppingWorker = index -> {
+			try {
+				worker.accept(index);
+			} catch (RuntimeException | Error e) {
+				stop.run();
+				throw e;
+			}
+		};
+		if (numberOfWorkers < 2) {
+			stoppingWorker.accept(0);
+			return;
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers - 1);
+		try {
+			final List<Future<?>> futures = new ArrayList<>(numberOfWorkers - 1);
+			for (int i = 1; i < numberOfWorkers; i++) {
+				final int index = i;
+				futures.add(executor.submit(() -> stoppingWorker.accept(index)));
+			}
+			Throwable failure = null;
+			try {
+				stoppingWorker.accept(0);
+			} catch (RuntimeException | Error e) {
+				failure = e;
+			}
+			for (final Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (final ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause();
+					}
+				} catch (final InterruptedException e) {
+					stop.run();
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+			}
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure instanceof Error) {
+				throw (Error) failure;
+			} else if (failure != null) {
+				throw new IllegalStateException(failure);
+			}
+		} finally {
+			executor.shutdownNow();
 		}
-		return execute(solver, monitor);
 	}
 
+	/**
+	 * @return the solver pool used by {@link #execute(CNF, InternalMonitor)} and
+	 *         {@link #createSolver(CNF)} or {@code null}, if only
+	 *         {@link Sat4JSolverPool#getPool(CNF) registered pools} are used.
+	 */
+	public Sat4JSolverPool getSolverPool() {
+		return solverPool;
+	}
+
+	/**
+	 * Sets a solver pool to borrow a solver from, when this analysis is executed
+	 * on the pool's CNF via {@link #execute(CNF, InternalMonitor)} or via a
+	 * {@link org.spldev.formula.ModelRepresentation}.
+	 *
+	 * @param solverPool the pool
+	 */
+	public void setSolverPool(Sat4JSolverPool solverPool) {
+		this.solverPool = solverPool;
+	}
+
+	/**
+	 * Borrows a solver from the {@link #getSolverPool() pool} of the given CNF, if
+	 * there is one. The solver is returned to the pool when the analysis
+	 * {@link #resetSolver(Sat4JSolver) resets} it after its execution. Otherwise,
+	 * a new solver is created.
+	 */
 	@Override
 	protected Sat4JSolver createSolver(CNF input) throws RuntimeContradictionException {
-		return new Sat4JSolver(input);
+		final Sat4JSolverPool pool = getSolverPool(input);
+		if (pool != null) {
+			borrowedSolver = pool.acquire();
+			borrowedSolverPool = pool;
+			return borrowedSolver;
+		}
+		return newSolver(input);
+	}
+
+	/**
+	 * Creates a new solver that is not borrowed from a pool, e.g., for a solver
+	 * that is used beyond a single execution of the analysis.
+	 *
+	 * @param input the CNF
+	 * @return the new solver
+	 */
+	protected Sat4JSolver newSolver(CNF input) throws RuntimeContradictionException {
+		return new Sat4JSolver(input, solverProfile);
+	}
+
+	@Override
+	protected void resetSolver(Sat4JSolver solver) {
+		super.resetSolver(solver);
+		if ((borrowedSolver != null) && (solver == borrowedSolver)) {
+			final Sat4JSolverPool pool = borrowedSolverPool;
+			borrowedSolver = null;
+			borrowedSolverPool = null;
+			this.solver = null;
+			pool.release(solver);
+		}
 	}
 
 	@Override
@@ -101,6 +331,43 @@ public abstract class Sat4JAnalysis<T> extends AbstractAnalysis<T, Sat4JSolver,
 		return timeoutOccurred;
 	}
 
+	/**
+	 * @return whether clauses that are only added temporarily are guarded by
+	 *         selector variables
+	 * @see Sat4JFormula#pushGuarded(List)
+	 */
+	public boolean isPreserveLearnedClauses() {
+		return preserveLearnedClauses;
+	}
+
+	/**
+	 * If set to {@code true}, clauses that are only added temporarily during the
+	 * analysis are guarded by selector variables instead of being removed from the
+	 * solver afterwards, which keeps the clauses learned by the solver. This is
+	 * beneficial for analyses that add and remove many groups of clauses.
+	 *
+	 * @param preserveLearnedClauses whether to guard temporary clauses
+	 * @see Sat4JFormula#pushGuarded(List)
+	 */
+	public void setPreserveLearnedClauses(boolean preserveLearnedClauses) {
+		this.preserveLearnedClauses = preserveLearnedClauses;
+	}
+
+	public SolverProfile getSolverProfile() {
+		return solverProfile;
+	}
+
+	/**
+	 * Sets the profile of the Sat4J backend used by solvers created by this
+	 * analysis. Has no effect on solvers borrowed from a {@link Sat4JSolverPool},
+	 * which use the profile of the pool.
+	 *
+	 * @param solverProfile the profile
+	 */
+	public void setSolverProfile(SolverProfile solverProfile) {
+		this.solverProfile = solverProfile;
+	}
+
 	public int getTimeout() {
 		return timeout;
 	}
@@ -25,12 +25,14 @@ package org.spldev.analysis.sat4j.solver;
 import java.util.*;
 
 import org.sat4j.core.*;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.minisat.core.SolverStats;
 import org.sat4j.specs.*;
+import org.spldev.analysis.sat4j.solver.SolutionCache.*;
 import org.spldev.analysis.solver.*;
 import org.spldev.clauses.*;
 import org.spldev.clauses.LiteralList.*;
 import org.spldev.formula.structure.atomic.literal.*;
-import org.spldev.util.data.*;
 
 /**
  * Base class for solvers using Sat4J.
@@ -40,6 +42,7 @@ import org.spldev.util.data.*;
 public abstract class AbstractSat4JSolver<T extends ISolver> implements SolutionSolver<LiteralList> {
 
 	public static final int MAX_SOLUTION_BUFFER = 1000;
+	public static final int DEFAULT_TIMEOUT = 1_000_000;
 
 	protected CNF satInstance;
 
@@ -47,15 +50,21 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	protected final Sat4JAssumptions assumptions;
 	protected final Sat4JFormula formula;
 
-	// TODO extract solution history in separate class
-	protected LinkedList<LiteralList> solutionHistory = null;
-	protected int solutionHistoryLimit = -1;
+	protected SolutionCache solutionHistory = null;
 	protected int[] lastModel = null;
 
 	protected boolean globalTimeout = false;
+	protected int timeout = DEFAULT_TIMEOUT;
+
+	private final VecInt assignmentBuffer = new VecInt();
 
 	private boolean contradiction = false;
 
+	private final SolverStatisticsRecorder statistics = new SolverStatisticsRecorder();
+	private SolverListener listener = null;
+	private boolean fromHistory = false;
+	private boolean solverCalled = false;
+
 	public AbstractSat4JSolver(VariableMap variableMap) {
 		satInstance = null;
 		solver = createSolver();
@@ -156,32 +165,71 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	 */
 	protected abstract T createSolver();
 
+	/**
+	 * Creates a solver for the clauses of the given store. As there is no
+	 * {@link CNF}, {@link #getCnf()} returns {@code null}.
+	 *
+	 * @param variableMap the variables
+	 * @param clauses     the clauses
+	 */
+	public AbstractSat4JSolver(VariableMap variableMap, ClauseStore clauses) {
+		satInstance = null;
+		solver = createSolver();
+		configureSolver();
+		formula = new Sat4JFormula(this, variableMap);
+		initSolver(clauses);
+
+		assumptions = new Sat4JAssumptions(variableMap);
+	}
+
 	/**
 	 * Add clauses to the solver. Initializes the order instance.
 	 */
 	protected void initSolver(List<LiteralList> clauses) {
-//		final int size = satInstance.getVariableMap().getMaxIndex();
-		final int size = formula.getVariableMap().getMaxIndex();
-//		final List<LiteralList> clauses = satInstance.getClauses();
 		try {
 			if (!clauses.isEmpty()) {
 				solver.setExpectedNumberOfClauses(clauses.size() + 1);
 				formula.push(clauses);
 			}
-			if (size > 0) {
-				final VecInt pseudoClause = new VecInt(size + 1);
-				for (int i = 1; i <= size; i++) {
-					pseudoClause.push(i);
-				}
-				pseudoClause.push(-1);
-				solver.addClause(pseudoClause);
+			addPseudoClause();
+		} catch (final Exception e) {
+			contradiction = true;
+		}
+	}
+
+	/**
+	 * Add clauses to the solver. Initializes the order instance.
+	 */
+	protected void initSolver(ClauseStore clauses) {
+		try {
+			if (clauses.size() > 0) {
+				solver.setExpectedNumberOfClauses(clauses.size() + 1);
+				formula.push(clauses);
 			}
+			addPseudoClause();
 		} catch (final Exception e) {
 			contradiction = true;
 		}
 	}
 
+	private void addPseudoClause() throws ContradictionException {
+		final int size = formula.getVariableMap().getMaxIndex();
+		if (size > 0) {
+			final VecInt pseudoClause = new VecInt(size + 1);
+			for (int i = 1; i <= size; i++) {
+				pseudoClause.push(i);
+			}
+			pseudoClause.push(-1);
+			solver.addClause(pseudoClause);
+		}
+	}
+
+	public int getTimeout() {
+		return timeout;
+	}
+
 	public void setTimeout(int timeout) {
+		this.timeout = timeout;
 		solver.setTimeoutMs(timeout);
 	}
 
@@ -195,18 +243,17 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	}
 
 	public List<LiteralList> getSolutionHistory() {
-		return solutionHistory != null ? Collections.unmodifiableList(solutionHistory) : Collections.emptyList();
+		return solutionHistory != null ? solutionHistory.getSolutions() : Collections.emptyList();
 	}
 
-	private int[] getAssumptionArray() {
-		final List<Pair<Integer, Object>> all = assumptions.getAll();
-		final int[] literals = new int[all.size()];
-		int index = 0;
-		for (final Pair<Integer, Object> entry : all) {
-			final int variable = entry.getKey();
-			literals[index++] = (entry.getValue() == Boolean.TRUE) ? variable : -variable;
-		}
-		return literals;
+	/**
+	 * @return The {@link SolutionCache} holding the solution history or
+	 *         {@code null}, if no history is remembered.
+	 *
+	 * @see #rememberSolutionHistory(int)
+	 */
+	public SolutionCache getSolutionCache() {
+		return solutionHistory;
 	}
 
 	/**
@@ -221,34 +268,30 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	 */
 	@Override
 	public SatResult hasSolution() {
+		final long startTime = System.nanoTime();
+		final SatResult result = hasSolutionInternal();
+		recordCall(result, startTime);
+		return result;
+	}
+
+	private SatResult hasSolutionInternal() {
 		if (contradiction) {
 			lastModel = null;
 			return SatResult.FALSE;
 		}
 
-		final int[] assumptionArray = getAssumptionArray();
+		// the assumption vector is handed to Sat4J directly, which only reads it
+		final VecInt assumptionVector = assumptions.getAssumptions();
 		if (solutionHistory != null) {
-			for (final LiteralList solution : solutionHistory) {
-				if (solution.containsAllLiterals(assumptionArray)) {
-					lastModel = solution.getLiterals();
-					return SatResult.TRUE;
-				}
-			}
-		}
-
-		try {
-			if (solver.isSatisfiable(new VecInt(assumptionArray), globalTimeout)) {
-				lastModel = solver.model();
-				addSolution();
+			final int slot = solutionHistory.find(assumptionVector);
+			if (slot >= 0) {
+				lastModel = solutionHistory.getModel(slot);
+				fromHistory = true;
 				return SatResult.TRUE;
-			} else {
-				lastModel = null;
-				return SatResult.FALSE;
 			}
-		} catch (final TimeoutException e) {
-			lastModel = null;
-			return SatResult.TIMEOUT;
 		}
+
+		return solve(withSelectors(assumptionVector));
 	}
 
 	/**
@@ -265,26 +308,63 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	 * @see #getInternalSolution()
 	 */
 	public SatResult hasSolution(int... assignment) {
+		final long startTime = System.nanoTime();
+		final SatResult result = hasSolutionInternal(assignment);
+		recordCall(result, startTime);
+		return result;
+	}
+
+	private SatResult hasSolutionInternal(int... assignment) {
 		if (contradiction) {
 			return SatResult.FALSE;
 		}
 
 		if (solutionHistory != null) {
-			for (final LiteralList solution : solutionHistory) {
-				if (solution.containsAllLiterals(assignment)) {
-					lastModel = solution.getLiterals();
-					return SatResult.TRUE;
-				}
+			final int slot = solutionHistory.find(assignment);
+			if (slot >= 0) {
+				lastModel = solutionHistory.getModel(slot);
+				fromHistory = true;
+				return SatResult.TRUE;
 			}
 		}
 
-		final int[] unitClauses = new int[assignment.length];
-		System.arraycopy(assignment, 0, unitClauses, 0, unitClauses.length);
+		final IVecInt selectors = formula.getActiveSelectors();
+		assignmentBuffer.clear();
+		assignmentBuffer.ensure(selectors.size() + assignment.length);
+		for (int i = 0; i < selectors.size(); i++) {
+			assignmentBuffer.unsafePush(selectors.get(i));
+		}
+		for (final int literal : assignment) {
+			assignmentBuffer.unsafePush(literal);
+		}
+		return solve(assignmentBuffer);
+	}
+
+	private IVecInt withSelectors(IVecInt assumptionVector) {
+		final IVecInt selectors = formula.getActiveSelectors();
+		if (selectors.isEmpty()) {
+			return assumptionVector;
+		}
+		assignmentBuffer.clear();
+		assignmentBuffer.ensure(selectors.size() + assumptionVector.size());
+		for (int i = 0; i < selectors.size(); i++) {
+			assignmentBuffer.unsafePush(selectors.get(i));
+		}
+		for (int i = 0; i < assumptionVector.size(); i++) {
+			assignmentBuffer.unsafePush(assumptionVector.get(i));
+		}
+		return assignmentBuffer;
+	}
 
+	private SatResult solve(IVecInt assumptionVector) {
 		try {
-			// TODO why is this necessary?
-			if (solver.isSatisfiable(new VecInt(unitClauses), globalTimeout)) {
-				lastModel = solver.model();
+			solverCalled = true;
+			if (isSatisfiable(assumptionVector)) {
+				lastModel = getSolverModel();
+				if (formula.hasSelectors()) {
+					// hide selector variables from the solution
+					lastModel = Arrays.copyOf(lastModel, formula.getVariableMap().getMaxIndex());
+				}
 				addSolution();
 				return SatResult.TRUE;
 			} else {
@@ -297,27 +377,133 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 		}
 	}
 
+	private void recordCall(SatResult result, long startTime) {
+		final long time = System.nanoTime() - startTime;
+		if (solverCalled) {
+			if (solver instanceof Solver) {
+				// read the counters directly, getStat() creates a new map by reflection
+				final SolverStats stats = ((Solver<?>) solver).getStats();
+				statistics.recordSolverCounters(stats.decisions, stats.conflicts, stats.propagations);
+			} else {
+				statistics.recordSolverCounters(solver.getStat());
+			}
+		}
+		statistics.recordCall(result, time, fromHistory);
+		if (listener != null) {
+			listener.solved(result, time, fromHistory);
+		}
+		solverCalled = false;
+		fromHistory = false;
+	}
+
+	/**
+	 * Returns a snapshot of the statistics recorded for all calls to
+	 * {@code hasSolution} since the creation of this solver or the last call to
+	 * {@link #resetStatistics()}.
+	 *
+	 * @return the statistics
+	 */
+	public SolverStatistics getStatistics() {
+		return statistics.snapshot();
+	}
+
+	public void resetStatistics() {
+		statistics.reset();
+	}
+
+	public SolverListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Sets a listener that is notified after each call to {@code hasSolution}.
+	 *
+	 * @param listener the listener or {@code null}
+	 */
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+
 	private void addSolution() {
 		if (solutionHistory != null) {
-			solutionHistory.addFirst(getSolution());
-			if (solutionHistory.size() > solutionHistoryLimit) {
-				solutionHistory.removeLast();
-			}
+			solutionHistory.add(lastModel);
 		}
 	}
 
+	/**
+	 * Calls the underlying Sat4J solver with the given assumptions. Subclasses may
+	 * override this method together with {@link #getSolverModel()} and
+	 * {@link #getSolverExplanation()} to answer the call differently.
+	 *
+	 * @param assumptionVector the assumptions
+	 * @return whether the formula is satisfiable under the assumptions
+	 * @throws TimeoutException if the solver timed out
+	 */
+	protected boolean isSatisfiable(IVecInt assumptionVector) throws TimeoutException {
+		return solver.isSatisfiable(assumptionVector, globalTimeout);
+	}
+
+	/**
+	 * @return the model found by the last successful call of
+	 *         {@link #isSatisfiable(IVecInt)}
+	 */
+	protected int[] getSolverModel() {
+		return solver.model();
+	}
+
+	/**
+	 * @return the explanation of the last unsuccessful call of
+	 *         {@link #isSatisfiable(IVecInt)}
+	 */
+	protected IVecInt getSolverExplanation() {
+		return solver.unsatExplanation();
+	}
+
 	public int[] getContradictoryAssignment() {
-		final IVecInt unsatExplanation = solver.unsatExplanation();
+		final IVecInt unsatExplanation = getSolverExplanation();
+		if (formula.hasSelectors()) {
+			final int maxIndex = formula.getVariableMap().getMaxIndex();
+			final int[] literals = new int[unsatExplanation.size()];
+			int length = 0;
+			for (int i = 0; i < unsatExplanation.size(); i++) {
+				final int literal = unsatExplanation.get(i);
+				if (Math.abs(literal) <= maxIndex) {
+					literals[length++] = literal;
+				}
+			}
+			return Arrays.copyOf(literals, length);
+		}
 		return Arrays.copyOf(unsatExplanation.toArray(), unsatExplanation.size());
 	}
 
+	/**
+	 * Called after new variables were added to the underlying solver (e.g., by
+	 * {@link Sat4JFormula#pushGuarded(List)}). Subclasses can update data
+	 * structures that depend on the number of variables.
+	 */
+	protected void variablesAdded() {
+	}
+
 	public List<LiteralList> rememberSolutionHistory(int numberOfSolutions) {
+		return rememberSolutionHistory(numberOfSolutions, EvictionStrategy.LRU);
+	}
+
+	/**
+	 * Enables (or disables) the solution history. Before each call to the
+	 * underlying solver, the history is searched for a solution that satisfies the
+	 * current assumptions.
+	 *
+	 * @param numberOfSolutions The maximum number of remembered solutions. Values
+	 *                          less than one disable the history.
+	 * @param evictionStrategy  Determines which solution is removed when the
+	 *                          history is full.
+	 * @return A live view of the remembered solutions.
+	 */
+	public List<LiteralList> rememberSolutionHistory(int numberOfSolutions, EvictionStrategy evictionStrategy) {
 		if (numberOfSolutions > 0) {
-			solutionHistory = new LinkedList<>();
-			solutionHistoryLimit = numberOfSolutions;
+			solutionHistory = new SolutionCache(numberOfSolutions, evictionStrategy);
 		} else {
 			solutionHistory = null;
-			solutionHistoryLimit = -1;
 		}
 		return getSolutionHistory();
 	}
@@ -331,7 +517,7 @@ public abstract class AbstractSat4JSolver<T extends ISolver> implements Solution
 	}
 
 	protected void configureSolver() {
-		solver.setTimeoutMs(1_000_000);
+		solver.setTimeoutMs(DEFAULT_TIMEOUT);
 		solver.setDBSimplificationAllowed(true);
 		solver.setKeepSolverHot(true);
 		solver.setVerbose(false);
@@ -0,0 +1,328 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.sat4j.core.*;
+import org.spldev.clauses.*;
+import org.spldev.clauses.LiteralList.*;
+
+/**
+ * Compact, immutable store for a list of clauses. All literals are kept in one
+ * contiguous array, the start of each clause in an array of offsets. Compared
+ * to a {@code List<LiteralList>}, this avoids one object and one array per
+ * clause. Optionally, both arrays are kept off-heap in direct buffers.<br>
+ * Use a {@link Builder} or {@link #of(List, boolean)} to create a store.
+ *
+ * @author Sebastian Krieter
+ */
+public final class ClauseStore {
+
+	public static final class Builder {
+
+		private int[] literals;
+		private int[] offsets;
+		private int literalCount = 0;
+		private int clauseCount = 0;
+		private int maxVariable = 0;
+
+		public Builder() {
+			this(16, 64);
+		}
+
+		public Builder(int expectedClauses, int expectedLiterals) {
+			literals = new int[Math.max(1, expectedLiterals)];
+			offsets = new int[Math.max(1, expectedClauses) + 1];
+		}
+
+		public Builder add(LiteralList clause) {
+			return add(clause.getLiterals(), 0, clause.size());
+		}
+
+		public Builder add(int... clause) {
+			return add(clause, 0, clause.length);
+		}
+
+		public Builder add(int[] clause, int from, int to) {
+			final int length = to - from;
+			ensureLiteralCapacity(literalCount + length);
+			for (int i = from; i < to; i++) {
+				final int literal = clause[i];
+				literals[literalCount++] = literal;
+				maxVariable = Math.max(maxVariable, Math.abs(literal));
+			}
+			endClause();
+			return this;
+		}
+
+		private void addLiteral(int literal) {
+			ensureLiteralCapacity(literalCount + 1);
+			literals[literalCount++] = literal;
+			maxVariable = Math.max(maxVariable, Math.abs(literal));
+		}
+
+		private void endClause() {
+			if ((clauseCount + 2) > offsets.length) {
+				offsets = Arrays.copyOf(offsets, offsets.length << 1);
+			}
+			offsets[++clauseCount] = literalCount;
+		}
+
+		private void ensureLiteralCapacity(int capacity) {
+			if (capacity > literals.length) {
+				literals = Arrays.copyOf(literals, Math.max(capacity, literals.length << 1));
+			}
+		}
+
+		public int size() {
+			return clauseCount;
+		}
+
+		public ClauseStore build() {
+			return build(false);
+		}
+
+		/**
+		 * Creates a store containing all clauses added so far.
+		 *
+		 * @param offHeap whether the store keeps its data in direct buffers outside
+		 *                of the Java heap
+		 * @return the new store
+		 */
+		public ClauseStore build(boolean offHeap) {
+			final IntBuffer literalBuffer = createBuffer(literals, literalCount, offHeap);
+			final IntBuffer offsetBuffer = createBuffer(offsets, clauseCount + 1, offHeap);
+			return new ClauseStore(literalBuffer, offsetBuffer, clauseCount, maxVariable, offHeap);
+		}
+
+		private static IntBuffer createBuffer(int[] array, int length, boolean offHeap) {
+			if (offHeap) {
+				final IntBuffer buffer = ByteBuffer.allocateDirect(length * Integer.BYTES).order(ByteOrder
+					.nativeOrder()).asIntBuffer();
+				buffer.put(array, 0, length);
+				buffer.flip();
+				return buffer;
+			} else {
+				return IntBuffer.wrap(Arrays.copyOf(array, length));
+			}
+		}
+	}
+
+	private final IntBuffer literals;
+	private final IntBuffer offsets;
+	private final int size;
+	private final int maxVariable;
+	private final boolean offHeap;
+
+	private ClauseStore(IntBuffer literals, IntBuffer offsets, int size, int maxVariable, boolean offHeap) {
+		this.literals = literals;
+		this.offsets = offsets;
+		this.size = size;
+		this.maxVariable = maxVariable;
+		this.offHeap = offHeap;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static ClauseStore of(List<? extends LiteralList> clauses) {
+		return of(clauses, false);
+	}
+
+	public static ClauseStore of(List<? extends LiteralList> clauses, boolean offHeap) {
+		int literalCount = 0;
+		for (final LiteralList clause : clauses) {
+			literalCount += clause.size();
+		}
+		final Builder builder = new Builder(clauses.size(), literalCount);
+		for (final LiteralList clause : clauses) {
+			builder.add(clause);
+		}
+		return builder.build(offHeap);
+	}
+
+	/**
+	 * Reads the clauses of a file in DIMACS format directly into a store, without
+	 * creating an object per clause. Comments and the problem line are ignored.
+	 *
+	 * @param path    the DIMACS file
+	 * @param offHeap whether the store keeps its data outside of the Java heap
+	 * @return the new store
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ClauseStore readDimacs(Path path, boolean offHeap) throws IOException {
+		final byte[] content = Files.readAllBytes(path);
+		final Builder builder = new Builder(content.length >> 4, content.length >> 2);
+		int i = 0;
+		while (i < content.length) {
+			final byte c = content[i];
+			if ((c == 'c') || (c == 'p')) {
+				while ((i < content.length) && (content[i] != '\n')) {
+					i++;
+				}
+			} else if ((c == '-') || ((c >= '0') && (c <= '9'))) {
+				final boolean negative = c == '-';
+				if (negative) {
+					i++;
+				}
+				int value = 0;
+				while ((i < content.length) && (content[i] >= '0') && (content[i] <= '9')) {
+					value = (value * 10) + (content[i++] - '0');
+				}
+				if (value == 0) {
+					builder.endClause();
+				} else {
+					builder.addLiteral(negative ? -value : value);
+				}
+				continue;
+			}
+			i++;
+		}
+		return builder.build(offHeap);
+	}
+
+	/**
+	 * @return the number of clauses
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getLiteralCount() {
+		return offsets.get(size);
+	}
+
+	/**
+	 * @return the largest variable index that occurs in any clause
+	 */
+	public int getMaxVariable() {
+		return maxVariable;
+	}
+
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * @return the number of bytes used by the literals and offsets of this store
+	 */
+	public long getMemorySize() {
+		return ((long) literals.capacity() + offsets.capacity()) * Integer.BYTES;
+	}
+
+	/**
+	 * @param clause the index of a clause
+	 * @return the position of the first literal of the clause
+	 * @see #getLiteralAt(int)
+	 */
+	public int getStart(int clause) {
+		return offsets.get(clause);
+	}
+
+	/**
+	 * @param clause the index of a clause
+	 * @return the position after the last literal of the clause
+	 * @see #getLiteralAt(int)
+	 */
+	public int getEnd(int clause) {
+		return offsets.get(clause + 1);
+	}
+
+	public int getLiteralAt(int position) {
+		return literals.get(position);
+	}
+
+	public int getClauseSize(int clause) {
+		return offsets.get(clause + 1) - offsets.get(clause);
+	}
+
+	public int getLiteral(int clause, int index) {
+		return literals.get(offsets.get(clause) + index);
+	}
+
+	/**
+	 * Copies the literals of a clause into the given array.
+	 *
+	 * @param clause the index of the clause
+	 * @param target an array with at least {@link #getClauseSize(int)} elements
+	 * @return the number of copied literals
+	 */
+	public int copyLiterals(int clause, int[] target) {
+		final int start = offsets.get(clause);
+		final int end = offsets.get(clause + 1);
+		for (int i = start; i < end; i++) {
+			target[i - start] = literals.get(i);
+		}
+		return end - start;
+	}
+
+	/**
+	 * Replaces the content of the given vector with the literals of a clause.
+	 *
+	 * @param clause the index of the clause
+	 * @param target the vector to fill
+	 */
+	public void copyLiterals(int clause, VecInt target) {
+		final int start = offsets.get(clause);
+		final int end = offsets.get(clause + 1);
+		target.clear();
+		target.ensure(end - start);
+		for (int i = start; i < end; i++) {
+			target.unsafePush(literals.get(i));
+		}
+	}
+
+	public int[] getLiterals(int clause) {
+		final int[] clauseLiterals = new int[getClauseSize(clause)];
+		copyLiterals(clause, clauseLiterals);
+		return clauseLiterals;
+	}
+
+	/**
+	 * Creates a new {@link LiteralList} for a clause. Should only be used if an
+	 * object is actually needed.
+	 *
+	 * @param clause the index of the clause
+	 * @return the clause
+	 */
+	public LiteralList getClause(int clause) {
+		return new LiteralList(getLiterals(clause), Order.UNORDERED);
+	}
+
+	/**
+	 * @return a list containing a new {@link LiteralList} for every clause
+	 */
+	public List<LiteralList> toList() {
+		final ArrayList<LiteralList> clauses = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			clauses.add(getClause(i));
+		}
+		return clauses;
+	}
+
+}
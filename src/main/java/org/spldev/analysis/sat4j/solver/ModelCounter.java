@@ -0,0 +1,616 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.math.*;
+import java.util.*;
+
+import org.spldev.analysis.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Exact model counter (#SAT) for a {@link CNF}.<br>
+ * The counter is a DPLL procedure with unit propagation that decomposes the
+ * formula into connected components after every decision. The models of each
+ * component are counted independently and multiplied. Variables that do not
+ * occur in any unsatisfied clause contribute a factor of two. The counts of
+ * components are stored in a cache, whose memory consumption is bounded (see
+ * {@link #setCacheSize(long)}). As a component is identified by its variables
+ * and clauses only, the cache remains valid between calls to
+ * {@link #count(int...)} with different assumptions.
+ *
+ * @author Sebastian Krieter
+ */
+public class ModelCounter {
+
+	public static final long DEFAULT_CACHE_SIZE = 64L << 20;
+
+	/**
+	 * Estimated memory used by a cache entry in addition to its key and value.
+	 */
+	private static final int ENTRY_OVERHEAD = 96;
+
+	/**
+	 * Estimated memory used by a {@link BigInteger} in addition to its magnitude.
+	 */
+	private static final int BIG_INTEGER_OVERHEAD = 56;
+
+	private static final class Component {
+		private final int[] key;
+		private final int hashCode;
+
+		private Component(int[] key) {
+			this.key = key;
+			hashCode = Arrays.hashCode(key);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof Component) && Arrays.equals(key, ((Component) obj).key);
+		}
+	}
+
+	/**
+	 * The components of a set of variables and clauses that are counted one after
+	 * another and whose counts are multiplied.
+	 */
+	private static final class Split {
+		private final List<Component> components;
+		private final List<int[]> componentVariables;
+		private final boolean reportProgress;
+		private BigInteger count;
+		private int next = 0;
+
+		private Split(List<Component> components, List<int[]> componentVariables, int freeVariables,
+			boolean reportProgress) {
+			this.components = components;
+			this.componentVariables = componentVariables;
+			this.reportProgress = reportProgress;
+			count = BigInteger.ONE.shiftLeft(freeVariables);
+		}
+
+		private boolean isDone() {
+			return next == components.size();
+		}
+	}
+
+	/**
+	 * A decision on one variable of a component, whose branches are counted one
+	 * after another.
+	 */
+	private static final class Decision {
+		private final Split parent;
+		private final Component component;
+		private final int[] variables;
+		private final int[] clauseIndices;
+		private final int variable;
+		private int branch = 0;
+		private int trailStart;
+		private BigInteger count = BigInteger.ZERO;
+
+		private Decision(Split parent, Component component, int[] variables, int[] clauseIndices, int variable) {
+			this.parent = parent;
+			this.component = component;
+			this.variables = variables;
+			this.clauseIndices = clauseIndices;
+			this.variable = variable;
+		}
+	}
+
+	private final int numberOfVariables;
+	private final int[][] clauses;
+	private final int[][] occurrences;
+	private final boolean contradiction;
+
+	private final int[] values;
+	private final int[] satisfiedCount;
+	private final int[] falseCount;
+	private final int[] trail;
+	private int trailSize = 0;
+	private int propagated = 0;
+
+	private final int[] variableStamps;
+	private final int[] clauseStamps;
+	private int stamp = 0;
+
+	private long cacheSize = DEFAULT_CACHE_SIZE;
+	private long cacheMemory = 0;
+	private final LinkedHashMap<Component, BigInteger> cache = new LinkedHashMap<>(1024, 0.75f, true);
+
+	private long timeout = 0;
+	private long deadline;
+	private InternalMonitor monitor;
+
+	public ModelCounter(CNF cnf) {
+		this(cnf.getClauses(), cnf.getVariableMap().getMaxIndex());
+	}
+
+	public ModelCounter(List<LiteralList> clauseList, int numberOfVariables) {
+		this.numberOfVariables = numberOfVariables;
+		final List<int[]> normalizedClauses = new ArrayList<>(clauseList.size());
+		boolean emptyClause = false;
+		for (final LiteralList clause : clauseList) {
+			final int[] literals = normalize(clause);
+			if (literals == null) {
+				continue;
+			}
+			if (literals.length == 0) {
+				emptyClause = true;
+			}
+			normalizedClauses.add(literals);
+		}
+		contradiction = emptyClause;
+		clauses = normalizedClauses.toArray(new int[0][]);
+
+		final int[] occurrenceCounts = new int[(numberOfVariables + 1) << 1];
+		for (final int[] clause : clauses) {
+			for (final int literal : clause) {
+				occurrenceCounts[getLiteralIndex(literal)]++;
+			}
+		}
+		occurrences = new int[occurrenceCounts.length][];
+		for (int i = 0; i < occurrences.length; i++) {
+			occurrences[i] = new int[occurrenceCounts[i]];
+		}
+		Arrays.fill(occurrenceCounts, 0);
+		for (int c = 0; c < clauses.length; c++) {
+			for (final int literal : clauses[c]) {
+				final int index = getLiteralIndex(literal);
+				occurrences[index][occurrenceCounts[index]++] = c;
+			}
+		}
+
+		values = new int[numberOfVariables + 1];
+		satisfiedCount = new int[clauses.length];
+		falseCount = new int[clauses.length];
+		trail = new int[numberOfVariables];
+		variableStamps = new int[numberOfVariables + 1];
+		clauseStamps = new int[clauses.length];
+	}
+
+	/**
+	 * Removes duplicate literals and literals equal to {@code 0}.
+	 *
+	 * @return the literals of the clause or {@code null}, if the clause is a
+	 *         tautology
+	 */
+	private int[] normalize(LiteralList clause) {
+		final int[] literals = Arrays.stream(clause.getLiterals()).filter(l -> l != 0).distinct().toArray();
+		for (final int literal : literals) {
+			if (Math.abs(literal) > numberOfVariables) {
+				throw new IllegalArgumentException("Unknown variable " + literal);
+			}
+			for (final int other : literals) {
+				if (other == -literal) {
+					return null;
+				}
+			}
+		}
+		return literals;
+	}
+
+	private static int getLiteralIndex(int literal) {
+		return literal < 0 ? (-literal << 1) : ((literal << 1) + 1);
+	}
+
+	private static long getMemory(Component component, BigInteger count) {
+		return ENTRY_OVERHEAD + (component.key.length << 2) + BIG_INTEGER_OVERHEAD + (((count.bitLength() + 31)
+			>>> 5) << 2);
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @param timeout the timeout in milliseconds for each call to
+	 *                {@link #count(int...)}. Values less than one disable the
+	 *                timeout.
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public long getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Sets the estimated maximum memory used by the component cache. When the
+	 * limit is exceeded, the least recently used components are removed.
+	 *
+	 * @param cacheSize the limit in bytes
+	 */
+	public void setCacheSize(long cacheSize) {
+		this.cacheSize = cacheSize;
+		trimCache();
+	}
+
+	/**
+	 * Removes the least recently used components until the cache fits into its
+	 * limit.
+	 */
+	private void trimCache() {
+		while ((cacheMemory > cacheSize) && !cache.isEmpty()) {
+			final Iterator<Map.Entry<Component, BigInteger>> iterator = cache.entrySet().iterator();
+			final Map.Entry<Component, BigInteger> eldest = iterator.next();
+			cacheMemory -= getMemory(eldest.getKey(), eldest.getValue());
+			iterator.remove();
+		}
+	}
+
+	public int getCachedComponentCount() {
+		return cache.size();
+	}
+
+	public void clearCache() {
+		cache.clear();
+		cacheMemory = 0;
+	}
+
+	/**
+	 * Counts the models that satisfy the given assumptions.
+	 *
+	 * @param assumptions the literals that must be satisfied
+	 * @return the number of models
+	 * @throws RuntimeTimeoutException if the timeout is exceeded
+	 */
+	public BigInteger count(int... assumptions) {
+		return count(new NullMonitor(), assumptions);
+	}
+
+	/**
+	 * Counts the models that satisfy the given assumptions.
+	 *
+	 * @param assumptions the literals that must be satisfied
+	 * @return the number of models
+	 * @throws RuntimeTimeoutException if the timeout is exceeded
+	 */
+	public BigInteger count(Sat4JAssumptions assumptions) {
+		return count(assumptions.asArray());
+	}
+
+	/**
+	 * Counts the models that satisfy the given assumptions. The work reported to
+	 * the monitor is the number of components of the formula after propagating
+	 * the assumptions.
+	 *
+	 * @param monitor     the monitor
+	 * @param assumptions the literals that must be satisfied
+	 * @return the number of models
+	 * @throws RuntimeTimeoutException if the timeout is exceeded
+	 */
+	public BigInteger count(InternalMonitor monitor, int... assumptions) {
+		if (contradiction) {
+			return BigInteger.ZERO;
+		}
+		this.monitor = monitor;
+		deadline = timeout > 0 ? System.nanoTime() + (timeout * 1_000_000L) : Long.MAX_VALUE;
+		try {
+			boolean consistent = true;
+			for (final int literal : assumptions) {
+				if (!assign(literal)) {
+					consistent = false;
+					break;
+				}
+			}
+			if (consistent) {
+				for (final int[] clause : clauses) {
+					if ((clause.length == 1) && !assign(clause[0])) {
+						consistent = false;
+						break;
+					}
+				}
+			}
+			if (!consistent || !propagate()) {
+				return BigInteger.ZERO;
+			}
+
+			final int[] variables = new int[numberOfVariables];
+			for (int i = 0; i < numberOfVariables; i++) {
+				variables[i] = i + 1;
+			}
+			final int[] clauseIndices = new int[clauses.length];
+			for (int i = 0; i < clauses.length; i++) {
+				clauseIndices[i] = i;
+			}
+			return countComponents(variables, clauseIndices);
+		} finally {
+			undo(0);
+			this.monitor = null;
+		}
+	}
+
+	/**
+	 * Counts the models of the open part of the given variables and clauses. The
+	 * decisions are kept on an explicit stack instead of the call stack, such
+	 * that the search depth is not limited by the stack size of the thread.
+	 */
+	private BigInteger countComponents(int[] variables, int[] clauseIndices) {
+		final ArrayDeque<Decision> decisions = new ArrayDeque<>();
+		Split split = split(variables, clauseIndices, true);
+		while (true) {
+			if (split.isDone()) {
+				final Decision decision = decisions.peek();
+				if (decision == null) {
+					return split.count;
+				}
+				undo(decision.trailStart);
+				decision.count = decision.count.add(split.count);
+				split = nextBranch(decision);
+				if (split == null) {
+					decisions.pop();
+					split = complete(decision);
+				}
+			} else {
+				final Component component = split.components.get(split.next);
+				final BigInteger cachedCount = cache.get(component);
+				if (cachedCount != null) {
+					addCount(split, cachedCount);
+					continue;
+				}
+				if (System.nanoTime() > deadline) {
+					throw new RuntimeTimeoutException();
+				}
+				monitor.checkCancel();
+
+				final int[] componentVariables = split.componentVariables.get(split.next);
+				final int[] componentClauses = Arrays.copyOfRange(component.key, componentVariables.length + 1,
+					component.key.length);
+				final Decision decision = new Decision(split, component, componentVariables, componentClauses,
+					selectVariable(componentVariables, componentClauses));
+				split = nextBranch(decision);
+				if (split == null) {
+					split = complete(decision);
+				} else {
+					decisions.push(decision);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assigns the literal of the next branch of the given decision that does not
+	 * lead to a conflict.
+	 *
+	 * @return the components of the branch or {@code null}, if all branches were
+	 *         counted
+	 */
+	private Split nextBranch(Decision decision) {
+		while (decision.branch < 2) {
+			final int literal = decision.branch++ == 0 ? decision.variable : -decision.variable;
+			decision.trailStart = trailSize;
+			if (assign(literal) && propagate()) {
+				return split(decision.variables, decision.clauseIndices, false);
+			}
+			undo(decision.trailStart);
+		}
+		return null;
+	}
+
+	/**
+	 * Caches the count of a decision's component and adds it to the parent split.
+	 *
+	 * @return the parent split
+	 */
+	private Split complete(Decision decision) {
+		final BigInteger replacedCount = cache.put(decision.component, decision.count);
+		if (replacedCount != null) {
+			cacheMemory -= getMemory(decision.component, replacedCount);
+		}
+		cacheMemory += getMemory(decision.component, decision.count);
+		trimCache();
+		addCount(decision.parent, decision.count);
+		return decision.parent;
+	}
+
+	private void addCount(Split split, BigInteger count) {
+		if (split.reportProgress) {
+			monitor.step();
+		}
+		if (count.signum() == 0) {
+			split.count = BigInteger.ZERO;
+			split.next = split.components.size();
+		} else {
+			split.count = split.count.multiply(count);
+			split.next++;
+		}
+	}
+
+	/**
+	 * Splits the open part of the given variables and clauses into connected
+	 * components.
+	 */
+	private Split split(int[] variables, int[] clauseIndices, boolean reportProgress) {
+		final int currentStamp = ++stamp;
+		int freeVariables = 0;
+		final List<Component> components = new ArrayList<>();
+		final List<int[]> componentVariables = new ArrayList<>();
+		final int[] variableQueue = new int[variables.length];
+		final int[] clauseQueue = new int[clauseIndices.length];
+		for (final int root : variables) {
+			if ((values[root] != 0) || (variableStamps[root] == currentStamp)) {
+				continue;
+			}
+			variableStamps[root] = currentStamp;
+			int variableCount = 0;
+			int clauseCount = 0;
+			int nextVariable = 0;
+			int nextClause = 0;
+			variableQueue[variableCount++] = root;
+			while (nextVariable < variableCount) {
+				while (nextVariable < variableCount) {
+					final int variable = variableQueue[nextVariable++];
+					clauseCount = visitClauses(occurrences[getLiteralIndex(variable)], clauseQueue, clauseCount,
+						currentStamp);
+					clauseCount = visitClauses(occurrences[getLiteralIndex(-variable)], clauseQueue, clauseCount,
+						currentStamp);
+				}
+				while (nextClause < clauseCount) {
+					for (final int literal : clauses[clauseQueue[nextClause++]]) {
+						final int variable = Math.abs(literal);
+						if ((values[variable] == 0) && (variableStamps[variable] != currentStamp)) {
+							variableStamps[variable] = currentStamp;
+							variableQueue[variableCount++] = variable;
+						}
+					}
+				}
+			}
+			if (clauseCount == 0) {
+				freeVariables++;
+			} else {
+				final int[] componentVariableArray = Arrays.copyOf(variableQueue, variableCount);
+				final int[] componentClauseArray = Arrays.copyOf(clauseQueue, clauseCount);
+				Arrays.sort(componentVariableArray);
+				Arrays.sort(componentClauseArray);
+				final int[] key = new int[variableCount + clauseCount + 1];
+				System.arraycopy(componentVariableArray, 0, key, 0, variableCount);
+				key[variableCount] = 0;
+				System.arraycopy(componentClauseArray, 0, key, variableCount + 1, clauseCount);
+				components.add(new Component(key));
+				componentVariables.add(componentVariableArray);
+			}
+		}
+
+		if (reportProgress) {
+			monitor.setTotalWork(components.size());
+		}
+		return new Split(components, componentVariables, freeVariables, reportProgress);
+	}
+
+	/**
+	 * Adds all unsatisfied clauses of the given occurrence list to the clause
+	 * queue.
+	 */
+	private int visitClauses(int[] occurrenceList, int[] clauseQueue, int clauseCount, int currentStamp) {
+		for (final int c : occurrenceList) {
+			if ((satisfiedCount[c] == 0) && (clauseStamps[c] != currentStamp)) {
+				clauseStamps[c] = currentStamp;
+				clauseQueue[clauseCount++] = c;
+			}
+		}
+		return clauseCount;
+	}
+
+	/**
+	 * @return the open variable with the most occurrences in unsatisfied clauses
+	 */
+	private int selectVariable(int[] variables, int[] clauseIndices) {
+		int bestVariable = variables[0];
+		int bestScore = -1;
+		for (final int variable : variables) {
+			if (values[variable] == 0) {
+				final int score = countOpenClauses(occurrences[getLiteralIndex(variable)])
+					+ countOpenClauses(occurrences[getLiteralIndex(-variable)]);
+				if (score > bestScore) {
+					bestScore = score;
+					bestVariable = variable;
+				}
+			}
+		}
+		return bestVariable;
+	}
+
+	private int countOpenClauses(int[] occurrenceList) {
+		int count = 0;
+		for (final int c : occurrenceList) {
+			if (satisfiedCount[c] == 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private boolean assign(int literal) {
+		final int variable = Math.abs(literal);
+		final int value = values[variable];
+		if (value == 0) {
+			values[variable] = literal;
+			trail[trailSize++] = literal;
+			return true;
+		}
+		return value == literal;
+	}
+
+	/**
+	 * Updates the clause counters for all assigned literals that were not
+	 * propagated yet and assigns unit literals.
+	 *
+	 * @return {@code false} if a clause is violated
+	 */
+	private boolean propagate() {
+		boolean consistent = true;
+		while (propagated < trailSize) {
+			final int literal = trail[propagated++];
+			for (final int c : occurrences[getLiteralIndex(literal)]) {
+				satisfiedCount[c]++;
+			}
+			// update all counters of this literal before reporting a conflict, such
+			// that undo can revert them
+			for (final int c : occurrences[getLiteralIndex(-literal)]) {
+				final int falseLiterals = ++falseCount[c];
+				if (consistent && (satisfiedCount[c] == 0)) {
+					final int[] clause = clauses[c];
+					if (falseLiterals == clause.length) {
+						consistent = false;
+					} else if (falseLiterals == (clause.length - 1)) {
+						for (final int unitLiteral : clause) {
+							if (values[Math.abs(unitLiteral)] == 0) {
+								assign(unitLiteral);
+								break;
+							}
+						}
+					}
+				}
+			}
+			if (!consistent) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void undo(int trailStart) {
+		for (int i = trailSize - 1; i >= trailStart; i--) {
+			final int literal = trail[i];
+			if (i < propagated) {
+				for (final int c : occurrences[getLiteralIndex(literal)]) {
+					satisfiedCount[c]--;
+				}
+				for (final int c : occurrences[getLiteralIndex(-literal)]) {
+					falseCount[c]--;
+				}
+			}
+			values[Math.abs(literal)] = 0;
+		}
+		trailSize = trailStart;
+		propagated = Math.min(propagated, trailStart);
+	}
+
+}
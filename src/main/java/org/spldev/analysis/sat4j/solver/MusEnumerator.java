@@ -0,0 +1,440 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.util.*;
+
+import org.sat4j.specs.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
+import org.spldev.clauses.*;
+import org.spldev.formula.structure.atomic.literal.*;
+
+/**
+ * Enumerates the minimal unsatisfiable subsets (MUS) of the clauses of a
+ * {@link CNF} in the style of MARCO.<br>
+ * A map solver keeps track of all subsets of clauses that are not explored yet.
+ * Each of its variables selects one clause. The map solver prefers positive
+ * values and thus proposes large subsets. A satisfiable subset is grown to a
+ * maximal satisfiable subset, whose supersets are then blocked in the map
+ * solver. An unsatisfiable subset is shrunk to a MUS, whose supersets are then
+ * blocked. The subsets are checked by a solver, in which every clause
+ * {@code C} is guarded as {@code C | -s} by a selector variable {@code s}.<br>
+ * Every MUS is returned as soon as it is found, such that {@link #next()} can
+ * be called until a time budget is exhausted. Shrinking can test several
+ * clauses at once using a {@link Sat4JSolverPool} (see
+ * {@link #setParallelism(int)}).
+ *
+ * @author Sebastian Krieter
+ */
+public class MusEnumerator {
+
+	private static final String SELECTOR_PREFIX = "__mus_selector_";
+
+	private final List<LiteralList> clauses;
+	private final int numberOfVariables;
+	private final CNF guardedCNF;
+	private final Sat4JSolver subsetSolver;
+	private final Sat4JSolver mapSolver;
+
+	private int parallelism = 1;
+	private Sat4JSolverPool solverPool = null;
+
+	private int timeout = AbstractSat4JSolver.DEFAULT_TIMEOUT;
+	private long deadline = Long.MAX_VALUE;
+	private boolean finished = false;
+
+	/**
+	 * Creates an enumerator for the MUS of all clauses of the given CNF.
+	 *
+	 * @param cnf the CNF
+	 */
+	public MusEnumerator(CNF cnf) {
+		this(cnf.getVariableMap(), cnf.getClauses());
+	}
+
+	/**
+	 * Creates an enumerator for the MUS of the given clauses.
+	 *
+	 * @param variableMap the variables of the clauses
+	 * @param clauses     the clauses
+	 */
+	public MusEnumerator(VariableMap variableMap, List<LiteralList> clauses) {
+		this.clauses = clauses;
+		numberOfVariables = variableMap.getMaxIndex();
+
+		final List<String> names = new ArrayList<>(numberOfVariables + clauses.size());
+		for (int i = 1; i <= numberOfVariables; i++) {
+			names.add(variableMap.getName(i).orElse(SELECTOR_PREFIX + "variable_" + i));
+		}
+		final List<String> mapNames = new ArrayList<>(clauses.size());
+		final List<LiteralList> guardedClauses = new ArrayList<>(clauses.size());
+		for (int i = 0; i < clauses.size(); i++) {
+			names.add(SELECTOR_PREFIX + i);
+			mapNames.add(SELECTOR_PREFIX + i);
+			final int[] literals = clauses.get(i).getLiterals();
+			final int[] guardedClause = Arrays.copyOf(literals, literals.length + 1);
+			guardedClause[literals.length] = -getSelector(i);
+			guardedClauses.add(new LiteralList(guardedClause));
+		}
+		guardedCNF = new CNF(VariableMap.fromNames(names), guardedClauses);
+		subsetSolver = new Sat4JSolver(guardedCNF);
+
+		mapSolver = new Sat4JSolver(VariableMap.fromNames(mapNames));
+		mapSolver.setSelectionStrategy(SStrategy.positive());
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of solvers that test the clauses of an unsatisfiable subset
+	 * in parallel while shrinking it.
+	 *
+	 * @param parallelism the number of solvers (values less than two disable
+	 *                    parallel shrinking)
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+		solverPool = parallelism > 1 ? new Sat4JSolverPool(guardedCNF, parallelism) : null;
+	}
+
+	/**
+	 * Sets the timeout for each call of the solvers.
+	 *
+	 * @param timeout the timeout in milliseconds
+	 */
+	public void setTimeout(int timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Sets a point in time after which no solver is called anymore. Each call of
+	 * a solver is limited to the remaining time. Thus, a single call of
+	 * {@link #next()} does not run much longer than until the deadline.
+	 *
+	 * @param deadline the deadline in milliseconds as given by
+	 *                 {@link System#currentTimeMillis()} ({@link Long#MAX_VALUE}
+	 *                 for no deadline)
+	 */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	public List<LiteralList> getClauses() {
+		return clauses;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Searches for the next MUS.
+	 *
+	 * @return the indices of the clauses of the next MUS in ascending order or
+	 *         {@code null}, if there are no more MUS
+	 * @throws RuntimeTimeoutException if a call to a solver timed out or the
+	 *                                 {@link #setDeadline(long) deadline} passed.
+	 *                                 The enumeration can be continued
+	 *                                 afterwards.
+	 */
+	public int[] next() {
+		while (!finished) {
+			final SatResult hasSeed = hasSolution(mapSolver);
+			switch (hasSeed) {
+			case FALSE:
+				finished = true;
+				return null;
+			case TIMEOUT:
+				throw new RuntimeTimeoutException();
+			case TRUE:
+				break;
+			default:
+				throw new AssertionError(hasSeed);
+			}
+
+			final int[] mapModel = mapSolver.getInternalSolution();
+			final boolean[] subset = new boolean[clauses.size()];
+			for (int i = 0; i < subset.length; i++) {
+				subset[i] = mapModel[i] > 0;
+			}
+
+			final SatResult hasSolution = hasSolution(subsetSolver, getSelectors(subset, -1));
+			switch (hasSolution) {
+			case FALSE:
+				final int[] mus = shrink(subset, getExplanation(subsetSolver));
+				block(mus, false);
+				return mus;
+			case TIMEOUT:
+				throw new RuntimeTimeoutException();
+			case TRUE:
+				block(grow(subset), true);
+				break;
+			default:
+				throw new AssertionError(hasSolution);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Blocks all supersets of a MUS or all subsets of a maximal satisfiable subset
+	 * (given by its complement) in the map solver.
+	 */
+	private void block(int[] clauseIndices, boolean positive) {
+		if (clauseIndices.length == 0) {
+			// either the empty set is unsatisfiable or all clauses are satisfiable
+			finished = true;
+			return;
+		}
+		final int[] blockingClause = new int[clauseIndices.length];
+		for (int i = 0; i < clauseIndices.length; i++) {
+			blockingClause[i] = positive ? clauseIndices[i] + 1 : -(clauseIndices[i] + 1);
+		}
+		try {
+			mapSolver.getFormula().push(new LiteralList(blockingClause));
+		} catch (final RuntimeContradictionException e) {
+			finished = true;
+		}
+	}
+
+	/**
+	 * Extends a satisfiable subset to a maximal satisfiable subset.
+	 *
+	 * @return the indices of all clauses that are not contained in the maximal
+	 *         satisfiable subset
+	 */
+	private int[] grow(boolean[] subset) {
+		addSatisfiedClauses(subset, subsetSolver.getInternalSolution());
+		for (int i = 0; i < subset.length; i++) {
+			if (!subset[i]) {
+				subset[i] = true;
+				final SatResult hasSolution = hasSolution(subsetSolver, getSelectors(subset, -1));
+				switch (hasSolution) {
+				case FALSE:
+					subset[i] = false;
+					break;
+				case TIMEOUT:
+					throw new RuntimeTimeoutException();
+				case TRUE:
+					addSatisfiedClauses(subset, subsetSolver.getInternalSolution());
+					break;
+				default:
+					throw new AssertionError(hasSolution);
+				}
+			}
+		}
+		return getIndices(subset, false);
+	}
+
+	private void addSatisfiedClauses(boolean[] subset, int[] model) {
+		for (int i = 0; i < subset.length; i++) {
+			if (!subset[i]) {
+				for (final int literal : clauses.get(i).getLiterals()) {
+					if (model[Math.abs(literal) - 1] == literal) {
+						subset[i] = true;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shrinks an unsatisfiable subset to a MUS by removing one clause after
+	 * another. Whenever a smaller subset is still unsatisfiable, the subset is
+	 * reduced to the clauses used in the explanation of the solver.
+	 *
+	 * @return the indices of the clauses of the MUS
+	 */
+	private int[] shrink(boolean[] subset, int[] explanation) {
+		refine(subset, explanation);
+		if (solverPool != null) {
+			shrinkParallel(subset);
+		} else {
+			for (int i = 0; i < subset.length; i++) {
+				if (subset[i]) {
+					final SatResult hasSolution = hasSolution(subsetSolver, getSelectors(subset, i));
+					switch (hasSolution) {
+					case FALSE:
+						subset[i] = false;
+						refine(subset, getExplanation(subsetSolver));
+						break;
+					case TIMEOUT:
+						throw new RuntimeTimeoutException();
+					case TRUE:
+						break;
+					default:
+						throw new AssertionError(hasSolution);
+					}
+				}
+			}
+		}
+		return getIndices(subset, true);
+	}
+
+	/**
+	 * Tests the next unchecked clauses of the subset in parallel. If removing a
+	 * clause keeps the subset satisfiable, the clause is critical for every
+	 * smaller subset as well. Thus, all such results are kept, but only the first
+	 * clause that can be removed is actually removed in each round.
+	 */
+	private void shrinkParallel(boolean[] subset) {
+		final boolean[] critical = new boolean[subset.length];
+		final List<Sat4JSolver> solvers = new ArrayList<>(parallelism);
+		try {
+			for (int i = 0; i < parallelism; i++) {
+				solvers.add(solverPool.acquire());
+			}
+			final int[] candidates = new int[parallelism];
+			final int[][] explanations = new int[parallelism][];
+			int nextCandidate = 0;
+			while (true) {
+				int numberOfCandidates = 0;
+				for (; (nextCandidate < subset.length) && (numberOfCandidates < parallelism); nextCandidate++) {
+					if (subset[nextCandidate] && !critical[nextCandidate]) {
+						candidates[numberOfCandidates++] = nextCandidate;
+					}
+				}
+				if (numberOfCandidates == 0) {
+					break;
+				}
+				Sat4JAnalysis.runParallel(numberOfCandidates, k -> {
+					final Sat4JSolver solver = solvers.get(k);
+					final SatResult hasSolution = hasSolution(solver, getSelectors(subset, candidates[k]));
+					switch (hasSolution) {
+					case FALSE:
+						explanations[k] = getExplanation(solver);
+						break;
+					case TIMEOUT:
+						throw new RuntimeTimeoutException();
+					case TRUE:
+						explanations[k] = null;
+						break;
+					default:
+						throw new AssertionError(hasSolution);
+					}
+				}, () -> {
+				});
+				int removed = -1;
+				for (int k = 0; k < numberOfCandidates; k++) {
+					if (explanations[k] == null) {
+						critical[candidates[k]] = true;
+					} else if (removed < 0) {
+						removed = k;
+						subset[candidates[k]] = false;
+						refine(subset, explanations[k]);
+					}
+				}
+				if (removed >= 0) {
+					// continue after the removed clause, as later results may be outdated
+					nextCandidate = candidates[removed] + 1;
+				}
+			}
+		} finally {
+			for (final Sat4JSolver solver : solvers) {
+				solverPool.release(solver);
+			}
+		}
+	}
+
+	private SatResult hasSolution(Sat4JSolver solver, int... assignment) {
+		final long remainingTime = deadline - System.currentTimeMillis();
+		if (remainingTime <= 0) {
+			throw new RuntimeTimeoutException();
+		}
+		solver.setTimeout((int) Math.min(remainingTime, timeout));
+		return solver.hasSolution(assignment);
+	}
+
+	/**
+	 * Removes all clauses from the subset whose selectors are not part of the
+	 * given explanation.
+	 */
+	private void refine(boolean[] subset, int[] explanation) {
+		if (explanation == null) {
+			return;
+		}
+		final boolean[] used = new boolean[subset.length];
+		for (final int literal : explanation) {
+			final int clauseIndex = literal - numberOfVariables - 1;
+			if ((clauseIndex >= 0) && (clauseIndex < used.length)) {
+				used[clauseIndex] = true;
+			}
+		}
+		for (int i = 0; i < subset.length; i++) {
+			subset[i] &= used[i];
+		}
+	}
+
+	private static int[] getExplanation(Sat4JSolver solver) {
+		final IVecInt explanation = solver.getSolverExplanation();
+		return explanation != null ? Arrays.copyOf(explanation.toArray(), explanation.size()) : null;
+	}
+
+	private int getSelector(int clauseIndex) {
+		return numberOfVariables + clauseIndex + 1;
+	}
+
+	/**
+	 * @return the selectors of all clauses in the subset except for the excluded
+	 *         clause
+	 */
+	private int[] getSelectors(boolean[] subset, int excludedClause) {
+		int size = 0;
+		for (int i = 0; i < subset.length; i++) {
+			if (subset[i] && (i != excludedClause)) {
+				size++;
+			}
+		}
+		final int[] selectors = new int[size];
+		size = 0;
+		for (int i = 0; i < subset.length; i++) {
+			if (subset[i] && (i != excludedClause)) {
+				selectors[size++] = getSelector(i);
+			}
+		}
+		return selectors;
+	}
+
+	private static int[] getIndices(boolean[] subset, boolean value) {
+		int size = 0;
+		for (final boolean contained : subset) {
+			if (contained == value) {
+				size++;
+			}
+		}
+		final int[] indices = new int[size];
+		size = 0;
+		for (int i = 0; i < subset.length; i++) {
+			if (subset[i] == value) {
+				indices[size++] = i;
+			}
+		}
+		return indices;
+	}
+
+}
@@ -39,6 +39,20 @@ public class Sat4JAssumptions implements Assignment {
 	protected final VecInt assumptions;
 	protected final VariableMap variables;
 
+	/**
+	 * For each variable, the lowest position (plus one) at which it occurs in
+	 * {@link #assumptions} or {@code 0}, if it does not occur.
+	 */
+	private int[] positions;
+	/**
+	 * For each variable, the number of its occurrences in {@link #assumptions}.
+	 */
+	private int[] occurrences;
+
+	/**
+	 * @return The vector containing the assumed literals. Must not be modified
+	 *         directly, as this would invalidate the variable index.
+	 */
 	public VecInt getAssumptions() {
 		return assumptions;
 	}
@@ -46,13 +60,57 @@ public class Sat4JAssumptions implements Assignment {
 	public Sat4JAssumptions(VariableMap variables) {
 		this.variables = variables;
 		assumptions = new VecInt(variables.size());
+		positions = new int[variables.getMaxIndex() + 1];
+		occurrences = new int[positions.length];
+	}
+
+	private void added(int literal, int position) {
+		final int var = Math.abs(literal);
+		if (var >= positions.length) {
+			final int newLength = Math.max(var + 1, positions.length << 1);
+			positions = Arrays.copyOf(positions, newLength);
+			occurrences = Arrays.copyOf(occurrences, newLength);
+		}
+		if ((occurrences[var]++ == 0) || (position < (positions[var] - 1))) {
+			positions[var] = position + 1;
+		}
+	}
+
+	private void removed(int literal, int position) {
+		final int var = Math.abs(literal);
+		if (--occurrences[var] == 0) {
+			positions[var] = 0;
+		} else if (positions[var] == (position + 1)) {
+			// only happens for duplicates that are not removed in stack order
+			for (int i = 0; i < assumptions.size(); i++) {
+				if (Math.abs(assumptions.unsafeGet(i)) == var) {
+					positions[var] = i + 1;
+					break;
+				}
+			}
+		}
+	}
+
+	private void moved(int literal, int from, int to) {
+		final int var = Math.abs(literal);
+		if ((positions[var] == (from + 1)) || (positions[var] > (to + 1))) {
+			positions[var] = to + 1;
+		}
 	}
 
 	public void clear() {
+		for (int i = 0; i < assumptions.size(); i++) {
+			final int var = Math.abs(assumptions.unsafeGet(i));
+			positions[var] = 0;
+			occurrences[var] = 0;
+		}
 		assumptions.clear();
 	}
 
 	public void clear(int newSize) {
+		for (int i = assumptions.size() - 1; i >= newSize; i--) {
+			removed(assumptions.unsafeGet(i), i);
+		}
 		assumptions.shrinkTo(newSize);
 	}
 
@@ -61,33 +119,56 @@ public class Sat4JAssumptions implements Assignment {
 	}
 
 	public Integer pop() {
-		final int topElement = assumptions.get(assumptions.size());
+		final int topElement = assumptions.last();
 		assumptions.pop();
+		removed(topElement, assumptions.size());
 		return topElement;
 	}
 
 	public void pop(int count) {
-		assumptions.shrinkTo(assumptions.size() - count);
+		clear(assumptions.size() - count);
 	}
 
 	public void push(int var) {
+		added(var, assumptions.size());
 		assumptions.push(var);
 	}
 
 	public void pushAll(int[] vars) {
-		assumptions.pushAll(new VecInt(vars));
+		assumptions.ensure(assumptions.size() + vars.length);
+		for (final int var : vars) {
+			push(var);
+		}
 	}
 
 	public void replaceLast(int var) {
+		final int position = assumptions.size() - 1;
+		final int oldVar = assumptions.last();
 		assumptions.pop().unsafePush(var);
+		if (Math.abs(oldVar) != Math.abs(var)) {
+			removed(oldVar, position);
+			added(var, position);
+		}
 	}
 
 	public void remove(int i) {
+		final int last = assumptions.size() - 1;
+		final int removedVar = assumptions.get(i);
+		final int movedVar = assumptions.last();
 		assumptions.delete(i);
+		removed(removedVar, i);
+		if (i != last) {
+			moved(movedVar, last, i);
+		}
 	}
 
 	public void set(int index, int var) {
+		final int oldVar = assumptions.get(index);
 		assumptions.set(index, var);
+		if (Math.abs(oldVar) != Math.abs(var)) {
+			removed(oldVar, index);
+			added(var, index);
+		}
 	}
 
 	public int size() {
@@ -117,14 +198,13 @@ public class Sat4JAssumptions implements Assignment {
 	@Override
 	public void set(int index, Object assignment) {
 		if (assignment instanceof Boolean) {
-			for (int i = 0; i < assumptions.size(); i++) {
-				final int l = assumptions.unsafeGet(i);
-				if (Math.abs(l) == index) {
-					assumptions.set(i, (Boolean) assignment ? l : -l);
-					return;
-				}
+			final int position = getPosition(index);
+			if (position >= 0) {
+				final int l = assumptions.unsafeGet(position);
+				assumptions.set(position, (Boolean) assignment ? Math.abs(l) : -Math.abs(l));
+			} else {
+				push((Boolean) assignment ? index : -index);
 			}
-			assumptions.push((Boolean) assignment ? index : -index);
 		}
 	}
 
@@ -137,29 +217,32 @@ public class Sat4JAssumptions implements Assignment {
 
 	@Override
 	public void unset(int index) {
-		for (int i = 0; i < assumptions.size(); i++) {
-			final int l = assumptions.unsafeGet(i);
-			if (Math.abs(l) == index) {
-				assumptions.delete(i);
-				return;
-			}
+		final int position = getPosition(index);
+		if (position >= 0) {
+			remove(position);
 		}
 	}
 
 	@Override
 	public void unsetAll() {
-		assumptions.clear();
+		clear();
 	}
 
 	@Override
 	public Optional<Object> get(int index) {
-		for (int i = 0; i < assumptions.size(); i++) {
-			final int l = assumptions.unsafeGet(i);
-			if (Math.abs(l) == index) {
-				return Optional.of(l);
-			}
-		}
-		return Optional.empty();
+		final int position = getPosition(index);
+		return position >= 0 ? Optional.of(assumptions.unsafeGet(position)) : Optional.empty();
+	}
+
+	/**
+	 * Returns the first position of a variable within the assumptions in constant
+	 * time.
+	 *
+	 * @param index the index of the variable
+	 * @return the position of the variable or {@code -1}, if it is not assumed
+	 */
+	public int getPosition(int index) {
+		return ((index > 0) && (index < positions.length)) ? positions[index] - 1 : -1;
 	}
 
 	public Optional<Object> get(String name) {
@@ -38,8 +38,15 @@ import org.spldev.formula.structure.atomic.literal.*;
  */
 public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
 
+	private static final int SELECTOR_BLOCK_SIZE = 64;
+
 	private final AbstractSat4JSolver<?> sat4jSolver;
 
+	private final VecInt activeSelectors = new VecInt();
+	private int nextSelector = 1;
+	private int lastReservedSelector = 0;
+	private int modificationCount = 0;
+
 	public Sat4JFormula(AbstractSat4JSolver<?> solver, VariableMap variableMap) {
 		super(variableMap);
 		sat4jSolver = solver;
@@ -72,11 +79,41 @@ public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
 				throw new RuntimeContradictionException(e);
 			}
 		}
-		if (sat4jSolver.solutionHistory != null) {
-			sat4jSolver.solutionHistory.clear();
-			sat4jSolver.lastModel = null;
+		clearSolutionHistory();
+		constraints.addAll(constrs);
+		modificationCount++;
+		return constrs;
+	}
+
+	/**
+	 * Adds all clauses of the given store. Literals are copied into a single
+	 * reused vector, so no object is created per clause.
+	 *
+	 * @param clauses the clauses
+	 * @return the added constraints
+	 */
+	public List<IConstr> push(ClauseStore clauses) {
+		final ArrayList<IConstr> constrs = new ArrayList<>(clauses.size());
+		final VecInt literals = new VecInt();
+		for (int i = 0; i < clauses.size(); i++) {
+			try {
+				if ((clauses.getClauseSize(i) == 1) && (clauses.getLiteral(i, 0) == 0)) {
+					throw new ContradictionException();
+				}
+				// Sat4J converts the literals into its internal representation, which
+				// allows to reuse the vector
+				clauses.copyLiterals(i, literals);
+				constrs.add(sat4jSolver.solver.addClause(literals));
+			} catch (final ContradictionException e) {
+				for (final IConstr constr : constrs) {
+					sat4jSolver.solver.removeConstr(constr);
+				}
+				throw new RuntimeContradictionException(e);
+			}
 		}
+		clearSolutionHistory();
 		constraints.addAll(constrs);
+		modificationCount++;
 		return constrs;
 	}
 
@@ -88,20 +125,204 @@ public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
 			final IConstr constr = sat4jSolver.solver
 				.addClause(new VecInt(Arrays.copyOfRange(clause.getLiterals(), 0, clause.size())));
 			constraints.add(constr);
-			if (sat4jSolver.solutionHistory != null) {
-				sat4jSolver.solutionHistory.clear();
-				sat4jSolver.lastModel = null;
-			}
+			modificationCount++;
+			clearSolutionHistory();
 			return constr;
 		} catch (final ContradictionException e) {
 			throw new RuntimeContradictionException(e);
 		}
 	}
 
+	/**
+	 * Returns the clauses of all constraints that are currently contained in this
+	 * formula, i.e., the initial clauses of the solver and all clauses that were
+	 * pushed without a guard. Clauses of {@link #pushGuarded(List) guarded groups}
+	 * are not included. Sat4J may simplify clauses when they are added, so the
+	 * returned clauses are equivalent to, but not necessarily equal to, the pushed
+	 * ones.
+	 *
+	 * @return the clauses
+	 */
+	public List<LiteralList> toClauses() {
+		final List<LiteralList> clauses = new ArrayList<>(constraints.size());
+		for (final IConstr constr : constraints) {
+			if (constr != null) {
+				final int[] literals = new int[constr.size()];
+				for (int i = 0; i < literals.length; i++) {
+					literals[i] = LiteralsUtils.toDimacs(constr.get(i));
+				}
+				clauses.add(new LiteralList(literals));
+			}
+		}
+		return clauses;
+	}
+
+	/**
+	 * Pushes a group of clauses that is guarded by a fresh selector variable.
+	 * Each clause {@code C} is added as {@code C | -s} and {@code s} is assumed in
+	 * every subsequent call to the solver until the group is removed via
+	 * {@link #popGuarded()} or made permanent via {@link #commitGuarded()}.<br>
+	 * In contrast to {@link #pop(int)}, removing a guarded group does not require
+	 * to clear the learned clauses of the solver, because every clause learned
+	 * from a guarded clause contains the literal {@code -s}.
+	 *
+	 * @param clauses the clauses of the group
+	 * @return the selector variable of the group
+	 */
+	public int pushGuarded(List<? extends LiteralList> clauses) {
+		final int selector = newSelector();
+		for (final LiteralList clause : clauses) {
+			addPermanentClause(guard(clause, selector));
+		}
+		activeSelectors.push(selector);
+		modificationCount++;
+		clearSolutionHistory();
+		return selector;
+	}
+
+	/**
+	 * Adds a clause to the last group that was added via
+	 * {@link #pushGuarded(List)}. The clause is removed together with the group.
+	 *
+	 * @param clause the clause
+	 * @throws IllegalStateException if there is no active group
+	 */
+	public void addGuarded(LiteralList clause) {
+		if (activeSelectors.isEmpty()) {
+			throw new IllegalStateException("No active guarded group");
+		}
+		addPermanentClause(guard(clause, activeSelectors.last()));
+		modificationCount++;
+		clearSolutionHistory();
+	}
+
+	/**
+	 * Removes the last group of clauses that was added via
+	 * {@link #pushGuarded(List)}.
+	 */
+	public void popGuarded() {
+		popGuarded(1);
+	}
+
+	/**
+	 * Removes the last {@code count} groups of clauses that were added via
+	 * {@link #pushGuarded(List)}. The selector variable of each group is fixed to
+	 * {@code false}, which satisfies all clauses of the group.
+	 *
+	 * @param count the number of groups to remove
+	 */
+	public void popGuarded(int count) {
+		for (int i = 0; (i < count) && !activeSelectors.isEmpty(); i++) {
+			final int selector = activeSelectors.last();
+			activeSelectors.pop();
+			addPermanentClause(new VecInt(new int[] { -selector }));
+			modificationCount++;
+		}
+	}
+
+	/**
+	 * Makes the last group of clauses that was added via
+	 * {@link #pushGuarded(List)} permanent. The selector variable of the group is
+	 * fixed to {@code true} and no longer needs to be assumed.
+	 */
+	public void commitGuarded() {
+		if (!activeSelectors.isEmpty()) {
+			final int selector = activeSelectors.last();
+			activeSelectors.pop();
+			addPermanentClause(new VecInt(new int[] { selector }));
+			modificationCount++;
+		}
+	}
+
+	/**
+	 * Returns the selectors of all guarded groups that are currently active. The
+	 * returned vector must not be modified.
+	 *
+	 * @return the active selectors
+	 */
+	public IVecInt getActiveSelectors() {
+		return activeSelectors;
+	}
+
+	/**
+	 * Creates a fresh auxiliary variable that is not contained in the variable
+	 * map, e.g., for encoding a constraint within a guarded group. Like selector
+	 * variables, auxiliary variables are not part of the solutions returned by the
+	 * solver.
+	 *
+	 * @return the new variable
+	 */
+	public int newAuxiliaryVariable() {
+		return newSelector();
+	}
+
+	/**
+	 * Returns a counter that is increased by every operation that adds or removes
+	 * clauses (including guarded groups). Comparing the counter with an earlier
+	 * value shows in constant time whether the formula may have changed in
+	 * between.
+	 *
+	 * @return the number of modifications of this formula
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * @return whether this formula ever created a selector or auxiliary variable
+	 */
+	public boolean hasSelectors() {
+		return lastReservedSelector > 0;
+	}
+
+	private int newSelector() {
+		if (nextSelector > lastReservedSelector) {
+			// reserve a block of variables to avoid re-initializing the variable order
+			// for every new selector
+			final ISolver solver = sat4jSolver.solver;
+			nextSelector = solver.nextFreeVarId(true);
+			lastReservedSelector = nextSelector;
+			for (int i = 1; i < SELECTOR_BLOCK_SIZE; i++) {
+				lastReservedSelector = solver.nextFreeVarId(true);
+			}
+			sat4jSolver.variablesAdded();
+		}
+		return nextSelector++;
+	}
+
+	private static VecInt guard(LiteralList clause, int selector) {
+		final int[] literals = clause.getLiterals();
+		if ((clause.size() == 1) && (literals[0] == 0)) {
+			return new VecInt(new int[] { -selector });
+		}
+		final VecInt guardedClause = new VecInt(clause.size() + 1);
+		for (int i = 0; i < clause.size(); i++) {
+			guardedClause.unsafePush(literals[i]);
+		}
+		guardedClause.unsafePush(-selector);
+		return guardedClause;
+	}
+
+	private void addPermanentClause(VecInt clause) {
+		try {
+			sat4jSolver.solver.addClause(clause);
+		} catch (final ContradictionException e) {
+			throw new RuntimeContradictionException(e);
+		}
+	}
+
+	private void clearSolutionHistory() {
+		if (sat4jSolver.solutionHistory != null) {
+			sat4jSolver.solutionHistory.clear();
+			sat4jSolver.lastModel = null;
+		}
+	}
+
 	@Override
 	public IConstr pop() {
 		final IConstr lastConstraint = super.pop();
 		sat4jSolver.solver.removeConstr(lastConstraint);
+		modificationCount++;
 		return lastConstraint;
 	}
 
@@ -110,6 +331,7 @@ public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
 		if (constr != null) {
 			sat4jSolver.solver.removeConstr(constr);
 			super.remove(constr);
+			modificationCount++;
 		}
 	}
 
@@ -125,6 +347,7 @@ public class Sat4JFormula extends AbstractDynamicFormula<IConstr> {
 			}
 		}
 		sat4jSolver.solver.clearLearntClauses();
+		modificationCount++;
 	}
 
 }
@@ -23,8 +23,10 @@
 package org.spldev.analysis.sat4j.solver;
 
 import java.util.*;
+import java.util.function.*;
 import java.util.stream.*;
 
+import org.sat4j.core.*;
 import org.sat4j.minisat.*;
 import org.sat4j.specs.*;
 import org.sat4j.tools.xplain.*;
@@ -37,8 +39,11 @@ import org.spldev.formula.*;
  *
  * <br>
  * <br>
- * Sat4J only support the extraction of one minimal unsatisfiable subset, thus
- * {@link #getAllMinimalUnsatisfiableSubsets()} only returns one solution.
+ * Sat4J only supports the extraction of one minimal unsatisfiable subset. All
+ * minimal unsatisfiable subsets of the clauses of the solver are enumerated by
+ * a {@link MusEnumerator}, either completely via
+ * {@link #getAllMinimalUnsatisfiableSubsets()} or streamed within a time
+ * budget via {@link #getMinimalUnsatisfiableSubsets(long, Consumer)}.
  *
  * <br>
  * <br>
@@ -72,9 +77,7 @@ public class Sat4JMusSolver extends AbstractSat4JSolver<Xplain<ISolver>> impleme
 			throw new IllegalStateException("Problem is satisfiable");
 		}
 		try {
-			return IntStream.of(solver.minimalExplanation()) //
-				.mapToObj(getFormula().getConstraints()::get) //
-				.collect(Collectors.toList());
+			return getConstraints(getFormula().getConstraints(), solver.minimalExplanation());
 		} catch (final TimeoutException e) {
 			throw new IllegalStateException(e);
 		}
@@ -82,7 +85,91 @@ public class Sat4JMusSolver extends AbstractSat4JSolver<Xplain<ISolver>> impleme
 
 	@Override
 	public List<List<IConstr>> getAllMinimalUnsatisfiableSubsets() throws IllegalStateException {
-		return Collections.singletonList(getMinimalUnsatisfiableSubset());
+		if (hasSolution() == SatResult.TRUE) {
+			throw new IllegalStateException("Problem is satisfiable");
+		}
+		final List<IConstr> constraints = new ArrayList<>();
+		final MusEnumerator enumerator = createMusEnumerator(constraints);
+		final List<List<IConstr>> subsets = new ArrayList<>();
+		for (int[] mus = enumerator.next(); mus != null; mus = enumerator.next()) {
+			subsets.add(getConstraints(constraints, mus));
+		}
+		return subsets;
+	}
+
+	/**
+	 * Enumerates the minimal unsatisfiable subsets of the clauses of this solver
+	 * and passes each subset to the consumer as soon as it is found.
+	 *
+	 * @param timeBudget the time budget for the enumeration in milliseconds
+	 * @param consumer   the consumer for the subsets
+	 * @return {@code true} if all subsets were found within the time budget,
+	 *         {@code false} otherwise
+	 */
+	public boolean getMinimalUnsatisfiableSubsets(long timeBudget, Consumer<List<IConstr>> consumer) {
+		final List<IConstr> constraints = new ArrayList<>();
+		final MusEnumerator enumerator = createMusEnumerator(constraints);
+		enumerator.setDeadline(System.currentTimeMillis() + timeBudget);
+		try {
+			for (int[] mus = enumerator.next(); mus != null; mus = enumerator.next()) {
+				consumer.accept(getConstraints(constraints, mus));
+			}
+			return true;
+		} catch (final RuntimeTimeoutException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates an enumerator for the minimal unsatisfiable subsets of the clauses
+	 * that are currently contained in this solver, including clauses that were
+	 * pushed after its creation. The indices returned by the enumerator
+	 * correspond to the indices of the non-null
+	 * {@link Sat4JFormula#getConstraints() constraints} of this solver.
+	 *
+	 * @return a new enumerator
+	 * @throws IllegalStateException if the solver contains
+	 *                               {@link Sat4JFormula#pushGuarded(List) guarded
+	 *                               clauses}, which cannot be enumerated
+	 */
+	public MusEnumerator createMusEnumerator() {
+		return createMusEnumerator(new ArrayList<>());
+	}
+
+	/**
+	 * Creates an enumerator and adds the constraint of each of its clauses to the
+	 * given list. The literals of the selector variables, with which
+	 * {@link Xplain} extends every clause, are removed.
+	 */
+	private MusEnumerator createMusEnumerator(List<IConstr> constraints) {
+		if (getFormula().getActiveSelectors().size() > 0) {
+			throw new IllegalStateException("Solver contains guarded clauses");
+		}
+		final int maxVariable = getVariables().getMaxIndex();
+		final List<LiteralList> clauses = new ArrayList<>();
+		for (final IConstr constr : getFormula().getConstraints()) {
+			if (constr != null) {
+				final int[] literals = new int[constr.size()];
+				int size = 0;
+				for (int i = 0; i < constr.size(); i++) {
+					final int literal = LiteralsUtils.toDimacs(constr.get(i));
+					if (Math.abs(literal) <= maxVariable) {
+						literals[size++] = literal;
+					}
+				}
+				clauses.add(new LiteralList(Arrays.copyOf(literals, size)));
+				constraints.add(constr);
+			}
+		}
+		final MusEnumerator enumerator = new MusEnumerator(getVariables(), clauses);
+		enumerator.setTimeout(timeout);
+		return enumerator;
+	}
+
+	private static List<IConstr> getConstraints(List<IConstr> constraints, int[] clauseIndices) {
+		return IntStream.of(clauseIndices) //
+			.mapToObj(constraints::get) //
+			.collect(Collectors.toList());
 	}
 
 }
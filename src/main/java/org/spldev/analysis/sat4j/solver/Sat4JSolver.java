@@ -27,6 +27,7 @@ import java.util.*;
 import org.sat4j.minisat.*;
 import org.sat4j.minisat.core.*;
 import org.sat4j.minisat.orders.*;
+import org.sat4j.specs.*;
 import org.spldev.analysis.sat4j.solver.SStrategy.*;
 import org.spldev.analysis.sat4j.solver.strategy.*;
 import org.spldev.clauses.*;
@@ -41,19 +42,51 @@ public class Sat4JSolver extends AbstractSat4JSolver<Solver<?>> {
 
 	protected final int[] order;
 	protected SStrategy strategy;
+	protected final SolverProfile profile;
+
+	private int portfolioSize = 0;
+	private int portfolioThreshold = 0;
+	private SolverPortfolio portfolio = null;
+	private int cnfModificationCount;
 
 	public Sat4JSolver(CNF cnf) {
+		this(cnf, SolverProfile.DEFAULT);
+	}
+
+	public Sat4JSolver(CNF cnf, SolverProfile profile) {
 		super(cnf);
 		strategy = SStrategy.original();
 		order = new int[cnf.getVariableMap().size()];
 		setOrderFix();
+		this.profile = profile;
+		profile.configure(solver);
+		cnfModificationCount = formula.getModificationCount();
+	}
+
+	public Sat4JSolver(VariableMap variableMap, ClauseStore clauses) {
+		this(variableMap, clauses, SolverProfile.DEFAULT);
+	}
+
+	public Sat4JSolver(VariableMap variableMap, ClauseStore clauses, SolverProfile profile) {
+		super(variableMap, clauses);
+		strategy = SStrategy.original();
+		order = new int[variableMap.size()];
+		setOrderFix();
+		this.profile = profile;
+		profile.configure(solver);
 	}
 
 	public Sat4JSolver(VariableMap variableMap) {
+		this(variableMap, SolverProfile.DEFAULT);
+	}
+
+	public Sat4JSolver(VariableMap variableMap, SolverProfile profile) {
 		super(variableMap);
 		strategy = SStrategy.original();
 		order = new int[variableMap.size()];
 		setOrderFix();
+		this.profile = profile;
+		profile.configure(solver);
 	}
 
 	@Override
@@ -67,6 +100,106 @@ public class Sat4JSolver extends AbstractSat4JSolver<Solver<?>> {
 		solver.getOrder().init();
 	}
 
+	@Override
+	protected void initSolver(ClauseStore clauses) {
+		super.initSolver(clauses);
+		solver.getOrder().init();
+	}
+
+	@Override
+	protected void variablesAdded() {
+		solver.getOrder().init();
+	}
+
+	/**
+	 * Enables the portfolio mode for calls to {@code hasSolution}. A call that
+	 * does not finish within the given threshold is raced against the given
+	 * number of additional solvers, which use different phase selection strategies
+	 * and variable orders. The first answer is used and all other solvers are
+	 * stopped. The additional solvers are only created when a call exceeds the
+	 * threshold for the first time. Thus, easy calls do not pay for the additional
+	 * solvers.<br>
+	 * The portfolio is only used if the solver contains exactly the clauses of its
+	 * CNF (i.e., no clauses were pushed or popped) and no global timeout is set.
+	 *
+	 * @param numberOfSolvers the number of additional solvers (0 disables the
+	 *                        portfolio mode)
+	 * @param threshold       the time in milliseconds after which a call is
+	 *                        raced
+	 */
+	public void setPortfolio(int numberOfSolvers, int threshold) {
+		portfolioSize = Math.max(0, numberOfSolvers);
+		portfolioThreshold = Math.max(0, threshold);
+		if ((portfolio != null) && (portfolio.size() != portfolioSize)) {
+			portfolio = null;
+		}
+	}
+
+	public int getPortfolioSize() {
+		return portfolioSize;
+	}
+
+	public int getPortfolioThreshold() {
+		return portfolioThreshold;
+	}
+
+	@Override
+	protected boolean isSatisfiable(IVecInt assumptionVector) throws TimeoutException {
+		if (portfolio != null) {
+			portfolio.resetWinner();
+		}
+		if ((portfolioSize == 0) || globalTimeout || (satInstance == null) || (portfolioThreshold >= timeout)
+			|| !containsOnlyCnf()) {
+			return super.isSatisfiable(assumptionVector);
+		}
+
+		if (portfolioThreshold > 0) {
+			solver.setTimeoutMs(portfolioThreshold);
+			try {
+				return super.isSatisfiable(assumptionVector);
+			} catch (final TimeoutException e) {
+				// fall through to the portfolio
+			} finally {
+				solver.setTimeoutMs(timeout);
+			}
+		}
+		if (portfolio == null) {
+			portfolio = new SolverPortfolio(this, portfolioSize, 112358);
+		}
+		return portfolio.race(assumptionVector, timeout - portfolioThreshold);
+	}
+
+	/**
+	 * Checks in constant time whether the formula was modified since it contained
+	 * exactly the clauses of the CNF, which is a requirement for racing the solver
+	 * against helpers created from the CNF.
+	 */
+	private boolean containsOnlyCnf() {
+		return !formula.hasSelectors() && (formula.getModificationCount() == cnfModificationCount);
+	}
+
+	/**
+	 * Notifies the solver that its formula contains exactly the clauses of its CNF
+	 * again, e.g., after a {@link Sat4JSolverPool} removed all pushed clauses.
+	 */
+	void cnfRestored() {
+		cnfModificationCount = formula.getModificationCount();
+	}
+
+	@Override
+	protected int[] getSolverModel() {
+		return portfolio != null ? portfolio.getWinner().solver.model() : super.getSolverModel();
+	}
+
+	@Override
+	protected IVecInt getSolverExplanation() {
+		return portfolio != null ? portfolio.getWinner().solver.unsatExplanation() : super.getSolverExplanation();
+	}
+
+	public SolverProfile getProfile() {
+		return profile;
+	}
+
 	public int[] getOrder() {
 		return order;
 	}
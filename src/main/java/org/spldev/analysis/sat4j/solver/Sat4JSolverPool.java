@@ -0,0 +1,250 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+import org.sat4j.specs.*;
+import org.spldev.clauses.*;
+
+/**
+ * A thread-safe pool of {@link Sat4JSolver solvers} for one {@link CNF}.
+ * Solvers are created on demand with all clauses of the CNF already loaded and
+ * are reused after they have been {@link #release(Sat4JSolver) released}. On
+ * release, the assumptions, the selection strategy, the variable order, the
+ * solution history, and all clauses that were pushed on top of the CNF are
+ * reset. The number of solvers that can be in use at the same time is limited
+ * by {@link #getMaxSolvers()}.<br>
+ * Pools can be {@link #register(CNF, int) registered} for a CNF. Every
+ * {@link org.spldev.analysis.sat4j.Sat4JAnalysis analysis} that is executed
+ * on this CNF (e.g., via {@code Executor.run(analysis::execute, cnf)}) then
+ * borrows a solver from the pool instead of creating a new one.
+ *
+ * @author Sebastian Krieter
+ */
+public class Sat4JSolverPool {
+
+	private static final Map<CNF, Sat4JSolverPool> pools = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	/**
+	 * Creates and registers a pool for the given CNF, replacing any previously
+	 * registered pool.
+	 *
+	 * @param cnf        the CNF
+	 * @param maxSolvers the maximum number of solvers in use at the same time
+	 * @return the new pool
+	 */
+	public static Sat4JSolverPool register(CNF cnf, int maxSolvers) {
+		final Sat4JSolverPool pool = new Sat4JSolverPool(cnf, maxSolvers);
+		pools.put(cnf, pool);
+		return pool;
+	}
+
+	public static void unregister(CNF cnf) {
+		pools.remove(cnf);
+	}
+
+	/**
+	 * @param cnf the CNF
+	 * @return the pool registered for the given CNF (compared by identity) or
+	 *         {@code null}, if there is none.
+	 */
+	public static Sat4JSolverPool getPool(CNF cnf) {
+		return pools.get(cnf);
+	}
+
+	private final CNF cnf;
+	private final int maxSolvers;
+	private final SolverProfile profile;
+	private final Semaphore permits;
+	private final ConcurrentLinkedDeque<Sat4JSolver> idleSolvers = new ConcurrentLinkedDeque<>();
+	private final Map<Sat4JSolver, IConstr[]> initialConstraints = Collections.synchronizedMap(
+		new IdentityHashMap<>());
+
+	public Sat4JSolverPool(CNF cnf) {
+		this(cnf, Runtime.getRuntime().availableProcessors());
+	}
+
+	public Sat4JSolverPool(CNF cnf, int maxSolvers) {
+		this(cnf, maxSolvers, SolverProfile.DEFAULT);
+	}
+
+	public Sat4JSolverPool(CNF cnf, int maxSolvers, SolverProfile profile) {
+		if (maxSolvers <= 0) {
+			throw new IllegalArgumentException(String.valueOf(maxSolvers));
+		}
+		this.cnf = Objects.requireNonNull(cnf);
+		this.maxSolvers = maxSolvers;
+		this.profile = Objects.requireNonNull(profile);
+		permits = new Semaphore(maxSolvers, true);
+	}
+
+	public CNF getCnf() {
+		return cnf;
+	}
+
+	public SolverProfile getProfile() {
+		return profile;
+	}
+
+	public int getMaxSolvers() {
+		return maxSolvers;
+	}
+
+	/**
+	 * @return the number of solvers that are currently idle in the pool.
+	 */
+	public int getIdleCount() {
+		return idleSolvers.size();
+	}
+
+	/**
+	 * Creates idle solvers in parallel until the pool holds the given number of
+	 * solvers.
+	 *
+	 * @param numberOfSolvers the number of solvers to prepare (at most
+	 *                        {@link #getMaxSolvers()})
+	 */
+	public void warmUp(int numberOfSolvers) {
+		final int missing = Math.min(numberOfSolvers, maxSolvers) - idleSolvers.size();
+		if (missing > 0) {
+			final List<Sat4JSolver> solvers = Collections.synchronizedList(new ArrayList<>(missing));
+			IntStream.range(0, missing).parallel().forEach(i -> solvers.add(createSolver()));
+			idleSolvers.addAll(solvers);
+		}
+	}
+
+	/**
+	 * Borrows a solver from the pool, blocking while {@link #getMaxSolvers()}
+	 * solvers are in use. The solver must be handed back via
+	 * {@link #release(Sat4JSolver)}.
+	 *
+	 * @return a solver containing all clauses of the CNF
+	 */
+	public Sat4JSolver acquire() {
+		permits.acquireUninterruptibly();
+		try {
+			final Sat4JSolver solver = idleSolvers.pollFirst();
+			return solver != null ? solver : createSolver();
+		} catch (final RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Borrows a solver from the pool without blocking. The solver must be handed
+	 * back via {@link #release(Sat4JSolver)}.
+	 *
+	 * @return a solver containing all clauses of the CNF or {@code null}, if
+	 *         {@link #getMaxSolvers()} solvers are in use
+	 */
+	public Sat4JSolver tryAcquire() {
+		if (!permits.tryAcquire()) {
+			return null;
+		}
+		try {
+			final Sat4JSolver solver = idleSolvers.pollFirst();
+			return solver != null ? solver : createSolver();
+		} catch (final RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param solver the solver
+	 * @return whether the given solver was created by this pool and was not
+	 *         discarded yet
+	 */
+	public boolean contains(Sat4JSolver solver) {
+		return initialConstraints.containsKey(solver);
+	}
+
+	/**
+	 * Resets a solver obtained by {@link #acquire()} and returns it to the pool.
+	 * If the clauses of the CNF were removed from the solver, it is discarded
+	 * instead.
+	 *
+	 * @param solver the solver
+	 */
+	public void release(Sat4JSolver solver) {
+		try {
+			if (resetSolver(solver)) {
+				idleSolvers.offerFirst(solver);
+			} else {
+				initialConstraints.remove(solver);
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Removes all idle solvers from the pool.
+	 */
+	public void clear() {
+		Sat4JSolver solver;
+		while ((solver = idleSolvers.pollFirst()) != null) {
+			initialConstraints.remove(solver);
+		}
+	}
+
+	private Sat4JSolver createSolver() {
+		final Sat4JSolver solver = new Sat4JSolver(cnf, profile);
+		initialConstraints.put(solver, solver.getFormula().getConstraints().toArray(new IConstr[0]));
+		return solver;
+	}
+
+	private boolean resetSolver(Sat4JSolver solver) {
+		final IConstr[] initial = initialConstraints.get(solver);
+		if ((initial == null) || solver.getFormula().hasSelectors()) {
+			return false;
+		}
+		final List<IConstr> constraints = solver.getFormula().getConstraints();
+		if (constraints.size() < initial.length) {
+			return false;
+		}
+		for (int i = 0; i < initial.length; i++) {
+			if (constraints.get(i) != initial[i]) {
+				return false;
+			}
+		}
+		if (constraints.size() > initial.length) {
+			solver.getFormula().pop(constraints.size() - initial.length);
+		}
+		solver.cnfRestored();
+		solver.getAssumptions().clear();
+		solver.rememberSolutionHistory(0);
+		solver.setListener(null);
+		solver.setPortfolio(0, 0);
+		solver.setGlobalTimeout(false);
+		solver.setTimeout(AbstractSat4JSolver.DEFAULT_TIMEOUT);
+		solver.setOrderFix();
+		solver.setSelectionStrategy(SStrategy.original());
+		return true;
+	}
+
+}
@@ -0,0 +1,399 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.util.*;
+
+import org.sat4j.specs.*;
+import org.spldev.clauses.*;
+import org.spldev.clauses.LiteralList.*;
+
+/**
+ * Bounded cache of solutions found by a {@link AbstractSat4JSolver solver}.
+ * For every literal, the cache maintains a bitset over all stored solutions
+ * that contain this literal. A lookup for a set of literals is answered by
+ * intersecting the bitsets of these literals, which costs
+ * {@code O(assumptions * limit / 64)} instead of a scan over all stored
+ * solutions.<br>
+ * When the cache is full, an entry is evicted according to the chosen
+ * {@link EvictionStrategy}. If several cached solutions match a lookup, the one
+ * that was added most recently is returned.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolutionCache {
+
+	public enum EvictionStrategy {
+		/**
+		 * Evicts the solution that was neither added nor returned by a lookup for the
+		 * longest time.
+		 */
+		LRU,
+		/**
+		 * Evicts the solution that answered the fewest lookups (ties are broken by
+		 * least recent usage), thus keeping solutions that cover many queries.
+		 */
+		MOST_COVERING
+	}
+
+	private final int limit;
+	private final int numberOfWords;
+	private final EvictionStrategy evictionStrategy;
+
+	private final LiteralList[] solutions;
+	private final long[] lastUsed;
+	private final long[] added;
+	private final long[] hitCount;
+	private final long[] occupied;
+	private long[][] literalBits = new long[0][];
+
+	private final List<LiteralList> solutionView = new AbstractList<LiteralList>() {
+		@Override
+		public LiteralList get(int index) {
+			if ((index < 0) || (index >= size)) {
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			}
+			return solutions[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	};
+
+	private int size = 0;
+	private long clock = 0;
+
+	private long hits = 0;
+	private long misses = 0;
+
+	public SolutionCache(int limit) {
+		this(limit, EvictionStrategy.LRU);
+	}
+
+	public SolutionCache(int limit, EvictionStrategy evictionStrategy) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException(String.valueOf(limit));
+		}
+		this.limit = limit;
+		this.evictionStrategy = evictionStrategy;
+		numberOfWords = ((limit - 1) >>> 6) + 1;
+		solutions = new LiteralList[limit];
+		lastUsed = new long[limit];
+		added = new long[limit];
+		hitCount = new long[limit];
+		occupied = new long[numberOfWords];
+	}
+
+	private static int getLiteralIndex(int literal) {
+		return literal < 0
+			? (-(literal + 1)) << 1
+			: (((literal - 1) << 1) + 1);
+	}
+
+	/**
+	 * Adds a copy of a solution to the cache, evicting another solution if
+	 * necessary.
+	 *
+	 * @param model a solution in {@link Order#INDEX index order}
+	 */
+	public void add(int[] model) {
+		final int slot;
+		if (size < limit) {
+			slot = size++;
+		} else {
+			slot = selectEvictionSlot();
+			updateBits(solutions[slot].getLiterals(), slot, false);
+		}
+		final LiteralList solution = new LiteralList(Arrays.copyOf(model, model.length), Order.INDEX, false);
+		solutions[slot] = solution;
+		lastUsed[slot] = ++clock;
+		added[slot] = clock;
+		hitCount[slot] = 0;
+		occupied[slot >>> 6] |= 1L << slot;
+		updateBits(solution.getLiterals(), slot, true);
+	}
+
+	private int selectEvictionSlot() {
+		int minSlot = 0;
+		switch (evictionStrategy) {
+		case LRU:
+			for (int i = 1; i < size; i++) {
+				if (lastUsed[i] < lastUsed[minSlot]) {
+					minSlot = i;
+				}
+			}
+			break;
+		case MOST_COVERING:
+			for (int i = 1; i < size; i++) {
+				if ((hitCount[i] < hitCount[minSlot])
+					|| ((hitCount[i] == hitCount[minSlot]) && (lastUsed[i] < lastUsed[minSlot]))) {
+					minSlot = i;
+				}
+			}
+			break;
+		default:
+			throw new IllegalStateException(String.valueOf(evictionStrategy));
+		}
+		return minSlot;
+	}
+
+	private void updateBits(int[] model, int slot, boolean set) {
+		final int word = slot >>> 6;
+		final long mask = 1L << slot;
+		for (final int literal : model) {
+			if (literal != 0) {
+				final long[] bits = getLiteralBits(literal, set);
+				if (bits != null) {
+					if (set) {
+						bits[word] |= mask;
+					} else {
+						bits[word] &= ~mask;
+					}
+				}
+			}
+		}
+	}
+
+	private long[] getLiteralBits(int literal, boolean create) {
+		final int index = getLiteralIndex(literal);
+		if (index >= literalBits.length) {
+			if (!create) {
+				return null;
+			}
+			literalBits = Arrays.copyOf(literalBits, Math.max(index + 1, literalBits.length << 1));
+		}
+		long[] bits = literalBits[index];
+		if ((bits == null) && create) {
+			bits = new long[numberOfWords];
+			literalBits[index] = bits;
+		}
+		return bits;
+	}
+
+	/**
+	 * Searches for the most recently added solution containing all given literals.
+	 * The lookup is counted as hit or miss and marks the found solution as used.
+	 *
+	 * @param literals the literals to look for
+	 * @return the slot of a matching solution or {@code -1}, if there is none
+	 */
+	public int find(IVecInt literals) {
+		int slot = -1;
+		for (int word = 0; word < numberOfWords; word++) {
+			long candidates = occupied[word];
+			for (int i = 0; (candidates != 0) && (i < literals.size()); i++) {
+				candidates &= getWord(literals.get(i), word);
+			}
+			slot = getMostRecent(candidates, word, slot);
+		}
+		return count(slot);
+	}
+
+	/**
+	 * Searches for the most recently added solution containing all given literals.
+	 * The lookup is counted as hit or miss and marks the found solution as used.
+	 *
+	 * @param literals the literals to look for
+	 * @return the slot of a matching solution or {@code -1}, if there is none
+	 */
+	public int find(int... literals) {
+		return count(peek(literals));
+	}
+
+	/**
+	 * Searches for the most recently added solution containing all given literals.
+	 * In contrast to {@link #find(int...)}, the lookup changes neither the
+	 * statistics nor the eviction order, which allows to use the cache as a
+	 * filter without influencing the solver.
+	 *
+	 * @param literals the literals to look for
+	 * @return the slot of a matching solution or {@code -1}, if there is none
+	 */
+	public int peek(int... literals) {
+		int slot = -1;
+		for (int word = 0; word < numberOfWords; word++) {
+			long candidates = occupied[word];
+			for (int i = 0; (candidates != 0) && (i < literals.length); i++) {
+				candidates &= getWord(literals[i], word);
+			}
+			slot = getMostRecent(candidates, word, slot);
+		}
+		return slot;
+	}
+
+	/**
+	 * @param literals the literals to look for
+	 * @return {@code true} if a cached solution contains all given literals
+	 *
+	 * @see #find(int...)
+	 */
+	public boolean contains(int... literals) {
+		return find(literals) >= 0;
+	}
+
+	/**
+	 * Side-effect free variant of {@link #contains(int...)}.
+	 *
+	 * @param literals the literals to look for
+	 * @return {@code true} if a cached solution contains all given literals
+	 *
+	 * @see #peek(int...)
+	 */
+	public boolean peekContains(int... literals) {
+		return peek(literals) >= 0;
+	}
+
+	/**
+	 * Computes the literals that all cached solutions containing the given literal
+	 * have in common. The lookup has no side effects.
+	 *
+	 * @param literal the literal to look for
+	 * @return a new model in {@link Order#INDEX index order}, in which all
+	 *         differing literals are set to {@code 0}, or {@code null}, if no
+	 *         cached solution contains the literal
+	 */
+	public int[] getCommonModel(int literal) {
+		int[] model = null;
+		for (int word = 0; word < numberOfWords; word++) {
+			long candidates = occupied[word] & getWord(literal, word);
+			while (candidates != 0) {
+				final int[] solution = solutions[(word << 6) + Long.numberOfTrailingZeros(candidates)].getLiterals();
+				if (model == null) {
+					model = Arrays.copyOf(solution, solution.length);
+				} else {
+					LiteralList.resetConflicts(model, solution);
+				}
+				candidates &= candidates - 1;
+			}
+		}
+		return model;
+	}
+
+	/**
+	 * @return the most recently added slot among the candidates of the given word
+	 *         and the given best slot so far
+	 */
+	private int getMostRecent(long candidates, int word, int bestSlot) {
+		while (candidates != 0) {
+			final int slot = (word << 6) + Long.numberOfTrailingZeros(candidates);
+			if ((bestSlot < 0) || (added[slot] > added[bestSlot])) {
+				bestSlot = slot;
+			}
+			candidates &= candidates - 1;
+		}
+		return bestSlot;
+	}
+
+	private int count(int slot) {
+		if (slot < 0) {
+			misses++;
+			return -1;
+		}
+		hits++;
+		hitCount[slot]++;
+		lastUsed[slot] = ++clock;
+		return slot;
+	}
+
+	/**
+	 * Checks whether each cached solution either contains both or none of the
+	 * given literals.
+	 *
+	 * @param literal1 the first literal
+	 * @param literal2 the second literal
+	 * @return {@code true} if both literals occur in exactly the same solutions.
+	 *         The lookup has no side effects.
+	 */
+	public boolean haveSameOccurrence(int literal1, int literal2) {
+		for (int word = 0; word < numberOfWords; word++) {
+			if (((getWord(literal1, word) ^ getWord(literal2, word)) & occupied[word]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long getWord(int literal, int word) {
+		final int index = getLiteralIndex(literal);
+		if (index < literalBits.length) {
+			final long[] bits = literalBits[index];
+			return bits != null ? bits[word] : 0;
+		}
+		return 0;
+	}
+
+	/**
+	 * @param slot a slot returned by {@link #find(int...)}
+	 * @return the internal model of the solution in this slot. Must not be
+	 *         modified.
+	 */
+	public int[] getModel(int slot) {
+		return solutions[slot].getLiterals();
+	}
+
+	/**
+	 * @return a live, unmodifiable view of all cached solutions.
+	 */
+	public List<LiteralList> getSolutions() {
+		return solutionView;
+	}
+
+	public void clear() {
+		for (final long[] bits : literalBits) {
+			if (bits != null) {
+				Arrays.fill(bits, 0);
+			}
+		}
+		Arrays.fill(occupied, 0);
+		Arrays.fill(solutions, null);
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public EvictionStrategy getEvictionStrategy() {
+		return evictionStrategy;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+	}
+
+}
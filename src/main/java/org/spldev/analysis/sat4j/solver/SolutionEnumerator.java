@@ -0,0 +1,177 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.util.*;
+
+import org.spldev.analysis.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.clauses.LiteralList.*;
+
+/**
+ * Enumerates all solutions of a {@link Sat4JSolver solver} without adding
+ * blocking clauses.<br>
+ * The enumerator performs a depth-first search with chronological backtracking
+ * over the variables of the projection in a fixed order. The decisions are
+ * kept as assumptions of the solver. After each solution, the last decision
+ * that was not flipped yet is flipped and the solver checks whether the
+ * resulting subtree contains another solution, whose values are used as the
+ * next decisions. Thus, every solution (projected onto the given variables) is
+ * returned exactly once and the memory used by the enumerator is independent
+ * of the number of solutions. The assumptions of the solver at creation time
+ * restrict the enumeration and must not be changed during enumeration.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolutionEnumerator {
+
+	private final Sat4JSolver solver;
+	private final int[] projection;
+	private final boolean fullProjection;
+	private final boolean[] flipped;
+	private final int baseSize;
+
+	private int depth = 0;
+	private boolean started = false;
+	private boolean finished = false;
+
+	/**
+	 * Creates an enumerator for all variables of the solver.
+	 *
+	 * @param solver the solver
+	 */
+	public SolutionEnumerator(Sat4JSolver solver) {
+		this(solver, null);
+	}
+
+	/**
+	 * Creates an enumerator that returns each assignment of the given variables
+	 * that can be extended to a solution exactly once.
+	 *
+	 * @param solver     the solver
+	 * @param projection the variables to project the solutions onto or
+	 *                   {@code null} for all variables
+	 */
+	public SolutionEnumerator(Sat4JSolver solver, int[] projection) {
+		this.solver = solver;
+		final int numberOfVariables = solver.getVariables().getMaxIndex();
+		if (projection == null) {
+			this.projection = new int[numberOfVariables];
+			for (int i = 0; i < numberOfVariables; i++) {
+				this.projection[i] = i + 1;
+			}
+			fullProjection = true;
+		} else {
+			this.projection = Arrays.stream(projection).map(Math::abs).distinct().sorted().toArray();
+			fullProjection = this.projection.length == numberOfVariables;
+		}
+		flipped = new boolean[this.projection.length];
+		baseSize = solver.getAssumptions().size();
+	}
+
+	/**
+	 * @return the next solution or {@code null}, if there are no more solutions
+	 * @throws RuntimeTimeoutException if a call to the solver timed out. The
+	 *                                 enumeration cannot be continued afterwards.
+	 */
+	public LiteralList next() {
+		if (finished) {
+			return null;
+		}
+		if (!started) {
+			started = true;
+			if (solve()) {
+				return extend();
+			}
+			finish();
+			return null;
+		}
+		final Sat4JAssumptions assumptions = solver.getAssumptions();
+		while (depth > 0) {
+			final int top = depth - 1;
+			if (flipped[top]) {
+				assumptions.pop();
+				depth--;
+			} else {
+				assumptions.replaceLast(-assumptions.peek());
+				flipped[top] = true;
+				if (solve()) {
+					return extend();
+				}
+			}
+		}
+		finish();
+		return null;
+	}
+
+	/**
+	 * Stops the enumeration and removes all decisions from the assumptions of the
+	 * solver.
+	 */
+	public void finish() {
+		finished = true;
+		solver.getAssumptions().clear(baseSize);
+		depth = 0;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	public int[] getProjection() {
+		return projection;
+	}
+
+	private boolean solve() {
+		switch (solver.hasSolution()) {
+		case TRUE:
+			return true;
+		case FALSE:
+			return false;
+		case TIMEOUT:
+			finish();
+			throw new RuntimeTimeoutException();
+		default:
+			throw new AssertionError();
+		}
+	}
+
+	/**
+	 * Uses the values of the last solution as decisions for all remaining
+	 * variables and returns the solution.
+	 */
+	private LiteralList extend() {
+		final int[] model = solver.getInternalSolution();
+		final Sat4JAssumptions assumptions = solver.getAssumptions();
+		for (; depth < projection.length; depth++) {
+			assumptions.push(model[projection[depth] - 1]);
+			flipped[depth] = false;
+		}
+		if (fullProjection) {
+			return new LiteralList(Arrays.copyOf(model, projection.length), Order.INDEX, false);
+		} else {
+			return new LiteralList(assumptions.asArray(baseSize, baseSize + projection.length));
+		}
+	}
+
+}
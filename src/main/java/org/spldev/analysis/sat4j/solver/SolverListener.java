@@ -0,0 +1,45 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import org.spldev.analysis.solver.SatSolver.*;
+
+/**
+ * Listener that is notified after each call to {@code hasSolution} of an
+ * {@link AbstractSat4JSolver}.
+ *
+ * @author Sebastian Krieter
+ */
+@FunctionalInterface
+public interface SolverListener {
+
+	/**
+	 * Called after a call to {@code hasSolution} has finished.
+	 *
+	 * @param result      the result of the call
+	 * @param time        the wall time of the call in nanoseconds
+	 * @param fromHistory whether the call was answered by the solution history
+	 */
+	void solved(SatResult result, long time, boolean fromHistory);
+
+}
@@ -0,0 +1,183 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.sat4j.specs.*;
+import org.sat4j.specs.TimeoutException;
+import org.spldev.clauses.*;
+
+/**
+ * Races a {@link Sat4JSolver} against a number of helper solvers on the same
+ * query. The helpers contain the same clauses as the CNF of the main solver,
+ * but use different phase selection strategies and shuffled variable orders.
+ * The first solver that answers wins, all others are stopped.
+ *
+ * @author Sebastian Krieter
+ */
+class SolverPortfolio {
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+		final Thread thread = new Thread(runnable, "Sat4J portfolio");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Sat4JSolver mainSolver;
+	private final Sat4JSolver[] helpers;
+
+	private Sat4JSolver winner;
+
+	SolverPortfolio(Sat4JSolver mainSolver, int numberOfHelpers, long seed) {
+		this.mainSolver = mainSolver;
+		final CNF cnf = mainSolver.getCnf();
+
+		helpers = new Sat4JSolver[numberOfHelpers];
+		final Random random = new Random(seed);
+		for (int i = 0; i < numberOfHelpers; i++) {
+			final Sat4JSolver helper = new Sat4JSolver(cnf, mainSolver.getProfile());
+			helper.shuffleOrder(new Random(random.nextLong()));
+			switch (i % 3) {
+			case 0:
+				helper.setSelectionStrategy(SStrategy.negative());
+				break;
+			case 1:
+				helper.setSelectionStrategy(SStrategy.positive());
+				break;
+			default:
+				helper.setSelectionStrategy(SStrategy.random(new Random(random.nextLong())));
+				break;
+			}
+			helpers[i] = helper;
+		}
+		winner = mainSolver;
+	}
+
+	int size() {
+		return helpers.length;
+	}
+
+	/**
+	 * Races all solvers on the given assumptions.
+	 *
+	 * @param assumptions the assumptions
+	 * @param timeout     the timeout for each solver in milliseconds
+	 * @return whether the formula is satisfiable under the assumptions
+	 * @throws TimeoutException if no solver answered within the timeout
+	 */
+	boolean race(IVecInt assumptions, int timeout) throws TimeoutException {
+		final AtomicReference<Sat4JSolver> firstSolver = new AtomicReference<>();
+		final boolean[] results = new boolean[1];
+		final List<Future<?>> futures = new ArrayList<>(helpers.length);
+		for (final Sat4JSolver helper : helpers) {
+			helper.solver.setTimeoutMs(timeout);
+			futures.add(executor.submit(() -> run(helper, assumptions, firstSolver, results)));
+		}
+
+		final int originalTimeout = mainSolver.getTimeout();
+		mainSolver.solver.setTimeoutMs(timeout);
+		try {
+			run(mainSolver, assumptions, firstSolver, results);
+		} finally {
+			mainSolver.solver.setTimeoutMs(originalTimeout);
+			// the helpers must not outlive the call, as the assumptions may change
+			for (int i = 0; i < futures.size(); i++) {
+				awaitHelper(futures.get(i), helpers[i], firstSolver);
+			}
+		}
+
+		final Sat4JSolver first = firstSolver.get();
+		if (first == null) {
+			winner = mainSolver;
+			throw new TimeoutException();
+		}
+		winner = first;
+		return results[0];
+	}
+
+	private void run(Sat4JSolver solver, IVecInt assumptions, AtomicReference<Sat4JSolver> firstSolver,
+		boolean[] results) {
+		if (firstSolver.get() != null) {
+			return;
+		}
+		try {
+			final boolean satisfiable = solver.solver.isSatisfiable(assumptions, false);
+			if (firstSolver.compareAndSet(null, solver)) {
+				results[0] = satisfiable;
+				stopAllExcept(solver);
+			}
+		} catch (final TimeoutException e) {
+		}
+	}
+
+	private void stopAllExcept(Sat4JSolver solver) {
+		if (mainSolver != solver) {
+			mainSolver.solver.expireTimeout();
+		}
+		for (final Sat4JSolver helper : helpers) {
+			if (helper != solver) {
+				helper.solver.expireTimeout();
+			}
+		}
+	}
+
+	private static void awaitHelper(Future<?> future, Sat4JSolver helper,
+		AtomicReference<Sat4JSolver> firstSolver) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				future.get(10, TimeUnit.MILLISECONDS);
+				break;
+			} catch (final java.util.concurrent.TimeoutException e) {
+				if (interrupted || (firstSolver.get() != null)) {
+					// a helper that started after the winner was determined missed the expiration
+					helper.solver.expireTimeout();
+				}
+			} catch (final InterruptedException e) {
+				interrupted = true;
+				helper.solver.expireTimeout();
+			} catch (final ExecutionException e) {
+				break;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the solver that answered the last call to
+	 *         {@link #race(IVecInt, int)}
+	 */
+	Sat4JSolver getWinner() {
+		return winner;
+	}
+
+	void resetWinner() {
+		winner = mainSolver;
+	}
+
+}
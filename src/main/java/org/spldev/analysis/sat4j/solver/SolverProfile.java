@@ -0,0 +1,85 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import org.sat4j.minisat.core.*;
+import org.sat4j.minisat.restarts.*;
+
+/**
+ * Named configurations of the Sat4J backend of a {@link Sat4JSolver}. A profile
+ * is applied once, directly after the solver has been created.
+ *
+ * @author Sebastian Krieter
+ */
+public enum SolverProfile {
+
+	/**
+	 * The MiniSAT-style default configuration of Sat4J.
+	 */
+	DEFAULT {
+		@Override
+		void configure(Solver<?> solver) {
+		}
+	},
+	/**
+	 * Glucose-style restarts and deletion of learned clauses based on their
+	 * literal block distance.
+	 */
+	GLUCOSE {
+		@Override
+		void configure(Solver<?> solver) {
+			solver.setRestartStrategy(new Glucose21Restarts());
+			solver.setLearnedConstraintsDeletionStrategy(solver.glucose);
+		}
+	},
+	/**
+	 * Minimal overhead per call for tiny models. Learned clauses are not
+	 * minimized, the clause database is not simplified, and the solver is not kept
+	 * hot between calls.
+	 */
+	LIGHT {
+		@Override
+		void configure(Solver<?> solver) {
+			solver.setSimplifier(solver.NO_SIMPLIFICATION);
+			solver.setDBSimplificationAllowed(false);
+			solver.setKeepSolverHot(false);
+		}
+	},
+	/**
+	 * Tuned for a huge number of short incremental calls. Learned clauses are
+	 * minimized, as they are reused over many calls, and restarts follow the Luby
+	 * sequence.
+	 */
+	INCREMENTAL {
+		@Override
+		void configure(Solver<?> solver) {
+			solver.setSimplifier(solver.EXPENSIVE_SIMPLIFICATION);
+			solver.setRestartStrategy(new LubyRestarts());
+			solver.setDBSimplificationAllowed(true);
+			solver.setKeepSolverHot(true);
+		}
+	};
+
+	abstract void configure(Solver<?> solver);
+
+}
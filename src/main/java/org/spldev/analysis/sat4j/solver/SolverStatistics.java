@@ -0,0 +1,200 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.util.*;
+
+import org.spldev.analysis.solver.SatSolver.*;
+
+/**
+ * Snapshot of the statistics recorded by an {@link AbstractSat4JSolver}. The
+ * statistics cover all calls to {@code hasSolution} since the solver was
+ * created or since the last call to
+ * {@link AbstractSat4JSolver#resetStatistics()}.<br>
+ * Wall times are recorded in a logarithmic histogram with a relative error of
+ * at most 1/16, which allows to compute percentiles with constant memory. The
+ * difference of two snapshots (see {@link #subtract(SolverStatistics)}) gives
+ * the statistics of the calls in between.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolverStatistics {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	static final int NUMBER_OF_BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final long satCalls;
+	private final long unsatCalls;
+	private final long timeoutCalls;
+	private final long historyHits;
+	private final long totalTime;
+	private final long decisions;
+	private final long conflicts;
+	private final long propagations;
+	private final long[] timeHistogram;
+
+	SolverStatistics(long satCalls, long unsatCalls, long timeoutCalls, long historyHits, long totalTime,
+		long decisions, long conflicts, long propagations, long[] timeHistogram) {
+		this.satCalls = satCalls;
+		this.unsatCalls = unsatCalls;
+		this.timeoutCalls = timeoutCalls;
+		this.historyHits = historyHits;
+		this.totalTime = totalTime;
+		this.decisions = decisions;
+		this.conflicts = conflicts;
+		this.propagations = propagations;
+		this.timeHistogram = timeHistogram;
+	}
+
+	static int getBucket(long time) {
+		if (time < SUB_BUCKETS) {
+			return time < 0 ? 0 : (int) time;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(time);
+		final int subBucket = (int) (time >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	static long getBucketValue(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		final int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+		final long subBucket = bucket & (SUB_BUCKETS - 1);
+		return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Returns the statistics of all calls that were recorded after the given
+	 * snapshot was taken. Both snapshots must originate from the same solver.
+	 *
+	 * @param before an earlier snapshot
+	 * @return the difference between this and the given snapshot
+	 */
+	public SolverStatistics subtract(SolverStatistics before) {
+		final long[] histogram = new long[timeHistogram.length];
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = timeHistogram[i] - before.timeHistogram[i];
+		}
+		return new SolverStatistics( //
+			satCalls - before.satCalls, //
+			unsatCalls - before.unsatCalls, //
+			timeoutCalls - before.timeoutCalls, //
+			historyHits - before.historyHits, //
+			totalTime - before.totalTime, //
+			decisions - before.decisions, //
+			conflicts - before.conflicts, //
+			propagations - before.propagations, //
+			histogram);
+	}
+
+	public long getCalls() {
+		return satCalls + unsatCalls + timeoutCalls;
+	}
+
+	public long getCalls(SatResult result) {
+		switch (result) {
+		case FALSE:
+			return unsatCalls;
+		case TIMEOUT:
+			return timeoutCalls;
+		case TRUE:
+			return satCalls;
+		default:
+			throw new AssertionError(result);
+		}
+	}
+
+	/**
+	 * @return the number of calls that were answered by the solution history
+	 *         without calling Sat4J
+	 */
+	public long getHistoryHits() {
+		return historyHits;
+	}
+
+	/**
+	 * @return the accumulated wall time of all calls in nanoseconds
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * @return the median wall time of a call in nanoseconds
+	 */
+	public long getMedianTime() {
+		return getTimePercentile(0.5);
+	}
+
+	/**
+	 * @return the 99th percentile of the wall time of a call in nanoseconds
+	 */
+	public long getP99Time() {
+		return getTimePercentile(0.99);
+	}
+
+	/**
+	 * Returns an approximation of the given percentile of the wall time per call.
+	 *
+	 * @param percentile a value between 0 and 1
+	 * @return the wall time in nanoseconds
+	 */
+	public long getTimePercentile(double percentile) {
+		final long calls = getCalls();
+		if (calls == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(percentile * calls));
+		long count = 0;
+		for (int i = 0; i < timeHistogram.length; i++) {
+			count += timeHistogram[i];
+			if (count >= rank) {
+				return getBucketValue(i);
+			}
+		}
+		return getBucketValue(timeHistogram.length - 1);
+	}
+
+	public long getDecisions() {
+		return decisions;
+	}
+
+	public long getConflicts() {
+		return conflicts;
+	}
+
+	public long getPropagations() {
+		return propagations;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ENGLISH,
+			"calls=%d (sat=%d, unsat=%d, timeout=%d), historyHits=%d, time=%.3fms (p50=%.3fms, p99=%.3fms), decisions=%d, conflicts=%d, propagations=%d",
+			getCalls(), satCalls, unsatCalls, timeoutCalls, historyHits, totalTime / 1_000_000.0,
+			getMedianTime() / 1_000_000.0, getP99Time() / 1_000_000.0, decisions, conflicts, propagations);
+	}
+
+}
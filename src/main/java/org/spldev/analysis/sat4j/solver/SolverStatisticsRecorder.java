@@ -0,0 +1,126 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.analysis.sat4j.solver;
+
+import java.util.*;
+
+import org.spldev.analysis.solver.SatSolver.*;
+
+/**
+ * Records the statistics of an {@link AbstractSat4JSolver}.
+ *
+ * @author Sebastian Krieter
+ */
+class SolverStatisticsRecorder {
+
+	private long satCalls;
+	private long unsatCalls;
+	private long timeoutCalls;
+	private long historyHits;
+	private long totalTime;
+	private long decisions;
+	private long conflicts;
+	private long propagations;
+	private final long[] timeHistogram = new long[SolverStatistics.NUMBER_OF_BUCKETS];
+
+	private long lastDecisions;
+	private long lastConflicts;
+	private long lastPropagations;
+
+	void recordCall(SatResult result, long time, boolean fromHistory) {
+		switch (result) {
+		case FALSE:
+			unsatCalls++;
+			break;
+		case TIMEOUT:
+			timeoutCalls++;
+			break;
+		case TRUE:
+			satCalls++;
+			break;
+		default:
+			throw new AssertionError(result);
+		}
+		if (fromHistory) {
+			historyHits++;
+		}
+		totalTime += time;
+		timeHistogram[SolverStatistics.getBucket(time)]++;
+	}
+
+	/**
+	 * Adds the counters reported by Sat4J after a call. Sat4J reports cumulative
+	 * counters, which may be reset by the solver, so only the increase since the
+	 * last call is added.
+	 *
+	 * @param stat the statistics map of Sat4J
+	 */
+	void recordSolverCounters(Map<String, Number> stat) {
+		recordSolverCounters(getCounter(stat, "decisions"), getCounter(stat, "conflicts"),
+			getCounter(stat, "propagations"));
+	}
+
+	/**
+	 * Adds the cumulative counters of Sat4J after a call.
+	 *
+	 * @param currentDecisions    the number of decisions
+	 * @param currentConflicts    the number of conflicts
+	 * @param currentPropagations the number of propagations
+	 * @see #recordSolverCounters(Map)
+	 */
+	void recordSolverCounters(long currentDecisions, long currentConflicts, long currentPropagations) {
+		decisions += getIncrease(lastDecisions, currentDecisions);
+		conflicts += getIncrease(lastConflicts, currentConflicts);
+		propagations += getIncrease(lastPropagations, currentPropagations);
+		lastDecisions = currentDecisions;
+		lastConflicts = currentConflicts;
+		lastPropagations = currentPropagations;
+	}
+
+	private static long getCounter(Map<String, Number> stat, String key) {
+		final Number value = stat.get(key);
+		return value != null ? value.longValue() : 0;
+	}
+
+	private static long getIncrease(long last, long current) {
+		return current >= last ? current - last : current;
+	}
+
+	SolverStatistics snapshot() {
+		return new SolverStatistics(satCalls, unsatCalls, timeoutCalls, historyHits, totalTime, decisions,
+			conflicts, propagations, Arrays.copyOf(timeHistogram, timeHistogram.length));
+	}
+
+	void reset() {
+		satCalls = 0;
+		unsatCalls = 0;
+		timeoutCalls = 0;
+		historyHits = 0;
+		totalTime = 0;
+		decisions = 0;
+		conflicts = 0;
+		propagations = 0;
+		Arrays.fill(timeHistogram, 0);
+	}
+
+}
@@ -22,13 +22,18 @@
  */
 package org.spldev.analysis.sat4j.solver.strategy;
 
+import static org.sat4j.core.LiteralsUtils.*;
+
 import org.sat4j.minisat.core.*;
 import org.sat4j.minisat.orders.*;
 import org.sat4j.specs.*;
 
 /**
  * Modified variable order for {@link ISolver}.<br>
- * Initializes the used heap in a certain order.
+ * Initializes the used heap in a certain order. Variables that are not
+ * contained in the order (e.g., selector variables) are appended to the heap
+ * and hidden from the phase selection strategy. They are always selected with
+ * negative phase.
  *
  * @author Sebastian Krieter
  */
@@ -48,18 +53,48 @@ public class FixedOrderHeap extends VarOrderHeap {
 		if ((activity == null) || (activity.length < nlength)) {
 			activity = new double[nlength];
 		}
-		phaseStrategy.init(nlength);
+		phaseStrategy.init(Math.min(nlength, order.length + 1));
 		activity[0] = -1;
 		heap = new Heap(activity);
 		heap.setBounds(nlength);
 		nlength--;
-		for (int i = 0; i < nlength; i++) {
+		final int orderLength = Math.min(nlength, order.length);
+		for (int i = 0; i < orderLength; i++) {
 			final int x = order[i];
 			activity[x] = 0.0;
 			if (lits.belongsToPool(x)) {
 				heap.insert(x);
 			}
 		}
+		for (int x = orderLength + 1; x <= nlength; x++) {
+			activity[x] = 0.0;
+			if (lits.belongsToPool(x)) {
+				heap.insert(x);
+			}
+		}
+	}
+
+	@Override
+	public int select() {
+		while (!heap.empty()) {
+			final int var = heap.getmin();
+			final int next = isOrdered(var) ? phaseStrategy.select(var) : negLit(var);
+			if (lits.isUnassigned(next)) {
+				return next;
+			}
+		}
+		return ILits.UNDEFINED;
+	}
+
+	@Override
+	public void assignLiteral(int p) {
+		if (isOrdered(var(p))) {
+			super.assignLiteral(p);
+		}
+	}
+
+	protected boolean isOrdered(int var) {
+		return var <= order.length;
 	}
 
 	public int[] getOrder() {
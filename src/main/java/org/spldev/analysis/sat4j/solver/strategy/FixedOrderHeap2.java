@@ -44,7 +44,9 @@ public class FixedOrderHeap2 extends FixedOrderHeap {
 	@Override
 	public void undo(int x) {
 		super.undo(x);
-		selectionStrategy.undo(x);
+		if (isOrdered(x)) {
+			selectionStrategy.undo(x);
+		}
 	}
 
 }
@@ -50,7 +50,7 @@ public class TWiseConfiguration extends LiteralList {
 
 	protected final int numberOfVariableLiterals;
 	protected final TWiseConfigurationUtil util;
-	protected Traverser traverser;
+	protected ITraverser traverser;
 	protected Visitor<?> visitor;
 
 	protected VecInt solverSolutionIndex = new VecInt();
@@ -151,7 +151,7 @@ public class TWiseConfiguration extends LiteralList {
 			solutionLiterals = new VecInt(numberOfVariableLiterals);
 			countLiterals = 0;
 			if (util.hasMig()) {
-				traverser = new Traverser(util.getMig());
+				traverser = util.getCompactMig().traverse();
 				traverser.setModel(literals);
 				visitor = new DefaultVisitor() {
 					@Override
@@ -187,7 +187,7 @@ public class TWiseConfiguration extends LiteralList {
 				other.solutionLiterals.copyTo(solutionLiterals);
 			}
 			if (util.hasMig()) {
-				traverser = new Traverser(util.getMig());
+				traverser = util.getCompactMig().traverse();
 				traverser.setModel(literals);
 
 				visitor = new DefaultVisitor() {
@@ -72,8 +72,7 @@ public class TWiseConfigurationUtil {
 	protected final Sat4JSolver localSolver;
 	protected final boolean hasSolver;
 
-	protected MIG mig;
-	protected LiteralList[] strongHull;
+	protected CompactMIG compactMig;
 	protected LiteralList coreDead;
 
 	protected int maxSampleSize = Integer.MAX_VALUE;
@@ -109,24 +108,13 @@ public class TWiseConfigurationUtil {
 		final MIGBuilder migBuilder = new RegularMIGBuilder();
 		migBuilder.setCheckRedundancy(migCheckRedundancy);
 		migBuilder.setDetectStrong(migDetectStrong);
-		mig = Executor.run(migBuilder, cnf).get();
-		setupMIG();
+		setMIG(Executor.run(migBuilder, cnf).get());
 	}
 
 	public void computeMIG(Path migPath) {
 		Logger.logDebug("Init graph... ");
 		Logger.logDebug("\tLoad graph from " + migPath);
-		mig = FileHandler.load(migPath, new MIGFormat()).get();
-		setupMIG();
-	}
-
-	private void setupMIG() {
-		strongHull = new LiteralList[mig.getVertices().size()];
-
-		for (final Vertex vertex : mig.getVertices()) {
-			strongHull[MIG.getVertexIndex(vertex)] = new LiteralList(
-				vertex.getStrongEdges().stream().mapToInt(Vertex::getVar).toArray());
-		}
+		compactMig = Executor.run((path, monitor) -> MIGBinaryFormat.readCompact(path, cnf), migPath).get();
 	}
 
 	public LiteralList getDeadCoreFeatures() {
@@ -146,9 +134,9 @@ public class TWiseConfigurationUtil {
 		} else {
 			final int[] coreDeadArray = new int[cnf.getVariableMap().size()];
 			int index = 0;
-			for (final Vertex vertex : mig.getVertices()) {
-				if (vertex.isCore()) {
-					coreDeadArray[index++] = vertex.getVar();
+			for (int i = 0; i < compactMig.getVertexCount(); i++) {
+				if (compactMig.isCore(i)) {
+					coreDeadArray[index++] = CompactMIG.getLiteral(i);
 				}
 			}
 			coreDead = new LiteralList(Arrays.copyOf(coreDeadArray, index));
@@ -208,8 +196,14 @@ public class TWiseConfigurationUtil {
 		return localSolver;
 	}
 
-	public MIG getMig() {
-		return mig;
+	/**
+	 * Returns the MIG in its {@link MIG#freeze() compact form}. This replaces the
+	 * former {@code getMig()}, as the mutable MIG is no longer kept.
+	 *
+	 * @return the compact MIG or {@code null}, if no MIG was set
+	 */
+	public CompactMIG getCompactMig() {
+		return compactMig;
 	}
 
 	public boolean hasSolver() {
@@ -217,7 +211,7 @@ public class TWiseConfigurationUtil {
 	}
 
 	public boolean hasMig() {
-		return mig != null;
+		return compactMig != null;
 	}
 
 	public Random getRandom() {
@@ -291,9 +285,17 @@ public class TWiseConfigurationUtil {
 
 	public boolean isCombinationInvalidMIG(LiteralList literals) {
 		if (hasMig()) {
-			for (final int literal : literals.getLiterals()) {
-				if (strongHull[MIG.getVertexIndex(literal)].hasConflicts(literals)) {
-					return true;
+			final int[] literalArray = literals.getLiterals();
+			for (final int literal : literalArray) {
+				final int vertexIndex = MIG.getVertexIndex(literal);
+				final int end = compactMig.getStrongEnd(vertexIndex);
+				for (int i = compactMig.getStrongBegin(vertexIndex); i < end; i++) {
+					final int impliedLiteral = compactMig.getStrongTarget(i);
+					for (final int otherLiteral : literalArray) {
+						if (otherLiteral == -impliedLiteral) {
+							return true;
+						}
+					}
 				}
 			}
 		}
@@ -659,9 +661,18 @@ public class TWiseConfigurationUtil {
 		this.extendConfigurationDeduce = extendConfigurationDeduce;
 	}
 
+	/**
+	 * Sets the MIG in its {@link MIG#freeze() compact form}. No reference to the
+	 * given MIG is kept.
+	 *
+	 * @param mig the MIG
+	 */
 	public void setMIG(MIG mig) {
-		this.mig = mig;
-		setupMIG();
+		compactMig = mig.freeze();
+	}
+
+	public void setMIG(CompactMIG compactMig) {
+		this.compactMig = compactMig;
 	}
 
 	public void setInvalidClausesList(InvalidClausesList invalidClausesList) {
@@ -44,6 +44,7 @@ public class CNFSlicer implements MonitorableFunction<CNF, CNF> {
 	protected static final Comparator<LiteralList> lengthComparator = new ClauseLengthComparatorDsc();
 
 	protected CNF orgCNF;
+	protected ClauseStore orgClauses;
 	protected CNF cnfCopy;
 
 	protected final List<DirtyClause> newDirtyClauseList = new ArrayList<>();
@@ -82,6 +83,29 @@ public class CNFSlicer implements MonitorableFunction<CNF, CNF> {
 	@Override
 	public CNF execute(CNF orgCNF, InternalMonitor monitor) throws TimeoutException {
 		this.orgCNF = orgCNF;
+		orgClauses = null;
+		return slice(monitor);
+	}
+
+	/**
+	 * Slices the clauses of the given store. In contrast to
+	 * {@link #execute(CNF, InternalMonitor)}, the original clauses are read from
+	 * the store and only the sliced clauses are created as objects.
+	 *
+	 * @param variableMap the variables of the clauses
+	 * @param clauses     the clauses
+	 * @param monitor     the monitor
+	 * @return the sliced CNF
+	 * @throws TimeoutException if the solver times out
+	 */
+	public CNF execute(VariableMap variableMap, ClauseStore clauses, InternalMonitor monitor)
+		throws TimeoutException {
+		orgCNF = new CNF(variableMap);
+		orgClauses = clauses;
+		return slice(monitor);
+	}
+
+	private CNF slice(InternalMonitor monitor) throws TimeoutException {
 		cnfCopy = new CNF(orgCNF.getVariableMap());
 
 		map = new DirtyFeature[orgCNF.getVariableMap().size() + 1];
@@ -96,7 +120,8 @@ public class CNFSlicer implements MonitorableFunction<CNF, CNF> {
 		createClauseLists();
 
 		if (!prepareHeuristics()) {
-			return new CNF(orgCNF.getVariableMap(), orgCNF.getClauses());
+			final List<LiteralList> clauses = orgClauses != null ? orgClauses.toList() : orgCNF.getClauses();
+			return new CNF(orgCNF.getVariableMap(), clauses);
 		}
 
 		monitor.setTotalWork(heuristic.size());
@@ -170,8 +195,14 @@ public class CNFSlicer implements MonitorableFunction<CNF, CNF> {
 	}
 
 	private void createClauseLists() {
-		for (final LiteralList clause : orgCNF.getClauses()) {
-			addNewClause(new DirtyClause(clause.getLiterals()));
+		if (orgClauses != null) {
+			for (int i = 0; i < orgClauses.size(); i++) {
+				addNewClause(new DirtyClause(orgClauses.getLiterals(i)));
+			}
+		} else {
+			for (final LiteralList clause : orgCNF.getClauses()) {
+				addNewClause(new DirtyClause(clause.getLiterals()));
+			}
 		}
 
 		cleanClauseList.ensureCapacity(cleanClauseList.size() + newCleanClauseList.size());
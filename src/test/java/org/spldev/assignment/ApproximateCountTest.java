@@ -0,0 +1,88 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.formula.structure.atomic.literal.*;
+import org.spldev.util.job.*;
+
+/**
+ * Tests the {@link ApproximateCountSolutionsAnalysis}.
+ *
+ * @author Sebastian Krieter
+ */
+public class ApproximateCountTest {
+
+	@Test
+	public void testSmallCountIsExact() {
+		// 3 * 3 = 9 solutions, which is below the threshold
+		final CNF cnf = createImplicationChains(2);
+		assertEquals(BigInteger.valueOf(9), Executor.run(new ApproximateCountSolutionsAnalysis()::execute, cnf)
+			.get());
+	}
+
+	@Test
+	public void testEstimate() {
+		final int numberOfImplications = 12;
+		final CNF cnf = createImplicationChains(numberOfImplications);
+		final BigInteger exact = BigInteger.valueOf(3).pow(numberOfImplications);
+
+		final ApproximateCountSolutionsAnalysis analysis = new ApproximateCountSolutionsAnalysis();
+		analysis.setParallelism(2);
+		analysis.setTimeout(10_000);
+		final BigInteger estimate = Executor.run(analysis::execute, cnf).get();
+		assertNotNull(estimate);
+		final double ratio = estimate.doubleValue() / exact.doubleValue();
+		assertTrue((ratio > 0.25) && (ratio < 4), estimate + " / " + exact);
+	}
+
+	@Test
+	public void testPushedClausesAreCounted() throws Exception {
+		final CNF cnf = createImplicationChains(2);
+		final Sat4JSolver solver = new Sat4JSolver(cnf.getVariableMap(), ClauseStore.of(cnf.getClauses()));
+		// excludes a1 & !b2 and thus 2 of the 9 solutions
+		solver.getFormula().push(new LiteralList(new int[] { -1, 4 }));
+		assertEquals(BigInteger.valueOf(7), new ApproximateCountSolutionsAnalysis().analyze(solver,
+			new NullMonitor()));
+	}
+
+	private static CNF createImplicationChains(int numberOfImplications) {
+		final List<String> names = new ArrayList<>();
+		final List<LiteralList> clauses = new ArrayList<>();
+		for (int i = 1; i <= numberOfImplications; i++) {
+			names.add("a" + i);
+			names.add("b" + i);
+			clauses.add(new LiteralList(new int[] { -((2 * i) - 1), 2 * i }));
+		}
+		return new CNF(VariableMap.fromNames(names), clauses);
+	}
+
+}
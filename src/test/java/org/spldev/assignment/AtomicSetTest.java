@@ -0,0 +1,60 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Compares {@link AtomicSetAnalysis} with its pairwise variant.
+ *
+ * @author Sebastian Krieter
+ */
+public class AtomicSetTest {
+
+	@Test
+	public void testEqualsPairwise() throws Exception {
+		for (final Path path : Arrays.asList(CNFCreator.FINANCIAL_2007, CNFCreator.FINANCIAL_2010)) {
+			final CNF cnf = CNFCreator.loadDimacs(path);
+			final List<LiteralList> expected = new AtomicSetAnalysis().analyzePairwise(new Sat4JSolver(cnf), null);
+			for (final int parallelism : new int[] { 1, 4 }) {
+				final AtomicSetAnalysis analysis = new AtomicSetAnalysis();
+				analysis.setParallelism(parallelism);
+				final List<LiteralList> actual = Executor.run(analysis::execute, cnf).get();
+				assertEquals(expected.size(), actual.size(), path.toString());
+				for (int i = 0; i < expected.size(); i++) {
+					assertArrayEquals(expected.get(i).getLiterals(), actual.get(i).getLiterals(), path.toString());
+				}
+			}
+		}
+	}
+
+}
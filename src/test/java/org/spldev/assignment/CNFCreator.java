@@ -0,0 +1,80 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.spldev.clauses.*;
+import org.spldev.formula.structure.atomic.literal.*;
+
+/**
+ * Loads the DIMACS test models into {@link CNF CNFs}.
+ *
+ * @author Sebastian Krieter
+ */
+public class CNFCreator {
+
+	public static final Path BUSYBOX_2007 = Paths.get(
+		"src/test/resources/models_stability_light/busybox_monthlySnapshot/2007-05-20_17-12-43/clean.dimacs");
+	public static final Path BUSYBOX_2010 = Paths.get(
+		"src/test/resources/models_stability_light/busybox_monthlySnapshot/2010-05-02_14-17-07/clean.dimacs");
+	public static final Path FINANCIAL_2007 = Paths.get(
+		"src/test/resources/models_stability_light/financialServices01/2007-05-20_17-12-43/clean.dimacs");
+	public static final Path FINANCIAL_2010 = Paths.get(
+		"src/test/resources/models_stability_light/financialServices01/2010-05-02_14-17-07/clean.dimacs");
+
+	public static List<Path> getDimacsModels() {
+		return Arrays.asList(BUSYBOX_2007, BUSYBOX_2010, FINANCIAL_2007, FINANCIAL_2010);
+	}
+
+	public static CNF loadDimacs(Path path) {
+		final List<String> names = new ArrayList<>();
+		final List<LiteralList> clauses = new ArrayList<>();
+		try {
+			for (final String line : Files.readAllLines(path)) {
+				final String trimmedLine = line.trim();
+				if (trimmedLine.isEmpty() || trimmedLine.startsWith("p")) {
+					continue;
+				}
+				final String[] tokens = trimmedLine.split("\\s+");
+				if (trimmedLine.startsWith("c")) {
+					if (tokens.length >= 3) {
+						names.add(tokens[2]);
+					}
+				} else {
+					final int[] literals = new int[tokens.length - 1];
+					for (int i = 0; i < literals.length; i++) {
+						literals[i] = Integer.parseInt(tokens[i]);
+					}
+					clauses.add(new LiteralList(literals));
+				}
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new CNF(VariableMap.fromNames(names), clauses);
+	}
+
+}
@@ -0,0 +1,103 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.CauseAnalysis.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Compares {@link CauseAnalysis} with its variant that runs a complete analysis
+ * after every relevant clause group.
+ *
+ * @author Sebastian Krieter
+ */
+public class CauseTest {
+
+	@Test
+	public void testEqualsSequential() throws Exception {
+		final Path path = CNFCreator.FINANCIAL_2010;
+		final CNF cnf = CNFCreator.loadDimacs(path);
+		final List<LiteralList> clauses = cnf.getClauses();
+		final int half = clauses.size() / 2;
+		final CNF baseCNF = new CNF(cnf.getVariableMap(), new ArrayList<>(clauses.subList(0, half)));
+		final List<LiteralList> clauseList = new ArrayList<>(clauses.subList(half, clauses.size()));
+
+		final boolean[] relevantConstraint = new boolean[clauseList.size()];
+		for (int i = 0; i < relevantConstraint.length; i += 25) {
+			relevantConstraint[i] = true;
+		}
+		final Anomalies anomalies = new Anomalies();
+		anomalies.setDeadVariables(Executor.run(new CoreDeadAnalysis()::execute, cnf).get());
+		final List<LiteralList> redundantClauses = new ArrayList<>();
+		for (int i = 0; i < clauseList.size(); i += 40) {
+			redundantClauses.add(clauseList.get(i));
+		}
+		anomalies.setRedundantClauses(redundantClauses);
+
+		final List<Anomalies> expected = createAnalysis(clauseList, relevantConstraint, anomalies) //
+			.analyzeSequential(new Sat4JSolver(baseCNF), new NullMonitor());
+		final List<Anomalies> actual = createAnalysis(clauseList, relevantConstraint, anomalies) //
+			.analyze(new Sat4JSolver(baseCNF), new NullMonitor());
+
+		assertEquals(getFirstOccurrences(expected), getFirstOccurrences(actual), path.toString());
+	}
+
+	private static CauseAnalysis createAnalysis(List<LiteralList> clauseList, boolean[] relevantConstraint,
+		Anomalies anomalies) {
+		final CauseAnalysis analysis = new CauseAnalysis();
+		analysis.setClauseList(clauseList);
+		analysis.setRelevantConstraint(relevantConstraint);
+		analysis.setAnomalies(anomalies);
+		return analysis;
+	}
+
+	/**
+	 * @return for each dead variable and redundant clause, the index of the first
+	 *         group that causes it
+	 */
+	private static Map<Object, Integer> getFirstOccurrences(List<Anomalies> result) {
+		final Map<Object, Integer> firstOccurrences = new HashMap<>();
+		for (int i = 0; i < result.size(); i++) {
+			final Anomalies anomalies = result.get(i);
+			if (anomalies != null) {
+				for (final int literal : anomalies.getDeadVariables().getLiterals()) {
+					firstOccurrences.putIfAbsent(literal, i);
+				}
+				for (final LiteralList clause : anomalies.getRedundantClauses()) {
+					firstOccurrences.putIfAbsent(clause, i);
+				}
+			}
+		}
+		return firstOccurrences;
+	}
+
+}
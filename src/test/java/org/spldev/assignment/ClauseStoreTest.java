@@ -0,0 +1,116 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Tests {@link ClauseStore} and compares its memory footprint and load time
+ * with a list of {@link LiteralList clauses}.
+ *
+ * @author Sebastian Krieter
+ */
+public class ClauseStoreTest {
+
+	@Test
+	public void testStoreMatchesClauseList() throws IOException {
+		for (final Path path : CNFCreator.getDimacsModels()) {
+			final CNF cnf = CNFCreator.loadDimacs(path);
+			final List<LiteralList> clauses = cnf.getClauses();
+			for (final boolean offHeap : new boolean[] { false, true }) {
+				final ClauseStore store = ClauseStore.readDimacs(path, offHeap);
+				assertEquals(offHeap, store.isOffHeap());
+				assertEquals(clauses.size(), store.size());
+				for (int i = 0; i < clauses.size(); i++) {
+					final LiteralList clause = clauses.get(i);
+					final int[] expected = Arrays.copyOf(clause.getLiterals(), clause.size());
+					final int[] actual = store.getLiterals(i);
+					Arrays.sort(expected);
+					Arrays.sort(actual);
+					assertArrayEquals(expected, actual);
+				}
+				assertEquals(store.getLiteralCount(), ClauseStore.of(clauses).getLiteralCount());
+			}
+		}
+	}
+
+	@Test
+	public void testSolverFromStore() throws IOException {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2010);
+		final Sat4JSolver listSolver = new Sat4JSolver(cnf);
+		final Sat4JSolver storeSolver = new Sat4JSolver(cnf.getVariableMap(),
+			ClauseStore.readDimacs(CNFCreator.BUSYBOX_2010, true));
+		final int variableCount = cnf.getVariableMap().getMaxIndex();
+		for (int var = 1; var <= variableCount; var++) {
+			assertEquals(listSolver.hasSolution(var), storeSolver.hasSolution(var));
+			assertEquals(listSolver.hasSolution(-var), storeSolver.hasSolution(-var));
+		}
+		assertEquals(SatResult.TRUE, storeSolver.hasSolution());
+	}
+
+	@Test
+	public void measureMemoryAndLoadTime() throws IOException {
+		final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+		Assumptions.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+		final long threadId = Thread.currentThread().getId();
+
+		for (final Path path : CNFCreator.getDimacsModels()) {
+			// warm up
+			CNFCreator.loadDimacs(path);
+			ClauseStore.readDimacs(path, false);
+
+			long bytes = allocationBean.getThreadAllocatedBytes(threadId);
+			long time = System.nanoTime();
+			final CNF cnf = CNFCreator.loadDimacs(path);
+			final long listTime = System.nanoTime() - time;
+			final long listBytes = allocationBean.getThreadAllocatedBytes(threadId) - bytes;
+
+			bytes = allocationBean.getThreadAllocatedBytes(threadId);
+			time = System.nanoTime();
+			final ClauseStore store = ClauseStore.readDimacs(path, false);
+			final long storeTime = System.nanoTime() - time;
+			final long storeBytes = allocationBean.getThreadAllocatedBytes(threadId) - bytes;
+
+			Logger.logInfo(String.format(
+				"%s: %d clauses | list: %.1f ms, %d bytes allocated | store: %.1f ms, %d bytes allocated, %d bytes retained",
+				path.getParent().getParent().getFileName(), cnf.getClauses().size(), listTime / 1_000_000.0,
+				listBytes, storeTime / 1_000_000.0, storeBytes, store.getMemorySize()));
+			assertTrue(storeBytes < listBytes);
+		}
+	}
+
+}
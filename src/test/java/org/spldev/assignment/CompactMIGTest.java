@@ -0,0 +1,169 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.mig.solver.*;
+import org.spldev.analysis.mig.solver.visitor.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Compares the traversal of a {@link MIG} with the traversal of its
+ * {@link CompactMIG compact representation}. Reports the time needed for both
+ * traversals, the memory used by the compact representation compared to a
+ * lower bound for the object graph, and the memory allocated for creating
+ * traversers.
+ *
+ * @author Sebastian Krieter
+ */
+public class CompactMIGTest {
+
+	private static final int ITERATIONS = 200;
+	private static final int ROUNDS = 5;
+	private static final int TRAVERSERS = 1000;
+
+	/**
+	 * Minimum size of an object on a 64-bit JVM with compressed references.
+	 */
+	private static final int OBJECT_HEADER = 16;
+
+	@Test
+	public void testTraversal() {
+		for (final Path path : CNFCreator.getDimacsModels()) {
+			final CNF cnf = CNFCreator.loadDimacs(path);
+			final MIG mig = Executor.run(new RegularMIGBuilder()::execute, cnf).get();
+			final CompactMIG compactMig = mig.freeze();
+
+			assertEquals(mig.getVertices().size(), compactMig.getVertexCount(), path.toString());
+			for (final Vertex vertex : mig.getVertices()) {
+				final int vertexIndex = MIG.getVertexIndex(vertex);
+				assertEquals(vertex.getVar(), CompactMIG.getLiteral(vertexIndex), path.toString());
+				assertEquals(vertex.getStatus(), compactMig.getStatus(vertexIndex), path.toString());
+				assertEquals(vertex.getStrongEdges().size(), compactMig.getStrongEdges(vertexIndex).length,
+					path.toString());
+			}
+
+			final int variableCount = compactMig.size();
+			final Random random = new Random(0);
+			final int[] literals = new int[ITERATIONS];
+			for (int i = 0; i < literals.length; i++) {
+				final int variable = random.nextInt(variableCount) + 1;
+				literals[i] = random.nextBoolean() ? variable : -variable;
+			}
+
+			final Traverser traverser = mig.traverse();
+			final CompactTraverser compactTraverser = compactMig.traverse();
+			final List<int[]> expected = new ArrayList<>(ITERATIONS);
+			final List<int[]> actual = new ArrayList<>(ITERATIONS);
+			for (final int literal : literals) {
+				expected.add(traverse(traverser, variableCount, literal));
+				actual.add(traverse(compactTraverser, variableCount, literal));
+			}
+			for (int i = 0; i < ITERATIONS; i++) {
+				assertArrayEquals(expected.get(i), actual.get(i), path + " " + literals[i]);
+			}
+
+			// best of several rounds after the warm-up above
+			long time = Long.MAX_VALUE;
+			long compactTime = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++) {
+				long start = System.nanoTime();
+				for (final int literal : literals) {
+					traverse(traverser, variableCount, literal);
+				}
+				time = Math.min(time, System.nanoTime() - start);
+				start = System.nanoTime();
+				for (final int literal : literals) {
+					traverse(compactTraverser, variableCount, literal);
+				}
+				compactTime = Math.min(compactTime, System.nanoTime() - start);
+			}
+			Logger.logInfo(String.format("%s | traversal %.1f ms, compact traversal %.1f ms"
+				+ " | object graph >= %d bytes, compact %d bytes", path.getParent().getParent().getFileName(),
+				time / 1_000_000.0, compactTime / 1_000_000.0, getMinimumObjectSize(mig), compactMig
+					.getMemorySize()));
+		}
+	}
+
+	@Test
+	public void testTraverserAllocation() {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+		Assumptions.assumeTrue(allocationBean.isThreadAllocatedMemorySupported()
+			&& allocationBean.isThreadAllocatedMemoryEnabled());
+
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2010);
+		final CompactMIG compactMig = Executor.run(new RegularMIGBuilder()::execute, cnf).get().freeze();
+		final long threadId = Thread.currentThread().getId();
+		final CompactTraverser[] traversers = new CompactTraverser[TRAVERSERS];
+
+		final long before = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < TRAVERSERS; i++) {
+			traversers[i] = compactMig.traverse();
+		}
+		final long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+		// only the marks of the vertices are allocated per traverser, the clause
+		// buffers are shared by all traversers of a MIG
+		Logger.logInfo(String.format("%d traversers: %d bytes (%d vertices, %d clauses)", TRAVERSERS, allocated,
+			compactMig.getVertexCount(), compactMig.getClauseCount()));
+	}
+
+	/**
+	 * Computes a lower bound for the memory used by the object graph of a MIG,
+	 * which includes an object for each vertex, a reference for each edge, and an
+	 * object and an array for each distinct clause, but no collections.
+	 */
+	private static long getMinimumObjectSize(MIG mig) {
+		long size = 0;
+		final Set<LiteralList> clauses = new HashSet<>();
+		for (final Vertex vertex : mig.getVertices()) {
+			size += OBJECT_HEADER;
+			size += (long) Integer.BYTES * vertex.getStrongEdges().size();
+			size += (long) Integer.BYTES * vertex.getComplexClauses().size();
+			clauses.addAll(vertex.getComplexClauses());
+		}
+		for (final LiteralList clause : clauses) {
+			size += OBJECT_HEADER + OBJECT_HEADER + ((long) Integer.BYTES * clause.size());
+		}
+		return size;
+	}
+
+	private static int[] traverse(ITraverser traverser, int variableCount, int literal) {
+		final int[] model = new int[variableCount];
+		traverser.setModel(model);
+		traverser.setVisitor(new CollectingVisitor());
+		traverser.traverse(literal);
+		return model;
+	}
+
+}
@@ -0,0 +1,131 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.mig.*;
+import org.spldev.analysis.mig.solver.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Compares the implications computed by a {@link ConfigurationSession} with
+ * the results of {@link CoreDeadAnalysis}.
+ *
+ * @author Sebastian Krieter
+ */
+public class ConfigurationSessionTest {
+
+	@Test
+	public void testSelectAndUndo() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final MIG mig = Executor.run(new RegularMIGBuilder()::execute, cnf).get();
+		final ConfigurationSession session = new ConfigurationSession(mig);
+		final Random random = new Random(0);
+		final int variableCount = cnf.getVariableMap().getMaxIndex();
+
+		assertEquals(expected(cnf, session), actual(session));
+		for (int i = 0; i < 10; i++) {
+			int variable;
+			do {
+				variable = random.nextInt(variableCount) + 1;
+			} while (session.getValue(variable) != 0);
+			final int literal = random.nextBoolean() ? variable : -variable;
+			final ConfigurationSession.Change change = session.select(literal);
+			assertEquals(literal, change.getDecision());
+			assertEquals(literal, session.getValue(variable));
+			assertEquals(expected(cnf, session), actual(session));
+		}
+
+		final Set<Integer> before = actual(session);
+		final int decision = session.getDecisions().getLiterals()[session.getDecisions().size() - 1];
+		final ConfigurationSession.Change undone = session.undo();
+		assertTrue(IntStream.of(undone.getImplied().getLiterals()).anyMatch(l -> l == decision));
+		assertEquals(0, session.getValue(decision));
+		assertEquals(expected(cnf, session), actual(session));
+		session.select(decision);
+		assertEquals(before, actual(session));
+
+		session.reset();
+		assertEquals(0, session.getDecisions().size());
+		assertEquals(expected(cnf, session), actual(session));
+	}
+
+	@Test
+	public void testContradictoryUpdate() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final MIG mig = Executor.run(new RegularMIGBuilder()::execute, cnf).get();
+		final ConfigurationSession session = new ConfigurationSession(mig);
+		final int variableCount = cnf.getVariableMap().getMaxIndex();
+
+		final int first = findOpenVariable(session, variableCount, 1);
+		session.select(first);
+		final int second = findOpenVariable(session, variableCount, first + 1);
+		session.select(second);
+
+		final int open = findOpenVariable(session, variableCount, second + 1);
+		final LiteralList contradictory = new LiteralList(new int[] { first, open, -open },
+			LiteralList.Order.UNORDERED);
+		assertThrows(IllegalArgumentException.class, () -> session.update(contradictory));
+		assertArrayEquals(new int[] { first }, session.getDecisions().getLiterals());
+		assertEquals(0, session.getValue(open));
+		assertEquals(expected(cnf, session), actual(session));
+
+		assertThrows(IllegalArgumentException.class, () -> session.select(-session.getConfiguration()
+			.getLiterals()[0]));
+		assertArrayEquals(new int[] { first }, session.getDecisions().getLiterals());
+		assertEquals(expected(cnf, session), actual(session));
+	}
+
+	private static int findOpenVariable(ConfigurationSession session, int variableCount, int start) {
+		for (int variable = start; variable <= variableCount; variable++) {
+			if (session.getValue(variable) == 0) {
+				return variable;
+			}
+		}
+		throw new AssertionError();
+	}
+
+	private static Set<Integer> actual(ConfigurationSession session) {
+		return IntStream.of(session.getConfiguration().getLiterals()).boxed().collect(Collectors.toSet());
+	}
+
+	private static Set<Integer> expected(CNF cnf, ConfigurationSession session) {
+		final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+		final int[] decisions = session.getDecisions().getLiterals();
+		for (final int literal : decisions) {
+			analysis.getAssumptions().set(Math.abs(literal), literal > 0);
+		}
+		final Set<Integer> expected = IntStream.of(Executor.run(analysis::execute, cnf).get().getLiterals()).boxed()
+			.collect(Collectors.toSet());
+		IntStream.of(decisions).forEach(expected::add);
+		return expected;
+	}
+
+}
@@ -0,0 +1,93 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Compares the sequential and the batch search mode of
+ * {@link ContradictionAnalysis}.
+ *
+ * @author Sebastian Krieter
+ */
+public class ContradictionTest {
+
+	@Test
+	public void testBatchEqualsSequential() {
+		final Path path = CNFCreator.FINANCIAL_2010;
+		final CNF cnf = CNFCreator.loadDimacs(path);
+		final int numberOfVariables = cnf.getVariableMap().getMaxIndex();
+
+		final Random random = new Random(0);
+		final List<LiteralList> clauseList = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			final int[] literals = new int[1 + random.nextInt(2)];
+			for (int j = 0; j < literals.length; j++) {
+				final int variable = 1 + random.nextInt(numberOfVariables);
+				literals[j] = random.nextBoolean() ? variable : -variable;
+			}
+			clauseList.add(new LiteralList(literals));
+		}
+		final int[] clauseGroupSize = new int[clauseList.size() / 3];
+		Arrays.fill(clauseGroupSize, 3);
+
+		for (final boolean guarded : new boolean[] { false, true }) {
+			final ContradictionAnalysis sequential = createAnalysis(clauseList, clauseGroupSize, guarded, false);
+			final List<LiteralList> expected = Executor.run(sequential::execute, cnf).get();
+			assertTrue(expected.stream().anyMatch(Objects::nonNull));
+			final ContradictionAnalysis batch = createAnalysis(clauseList, clauseGroupSize, guarded, true);
+			assertEquals(expected, Executor.run(batch::execute, cnf).get(), path.toString());
+		}
+	}
+
+	@Test
+	public void testBatchWithoutContradictions() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final List<LiteralList> clauseList = cnf.getClauses();
+
+		final ContradictionAnalysis sequential = createAnalysis(clauseList, null, false, false);
+		final List<LiteralList> expected = Executor.run(sequential::execute, cnf).get();
+		final ContradictionAnalysis batch = createAnalysis(clauseList, null, false, true);
+		assertEquals(expected, Executor.run(batch::execute, cnf).get());
+		assertTrue(expected.stream().allMatch(Objects::isNull));
+		assertEquals(1, batch.getSolverStatistics().getCalls());
+	}
+
+	private static ContradictionAnalysis createAnalysis(List<LiteralList> clauseList, int[] clauseGroupSize,
+		boolean guarded, boolean batchSearch) {
+		final ContradictionAnalysis analysis = new ContradictionAnalysis(clauseList);
+		analysis.setClauseGroupSize(clauseGroupSize);
+		analysis.setPreserveLearnedClauses(guarded);
+		analysis.setBatchSearch(batchSearch);
+		return analysis;
+	}
+
+}
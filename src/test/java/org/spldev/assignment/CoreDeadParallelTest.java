@@ -0,0 +1,111 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Compares the parallel and the sequential mode of {@link CoreDeadAnalysis}.
+ *
+ * @author Sebastian Krieter
+ */
+public class CoreDeadParallelTest {
+
+	@Test
+	public void testParallelEqualsSequential() {
+		for (final Path path : CNFCreator.getDimacsModels()) {
+			final CNF cnf = CNFCreator.loadDimacs(path);
+			final LiteralList expected = Executor.run(new CoreDeadAnalysis()::execute, cnf).get();
+			for (final int parallelism : new int[] { 2, 4 }) {
+				final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+				analysis.setParallelism(parallelism);
+				final LiteralList actual = Executor.run(analysis::execute, cnf).get();
+				assertArrayEquals(expected.getLiterals(), actual.getLiterals(), path.toString());
+			}
+		}
+	}
+
+	@Test
+	public void testWorkersUseSolverPool() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2010);
+		final LiteralList expected = Executor.run(new CoreDeadAnalysis()::execute, cnf).get();
+		final Sat4JSolverPool pool = new Sat4JSolverPool(cnf, 4);
+		for (int i = 0; i < 3; i++) {
+			final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+			analysis.setParallelism(3);
+			analysis.setSolverPool(pool);
+			final LiteralList actual = Executor.run(analysis::execute, cnf).get();
+			assertArrayEquals(expected.getLiterals(), actual.getLiterals());
+			assertFalse(analysis.isTimeoutOccurred());
+			// the solver of the analysis and the solvers of both workers are returned
+			assertEquals(3, pool.getIdleCount());
+		}
+	}
+
+	@Test
+	public void testConcurrentAnalysesOnRegisteredPool() throws Exception {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2010);
+		final LiteralList expected = Executor.run(new CoreDeadAnalysis()::execute, cnf).get();
+		final int maxSolvers = 4;
+		final Sat4JSolverPool pool = Sat4JSolverPool.register(cnf, maxSolvers);
+		final ExecutorService executor = Executors.newFixedThreadPool(maxSolvers);
+		try {
+			// every analysis holds a solver of the pool, such that no worker can borrow one
+			final List<Callable<LiteralList>> analyses = new ArrayList<>(maxSolvers);
+			for (int i = 0; i < maxSolvers; i++) {
+				analyses.add(() -> {
+					final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+					analysis.setParallelism(2);
+					return Executor.run(analysis::execute, cnf).get();
+				});
+			}
+			final List<Future<LiteralList>> results = assertTimeoutPreemptively(Duration.ofMinutes(2),
+				() -> executor.invokeAll(analyses));
+			for (final Future<LiteralList> result : results) {
+				assertArrayEquals(expected.getLiterals(), result.get().getLiterals());
+			}
+			// all solvers were returned to the pool
+			for (int i = 0; i < maxSolvers; i++) {
+				assertNotNull(pool.tryAcquire());
+			}
+		} finally {
+			executor.shutdownNow();
+			Sat4JSolverPool.unregister(cnf);
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.CoreDeadAnalysis.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Compares the strategies of {@link CoreDeadAnalysis}.
+ *
+ * @author Sebastian Krieter
+ */
+public class CoreDeadStrategyTest {
+
+	@Test
+	public void testStrategiesAgree() {
+		for (final Path path : CNFCreator.getDimacsModels()) {
+			final CNF cnf = CNFCreator.loadDimacs(path);
+			LiteralList expected = null;
+			final StringBuilder report = new StringBuilder(path.getParent().getParent().getFileName().toString());
+			for (final Strategy strategy : Strategy.values()) {
+				final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+				analysis.setStrategy(strategy);
+				final LiteralList actual = Executor.run(analysis::execute, cnf).get();
+				if (expected == null) {
+					expected = actual;
+				} else {
+					assertArrayEquals(expected.getLiterals(), actual.getLiterals(), strategy + " " + path);
+				}
+				report.append(String.format(" | %s: %d calls", strategy, analysis.getSolverStatistics().getCalls()));
+			}
+			Logger.logInfo(report.toString());
+		}
+	}
+
+	@Test
+	public void testStrategiesPreserveLearnedClauses() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final LiteralList expected = Executor.run(new CoreDeadAnalysis()::execute, cnf).get();
+		for (final Strategy strategy : Strategy.values()) {
+			final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+			analysis.setStrategy(strategy);
+			analysis.setPreserveLearnedClauses(true);
+			assertArrayEquals(expected.getLiterals(), Executor.run(analysis::execute, cnf).get().getLiterals(),
+				strategy.toString());
+		}
+	}
+
+	@Test
+	public void testChunkSizes() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final LiteralList expected = Executor.run(new CoreDeadAnalysis()::execute, cnf).get();
+		for (final int chunkSize : new int[] { 1, 2, 64 }) {
+			final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+			analysis.setStrategy(Strategy.CHUNKED);
+			analysis.setChunkSize(chunkSize);
+			assertArrayEquals(expected.getLiterals(), Executor.run(analysis::execute, cnf).get().getLiterals());
+		}
+	}
+
+}
@@ -0,0 +1,186 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.mig.solver.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Compares temporarily added clauses via {@link Sat4JFormula#push(List)} and
+ * {@link Sat4JFormula#pushGuarded(List)}.
+ *
+ * @author Sebastian Krieter
+ */
+public class GuardedPushTest {
+
+	private static final int ITERATIONS = 2000;
+	private static final int GROUP_SIZE = 3;
+
+	private static class CountingSolver extends Sat4JSolver {
+
+		public CountingSolver(CNF cnf) {
+			super(cnf);
+		}
+
+		public long getConflicts() {
+			final Number conflicts = solver.getStat().get("conflicts");
+			return conflicts != null ? conflicts.longValue() : 0;
+		}
+
+	}
+
+	@Test
+	public void testGuardedPush() {
+		for (final CNF cnf : Arrays.asList( //
+			CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2007), //
+			CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2010))) {
+			final List<List<LiteralList>> groups = createGroups(cnf, new Random(12345));
+
+			final CountingSolver plainSolver = new CountingSolver(cnf);
+			final SatResult[] plainResults = new SatResult[groups.size()];
+			long start = System.nanoTime();
+			for (int i = 0; i < groups.size(); i++) {
+				final List<LiteralList> group = groups.get(i);
+				try {
+					plainSolver.getFormula().push(group);
+				} catch (final RuntimeContradictionException e) {
+					plainResults[i] = SatResult.FALSE;
+					continue;
+				}
+				plainResults[i] = plainSolver.hasSolution();
+				plainSolver.getFormula().pop(group.size());
+			}
+			final long plainTime = System.nanoTime() - start;
+
+			final CountingSolver guardedSolver = new CountingSolver(cnf);
+			final SatResult[] guardedResults = new SatResult[groups.size()];
+			start = System.nanoTime();
+			for (int i = 0; i < groups.size(); i++) {
+				guardedSolver.getFormula().pushGuarded(groups.get(i));
+				guardedResults[i] = guardedSolver.hasSolution();
+				if (guardedResults[i] == SatResult.TRUE) {
+					assertTrue(satisfies(guardedSolver.getInternalSolution(), groups.get(i)));
+				}
+				guardedSolver.getFormula().popGuarded();
+			}
+			final long guardedTime = System.nanoTime() - start;
+
+			assertArrayEquals(plainResults, guardedResults);
+			assertEquals(cnf.getVariableMap().getMaxIndex(), guardedSolver.findSolution().size());
+			assertEquals(0, guardedSolver.getFormula().getActiveSelectors().size());
+
+			Logger.logInfo(String.format("push/pop: %d conflicts, %.1f ms | guarded: %d conflicts, %.1f ms",
+				plainSolver.getConflicts(), plainTime / 1_000_000.0, guardedSolver.getConflicts(),
+				guardedTime / 1_000_000.0));
+		}
+	}
+
+	@Test
+	public void testGuardedPushWithStrategies() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final List<List<LiteralList>> groups = createGroups(cnf, new Random(12345)).subList(0, 100);
+		final Sat4JSolver plainSolver = new Sat4JSolver(cnf);
+		final SatResult[] expected = new SatResult[groups.size()];
+		for (int i = 0; i < groups.size(); i++) {
+			plainSolver.getFormula().pushGuarded(groups.get(i));
+			expected[i] = plainSolver.hasSolution();
+			plainSolver.getFormula().popGuarded();
+		}
+
+		final int[] model = plainSolver.findSolution().getLiterals();
+		final MIG mig = Executor.run(new RegularMIGBuilder()::execute, cnf).get();
+		final List<LiteralList> sample = Collections.singletonList(new LiteralList(model));
+		for (final SStrategy strategy : Arrays.asList( //
+			SStrategy.original(), //
+			SStrategy.negative(), //
+			SStrategy.positive(), //
+			SStrategy.fixed(model), //
+			SStrategy.inverse(model), //
+			SStrategy.random(new Random(0)), //
+			SStrategy.uniform(new SampleDistribution(sample)), //
+			SStrategy.mig(new MIGDistribution(mig)))) {
+			final Sat4JSolver solver = new Sat4JSolver(cnf);
+			solver.setSelectionStrategy(strategy);
+			for (int i = 0; i < groups.size(); i++) {
+				solver.getFormula().pushGuarded(groups.get(i));
+				assertEquals(expected[i], solver.hasSolution(), strategy.strategy().toString());
+				solver.getFormula().popGuarded();
+			}
+		}
+	}
+
+	@Test
+	public void testCommitGuarded() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2007);
+		final Sat4JSolver solver = new Sat4JSolver(cnf);
+		final int[] solution = solver.findSolution().getLiterals();
+
+		final LiteralList unit = new LiteralList(-solution[0]);
+		solver.getFormula().pushGuarded(Collections.singletonList(unit));
+		final SatResult result = solver.hasSolution();
+		solver.getFormula().commitGuarded();
+		assertEquals(0, solver.getFormula().getActiveSelectors().size());
+		assertEquals(result, solver.hasSolution());
+		if (result == SatResult.TRUE) {
+			assertEquals(-solution[0], solver.getInternalSolution()[0]);
+		}
+	}
+
+	private static List<List<LiteralList>> createGroups(CNF cnf, Random random) {
+		final int variableCount = cnf.getVariableMap().getMaxIndex();
+		final List<List<LiteralList>> groups = new ArrayList<>(ITERATIONS);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final List<LiteralList> group = new ArrayList<>(GROUP_SIZE);
+			for (int j = 0; j < GROUP_SIZE; j++) {
+				final int var1 = random.nextInt(variableCount) + 1;
+				final int var2 = random.nextInt(variableCount) + 1;
+				group.add(new LiteralList(random.nextBoolean() ? var1 : -var1, random.nextBoolean() ? var2 : -var2));
+			}
+			groups.add(group);
+		}
+		return groups;
+	}
+
+	private static boolean satisfies(int[] model, List<LiteralList> clauses) {
+		clauseLoop: for (final LiteralList clause : clauses) {
+			for (final int literal : clause.getLiterals()) {
+				if (model[Math.abs(literal) - 1] == literal) {
+					continue clauseLoop;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+
+}
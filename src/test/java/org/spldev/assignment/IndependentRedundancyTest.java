@@ -0,0 +1,110 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Compares the sequential and the parallel mode of
+ * {@link IndependentRedundancyAnalysis}.
+ *
+ * @author Sebastian Krieter
+ */
+public class IndependentRedundancyTest {
+
+	@Test
+	public void testParallelEqualsSequential() {
+		final Path path = CNFCreator.FINANCIAL_2010;
+		final CNF cnf = CNFCreator.loadDimacs(path);
+		final int numberOfVariables = cnf.getVariableMap().getMaxIndex();
+
+		// the clauses of the CNF are redundant, random clauses are mostly not
+		final Random random = new Random(0);
+		final List<LiteralList> clauseList = new ArrayList<>(cnf.getClauses());
+		for (int i = 0; i < 200; i++) {
+			final int[] literals = new int[2 + random.nextInt(2)];
+			for (int j = 0; j < literals.length; j++) {
+				final int variable = 1 + random.nextInt(numberOfVariables);
+				literals[j] = random.nextBoolean() ? variable : -variable;
+			}
+			clauseList.add(new LiteralList(literals));
+		}
+		Collections.shuffle(clauseList, random);
+		final int[] clauseGroupSize = new int[clauseList.size() / 2];
+		Arrays.fill(clauseGroupSize, 2);
+
+		final List<LiteralList> expected = analyze(cnf, clauseList, clauseGroupSize, 1);
+		assertEquals(analyze(cnf, clauseList, clauseGroupSize, 4), expected, path.toString());
+	}
+
+	@Test
+	public void testParallelEqualsSequentialWithAssumptions() {
+		final Path path = CNFCreator.FINANCIAL_2010;
+		final CNF cnf = CNFCreator.loadDimacs(path);
+		final int[] solution = new Sat4JSolver(cnf).findSolution().getLiterals();
+
+		// complements of the assumed literals are only redundant under the assumptions
+		final Random random = new Random(0);
+		final int[] assumptions = new int[5];
+		final List<LiteralList> clauseList = new ArrayList<>();
+		for (int i = 0; i < assumptions.length; i++) {
+			assumptions[i] = solution[random.nextInt(solution.length)];
+			clauseList.add(new LiteralList(assumptions[i]));
+		}
+		for (int i = 0; i < 200; i++) {
+			final int literal1 = solution[random.nextInt(solution.length)];
+			final int literal2 = solution[random.nextInt(solution.length)];
+			clauseList.add(new LiteralList(random.nextBoolean() ? literal1 : -literal1, -literal2));
+		}
+		Collections.shuffle(clauseList, random);
+		final int[] clauseGroupSize = new int[clauseList.size()];
+		Arrays.fill(clauseGroupSize, 1);
+
+		final List<LiteralList> expected = analyze(cnf, clauseList, clauseGroupSize, 1, assumptions);
+		assertEquals(analyze(cnf, clauseList, clauseGroupSize, 4, assumptions), expected, path.toString());
+		for (final int literal : assumptions) {
+			assertTrue(expected.contains(new LiteralList(literal)), path.toString());
+		}
+	}
+
+	private static List<LiteralList> analyze(CNF cnf, List<LiteralList> clauseList, int[] clauseGroupSize,
+		int parallelism, int... assumptions) {
+		final IndependentRedundancyAnalysis analysis = new IndependentRedundancyAnalysis(clauseList);
+		analysis.setClauseGroupSize(clauseGroupSize);
+		analysis.setParallelism(parallelism);
+		for (final int literal : assumptions) {
+			analysis.getAssumptions().set(Math.abs(literal), literal > 0);
+		}
+		return Executor.run(analysis::execute, cnf).get();
+	}
+
+}
@@ -0,0 +1,57 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Compares {@link IndeterminateAnalysis} with its variant that builds a new
+ * solver for every variable.
+ *
+ * @author Sebastian Krieter
+ */
+public class IndeterminateTest {
+
+	@Test
+	public void testEqualsRebuilding() throws Exception {
+		final Path path = CNFCreator.FINANCIAL_2010;
+		final CNF cnf = CNFCreator.loadDimacs(path);
+		final LiteralList expected = new IndeterminateAnalysis().analyzeRebuilding(new Sat4JSolver(cnf),
+			new NullMonitor());
+		for (final int parallelism : new int[] { 1, 4 }) {
+			final IndeterminateAnalysis analysis = new IndeterminateAnalysis();
+			analysis.setParallelism(parallelism);
+			final LiteralList actual = Executor.run(analysis::execute, cnf).get();
+			assertArrayEquals(expected.getLiterals(), actual.getLiterals(), path.toString());
+		}
+	}
+
+}
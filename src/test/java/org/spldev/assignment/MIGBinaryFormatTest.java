@@ -0,0 +1,144 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.mig.io.*;
+import org.spldev.analysis.mig.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Writes MIGs built by {@link RegularMIGBuilder} and
+ * {@link IncrementalMIGBuilder} in the {@link MIGBinaryFormat binary MIG
+ * format} and compares the loaded MIGs with the original ones.
+ *
+ * @author Sebastian Krieter
+ */
+public class MIGBinaryFormatTest {
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final List<LiteralList> clauses = cnf.getClauses();
+		final CNF oldCnf = new CNF(cnf.getVariableMap(), new ArrayList<>(clauses.subList(0, clauses.size() - 10)));
+		final Path path = Files.createTempFile("mig", "." + MIGBinaryFormat.FILE_EXTENSION);
+		try {
+			final MIG regularMig = Executor.run(new RegularMIGBuilder()::execute, oldCnf).get();
+			MIGBinaryFormat.write(regularMig, path);
+			final MIG loadedRegularMig = MIGBinaryFormat.read(path);
+			assertMIGEquals(regularMig, loadedRegularMig);
+			assertCompactMIGEquals(regularMig.freeze(), MIGBinaryFormat.readCompact(path, oldCnf));
+
+			final MIG incrementalMig = Executor.run(new IncrementalMIGBuilder(loadedRegularMig)::execute, cnf).get();
+			MIGBinaryFormat.write(incrementalMig, path);
+			assertMIGEquals(incrementalMig, MIGBinaryFormat.read(path, cnf));
+			assertCompactMIGEquals(incrementalMig.freeze(), MIGBinaryFormat.readCompact(path, null));
+
+			assertThrows(Exception.class, () -> MIGBinaryFormat.readCompact(path, oldCnf));
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	public void testInvalidHeader() throws Exception {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final Path path = Files.createTempFile("mig", "." + MIGBinaryFormat.FILE_EXTENSION);
+		try {
+			MIGBinaryFormat.write(Executor.run(new RegularMIGBuilder()::execute, cnf).get(), path);
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				// overwrite the redundancy status
+				channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 99), 4 * Integer.BYTES);
+			}
+			assertThrows(IOException.class, () -> MIGBinaryFormat.read(path));
+			assertThrows(IOException.class, () -> MIGBinaryFormat.readCompact(path, cnf));
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	public void testLoaderChecksCnf() throws Exception {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final List<LiteralList> clauses = cnf.getClauses();
+		final CNF otherCnf = new CNF(cnf.getVariableMap(), new ArrayList<>(clauses.subList(0, clauses.size() - 10)));
+		final Path path = Files.createTempFile("mig", "." + MIGBinaryFormat.FILE_EXTENSION);
+		try {
+			MIGBinaryFormat.write(Executor.run(new RegularMIGBuilder()::execute, otherCnf).get(), path);
+			assertThrows(IOException.class, () -> MIGBinaryFormat.read(path, cnf));
+			assertEquals(otherCnf.getClauses(), MIGBinaryFormat.read(path, otherCnf).getCnf().getClauses());
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	private static void assertMIGEquals(MIG expected, MIG actual) {
+		assertEquals(expected.getCnf().getVariableMap().getNames(), actual.getCnf().getVariableMap().getNames());
+		assertEquals(expected.getCnf().getClauses(), actual.getCnf().getClauses());
+		assertEquals(expected.getRedundancyStatus(), actual.getRedundancyStatus());
+		assertEquals(expected.getStrongStatus(), actual.getStrongStatus());
+		assertEquals(expected.getDetectedStrong(), actual.getDetectedStrong());
+		assertEquals(expected.getVertices().size(), actual.getVertices().size());
+		for (int i = 0; i < expected.getVertices().size(); i++) {
+			final Vertex expectedVertex = expected.getVertices().get(i);
+			final Vertex actualVertex = actual.getVertices().get(i);
+			assertEquals(expectedVertex.getVar(), actualVertex.getVar());
+			assertEquals(expectedVertex.getStatus(), actualVertex.getStatus());
+			assertEquals(getLiterals(expectedVertex.getStrongEdges()), getLiterals(actualVertex.getStrongEdges()));
+			assertEquals(expectedVertex.getComplexClauses(), actualVertex.getComplexClauses());
+		}
+	}
+
+	private static void assertCompactMIGEquals(CompactMIG expected, CompactMIG actual) {
+		assertEquals(expected.getVertexCount(), actual.getVertexCount());
+		assertEquals(expected.getClauseCount(), actual.getClauseCount());
+		for (int i = 0; i < expected.getVertexCount(); i++) {
+			assertEquals(expected.getStatus(i), actual.getStatus(i));
+			assertArrayEquals(expected.getStrongEdges(i), actual.getStrongEdges(i));
+			assertEquals(getClauses(expected, i), getClauses(actual, i));
+		}
+	}
+
+	private static List<Integer> getLiterals(List<Vertex> vertices) {
+		return vertices.stream().map(Vertex::getVar).collect(Collectors.toList());
+	}
+
+	private static List<LiteralList> getClauses(CompactMIG mig, int vertexIndex) {
+		final List<LiteralList> clauses = new ArrayList<>();
+		for (int i = mig.getWeakBegin(vertexIndex); i < mig.getWeakEnd(vertexIndex); i++) {
+			clauses.add(mig.getClause(mig.getWeakClause(i)));
+		}
+		return clauses;
+	}
+
+}
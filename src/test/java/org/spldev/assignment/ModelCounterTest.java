@@ -0,0 +1,153 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.formula.structure.atomic.literal.*;
+import org.spldev.util.job.*;
+
+/**
+ * Tests the {@link ModelCounter}.
+ *
+ * @author Sebastian Krieter
+ */
+public class ModelCounterTest {
+
+	@Test
+	public void testRandomFormulas() {
+		final Random random = new Random(0);
+		for (int i = 0; i < 50; i++) {
+			final int numberOfVariables = 4 + random.nextInt(9);
+			final List<LiteralList> clauses = new ArrayList<>();
+			final int numberOfClauses = random.nextInt(3 * numberOfVariables);
+			for (int j = 0; j < numberOfClauses; j++) {
+				final int[] clause = new int[1 + random.nextInt(3)];
+				for (int k = 0; k < clause.length; k++) {
+					final int variable = 1 + random.nextInt(numberOfVariables);
+					clause[k] = random.nextBoolean() ? variable : -variable;
+				}
+				clauses.add(new LiteralList(clause));
+			}
+			final ModelCounter counter = new ModelCounter(clauses, numberOfVariables);
+			assertEquals(BigInteger.valueOf(countBruteForce(clauses, numberOfVariables, new int[0])),
+				counter.count());
+			final int[] assumptions = { random.nextBoolean() ? 1 : -1, random.nextBoolean() ? 2 : -2 };
+			assertEquals(BigInteger.valueOf(countBruteForce(clauses, numberOfVariables, assumptions)),
+				counter.count(assumptions));
+		}
+	}
+
+	@Test
+	public void testLargeCount() {
+		final int numberOfVariables = 100;
+		final List<LiteralList> clauses = new ArrayList<>();
+		for (int i = 1; i < numberOfVariables; i += 2) {
+			clauses.add(new LiteralList(-i, i + 1));
+		}
+		// 3 models for each of the 50 independent implications
+		assertEquals(BigInteger.valueOf(3).pow(50), new ModelCounter(clauses, numberOfVariables).count());
+	}
+
+	@Test
+	public void testCacheSize() {
+		final int numberOfVariables = 100;
+		final List<LiteralList> clauses = new ArrayList<>();
+		for (int i = 1; i < numberOfVariables; i += 2) {
+			clauses.add(new LiteralList(-i, i + 1));
+		}
+		final ModelCounter counter = new ModelCounter(clauses, numberOfVariables);
+		// too small for two components
+		counter.setCacheSize(256);
+		assertEquals(BigInteger.valueOf(3).pow(50), counter.count());
+		assertTrue(counter.getCachedComponentCount() <= 1);
+		counter.setCacheSize(0);
+		assertEquals(0, counter.getCachedComponentCount());
+		assertEquals(BigInteger.valueOf(3).pow(50), counter.count());
+	}
+
+	@Test
+	public void testAnalysis() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2010);
+		final CountSolutionsAnalysis analysis = new CountSolutionsAnalysis();
+		analysis.setTimeout(60_000);
+		final BigInteger count = Executor.run(analysis::execute, cnf).get();
+		assertNotNull(count);
+		assertTrue(count.signum() > 0);
+	}
+
+	@Test
+	public void testAnalysisUsesClausesOfSolver() throws Exception {
+		final List<String> names = new ArrayList<>();
+		final List<LiteralList> clauses = new ArrayList<>();
+		for (int i = 1; i <= 10; i += 2) {
+			names.add("a" + i);
+			names.add("b" + i);
+			clauses.add(new LiteralList(-i, i + 1));
+		}
+		final VariableMap variables = VariableMap.fromNames(names);
+		final Sat4JSolver solver = new Sat4JSolver(variables, ClauseStore.of(clauses));
+		final LiteralList pushedClause = new LiteralList(1, 3);
+		solver.getFormula().push(pushedClause);
+		clauses.add(pushedClause);
+
+		final BigInteger expected = BigInteger.valueOf(countBruteForce(clauses, 10, new int[0]));
+		assertEquals(expected, new CountSolutionsAnalysis().analyze(solver, new NullMonitor()));
+		solver.getFormula().pop();
+		assertEquals(BigInteger.valueOf(3).pow(5), new CountSolutionsAnalysis().analyze(solver, new NullMonitor()));
+	}
+
+	private static long countBruteForce(List<LiteralList> clauses, int numberOfVariables, int[] assumptions) {
+		long count = 0;
+		assignmentLoop: for (long assignment = 0; assignment < (1L << numberOfVariables); assignment++) {
+			for (final int literal : assumptions) {
+				if (!isSatisfied(literal, assignment)) {
+					continue assignmentLoop;
+				}
+			}
+			clauseLoop: for (final LiteralList clause : clauses) {
+				for (final int literal : clause.getLiterals()) {
+					if (isSatisfied(literal, assignment)) {
+						continue clauseLoop;
+					}
+				}
+				continue assignmentLoop;
+			}
+			count++;
+		}
+		return count;
+	}
+
+	private static boolean isSatisfied(int literal, long assignment) {
+		final boolean value = ((assignment >>> (Math.abs(literal) - 1)) & 1) == 1;
+		return (literal > 0) == value;
+	}
+
+}
@@ -0,0 +1,169 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.sat4j.specs.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.formula.structure.atomic.literal.*;
+
+/**
+ * Tests the {@link MusEnumerator} against a brute-force enumeration of all
+ * minimal unsatisfiable subsets.
+ *
+ * @author Sebastian Krieter
+ */
+public class MusEnumeratorTest {
+
+	@Test
+	public void testSmallFormula() {
+		final CNF cnf = createCNF(2, //
+			new LiteralList(1), //
+			new LiteralList(-1), //
+			new LiteralList(2), //
+			new LiteralList(-1, -2), //
+			new LiteralList(-2));
+		final Set<List<Integer>> expected = new HashSet<>();
+		expected.add(Arrays.asList(0, 1));
+		expected.add(Arrays.asList(2, 4));
+		expected.add(Arrays.asList(0, 2, 3));
+		assertEquals(expected, enumerate(new MusEnumerator(cnf)));
+	}
+
+	@Test
+	public void testRandomFormulas() {
+		final Random random = new Random(3);
+		for (int i = 0; i < 30; i++) {
+			final int numberOfVariables = 2 + random.nextInt(3);
+			final LiteralList[] clauses = new LiteralList[4 + random.nextInt(7)];
+			for (int j = 0; j < clauses.length; j++) {
+				final int[] literals = new int[1 + random.nextInt(2)];
+				for (int k = 0; k < literals.length; k++) {
+					final int variable = 1 + random.nextInt(numberOfVariables);
+					literals[k] = random.nextBoolean() ? variable : -variable;
+				}
+				clauses[j] = new LiteralList(literals);
+			}
+			final CNF cnf = createCNF(numberOfVariables, clauses);
+			final Set<List<Integer>> expected = bruteForce(numberOfVariables, clauses);
+			for (final int parallelism : new int[] { 1, 3 }) {
+				final MusEnumerator enumerator = new MusEnumerator(cnf);
+				enumerator.setParallelism(parallelism);
+				assertEquals(expected, enumerate(enumerator), cnf.getClauses().toString());
+			}
+		}
+	}
+
+	@Test
+	public void testMusSolverUsesPushedClauses() {
+		final Sat4JMusSolver solver = new Sat4JMusSolver(createCNF(2, //
+			new LiteralList(1), //
+			new LiteralList(2)));
+		assertThrows(IllegalStateException.class, solver::getAllMinimalUnsatisfiableSubsets);
+
+		final IConstr pushed = solver.getFormula().push(new LiteralList(-1));
+		final List<List<IConstr>> subsets = solver.getAllMinimalUnsatisfiableSubsets();
+		assertEquals(1, subsets.size());
+		assertEquals(new HashSet<>(Arrays.asList(solver.getFormula().getConstraints().get(0), pushed)),
+			new HashSet<>(subsets.get(0)));
+	}
+
+	@Test
+	public void testDeadline() {
+		final MusEnumerator enumerator = new MusEnumerator(createCNF(1, new LiteralList(1), new LiteralList(-1)));
+		enumerator.setDeadline(System.currentTimeMillis() - 1);
+		assertThrows(RuntimeTimeoutException.class, enumerator::next);
+		enumerator.setDeadline(Long.MAX_VALUE);
+		assertEquals(Collections.singleton(Arrays.asList(0, 1)), enumerate(enumerator));
+	}
+
+	private static Set<List<Integer>> enumerate(MusEnumerator enumerator) {
+		final Set<List<Integer>> subsets = new HashSet<>();
+		for (int[] mus = enumerator.next(); mus != null; mus = enumerator.next()) {
+			final List<Integer> subset = new ArrayList<>();
+			for (final int clauseIndex : mus) {
+				subset.add(clauseIndex);
+			}
+			assertTrue(subsets.add(subset), subset.toString());
+		}
+		assertTrue(enumerator.isFinished());
+		return subsets;
+	}
+
+	private static Set<List<Integer>> bruteForce(int numberOfVariables, LiteralList[] clauses) {
+		final Set<List<Integer>> subsets = new HashSet<>();
+		for (int subset = 0; subset < (1 << clauses.length); subset++) {
+			if (!isSatisfiable(numberOfVariables, clauses, subset)) {
+				boolean minimal = true;
+				for (int i = 0; minimal && (i < clauses.length); i++) {
+					minimal = ((subset & (1 << i)) == 0) //
+						|| isSatisfiable(numberOfVariables, clauses, subset & ~(1 << i));
+				}
+				if (minimal) {
+					final List<Integer> indices = new ArrayList<>();
+					for (int i = 0; i < clauses.length; i++) {
+						if ((subset & (1 << i)) != 0) {
+							indices.add(i);
+						}
+					}
+					subsets.add(indices);
+				}
+			}
+		}
+		return subsets;
+	}
+
+	private static boolean isSatisfiable(int numberOfVariables, LiteralList[] clauses, int subset) {
+		assignmentLoop: for (int assignment = 0; assignment < (1 << numberOfVariables); assignment++) {
+			for (int i = 0; i < clauses.length; i++) {
+				if ((subset & (1 << i)) != 0) {
+					boolean satisfied = false;
+					for (final int literal : clauses[i].getLiterals()) {
+						final boolean value = (assignment & (1 << (Math.abs(literal) - 1))) != 0;
+						satisfied |= value == (literal > 0);
+					}
+					if (!satisfied) {
+						continue assignmentLoop;
+					}
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private static CNF createCNF(int numberOfVariables, LiteralList... clauses) {
+		final List<String> names = new ArrayList<>();
+		for (int i = 1; i <= numberOfVariables; i++) {
+			names.add("v" + i);
+		}
+		return new CNF(VariableMap.fromNames(names), Arrays.asList(clauses));
+	}
+
+}
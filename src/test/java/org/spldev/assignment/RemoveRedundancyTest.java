@@ -0,0 +1,89 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.RemoveRedundancyAnalysis.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Compares the modes of {@link RemoveRedundancyAnalysis} that remove clauses
+ * from the solver and that guard clauses by selector variables on the bundled
+ * test models and reports the solver calls and time needed by each mode.
+ *
+ * @author Sebastian Krieter
+ */
+public class RemoveRedundancyTest {
+
+	private static final int NUMBER_OF_CLAUSES = 300;
+
+	@Test
+	public void testGuardedEqualsRemoving() {
+		for (final Path path : CNFCreator.getDimacsModels()) {
+			final CNF cnf = CNFCreator.loadDimacs(path);
+			final List<LiteralList> clauses = cnf.getClauses();
+			final int half = clauses.size() / 2;
+			final CNF baseCNF = new CNF(cnf.getVariableMap(), new ArrayList<>(clauses.subList(0, half)));
+			final List<LiteralList> clauseList = clauses.subList(half, clauses.size()).stream() //
+				.filter(clause -> clause.size() > 1) //
+				.limit(NUMBER_OF_CLAUSES) //
+				.collect(Collectors.toList());
+
+			final StringBuilder report = new StringBuilder(path.getParent().getParent().getFileName().toString());
+			for (final GroupOrder order : GroupOrder.values()) {
+				final RemoveRedundancyAnalysis removing = createAnalysis(clauseList, order, false);
+				final List<LiteralList> expected = Executor.run(removing::execute, baseCNF).get();
+				final RemoveRedundancyAnalysis guarded = createAnalysis(clauseList, order, true);
+				final List<LiteralList> actual = Executor.run(guarded::execute, baseCNF).get();
+				assertEquals(expected, actual, path + " " + order);
+
+				report.append(String.format(" | %s: removing %s, guarded %s", order,
+					format(removing.getSolverStatistics()), format(guarded.getSolverStatistics())));
+			}
+			Logger.logInfo(report.toString());
+		}
+	}
+
+	private static RemoveRedundancyAnalysis createAnalysis(List<LiteralList> clauseList, GroupOrder order,
+		boolean guarded) {
+		final RemoveRedundancyAnalysis analysis = new RemoveRedundancyAnalysis(clauseList);
+		analysis.setGroupOrder(order);
+		analysis.setPreserveLearnedClauses(guarded);
+		return analysis;
+	}
+
+	private static String format(SolverStatistics statistics) {
+		return String.format("%d calls in %.1f ms", statistics.getCalls(), statistics.getTotalTime() / 1_000_000.0);
+	}
+
+}
@@ -0,0 +1,142 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.clauses.*;
+import org.spldev.formula.structure.atomic.literal.*;
+import org.spldev.util.job.*;
+
+/**
+ * Tests the reservoir sampling mode of the
+ * {@link EnumeratingRandomConfigurationGenerator}.
+ *
+ * @author Sebastian Krieter
+ */
+public class ReservoirSamplingTest {
+
+	@Test
+	public void testEnumerateAll() {
+		final CNF cnf = createCNF(3);
+		final Set<LiteralList> allSolutions = getAllSolutions(cnf);
+		final EnumeratingRandomConfigurationGenerator gen = new EnumeratingRandomConfigurationGenerator();
+		final List<LiteralList> sample = Executor.run(gen::execute, cnf).get().getSolutions();
+		assertEquals(allSolutions.size(), sample.size());
+		assertEquals(allSolutions, new HashSet<>(sample));
+	}
+
+	@Test
+	public void testReservoir() {
+		final CNF cnf = createCNF(4);
+		final Set<LiteralList> allSolutions = getAllSolutions(cnf);
+		for (final int parallelism : new int[] { 1, 3 }) {
+			final EnumeratingRandomConfigurationGenerator gen = new EnumeratingRandomConfigurationGenerator();
+			gen.setReservoirSampling(true);
+			gen.setParallelism(parallelism);
+			gen.setRandom(new Random(parallelism));
+			gen.setLimit(10);
+			final List<LiteralList> sample = Executor.run(gen::execute, cnf).get().getSolutions();
+			assertEquals(10, sample.size());
+			assertEquals(10, new HashSet<>(sample).size());
+			assertTrue(allSolutions.containsAll(sample));
+
+			gen.setAllowDuplicates(true);
+			gen.setLimit(allSolutions.size() + 5);
+			final List<LiteralList> sampleWithDuplicates = Executor.run(gen::execute, cnf).get().getSolutions();
+			assertEquals(allSolutions.size() + 5, sampleWithDuplicates.size());
+			assertTrue(allSolutions.containsAll(sampleWithDuplicates));
+
+			gen.setAllowDuplicates(false);
+			gen.setLimit(allSolutions.size() + 5);
+			final List<LiteralList> completeSample = Executor.run(gen::execute, cnf).get().getSolutions();
+			assertEquals(allSolutions, new HashSet<>(completeSample));
+		}
+	}
+
+	@Test
+	public void testUniformity() {
+		final CNF cnf = createCNF(2);
+		final Set<LiteralList> allSolutions = getAllSolutions(cnf);
+		final int runs = 200 * allSolutions.size();
+		for (final int parallelism : new int[] { 1, 2 }) {
+			final Map<LiteralList, Integer> frequencies = new HashMap<>();
+			final EnumeratingRandomConfigurationGenerator gen = new EnumeratingRandomConfigurationGenerator();
+			gen.setReservoirSampling(true);
+			gen.setParallelism(parallelism);
+			gen.setRandom(new Random(0));
+			gen.setLimit(1);
+			for (int i = 0; i < runs; i++) {
+				final List<LiteralList> sample = Executor.run(gen::execute, cnf).get().getSolutions();
+				assertEquals(1, sample.size());
+				frequencies.merge(sample.get(0), 1, Integer::sum);
+			}
+			assertEquals(allSolutions, frequencies.keySet());
+			for (final int frequency : frequencies.values()) {
+				assertTrue(frequency > 100, String.valueOf(frequency));
+			}
+		}
+	}
+
+	@Test
+	public void testParallelReproducibility() {
+		final CNF cnf = createCNF(4);
+		final EnumeratingRandomConfigurationGenerator gen = new EnumeratingRandomConfigurationGenerator();
+		gen.setReservoirSampling(true);
+		gen.setParallelism(4);
+		gen.setLimit(20);
+		gen.setRandom(new Random(7));
+		final List<LiteralList> expected = Executor.run(gen::execute, cnf).get().getSolutions();
+		for (int i = 0; i < 10; i++) {
+			gen.setRandom(new Random(7));
+			assertEquals(expected, Executor.run(gen::execute, cnf).get().getSolutions());
+		}
+	}
+
+	private static Set<LiteralList> getAllSolutions(CNF cnf) {
+		return new HashSet<>(Executor.run(new AllConfigurationGenerator()::execute, cnf).get().getSolutions());
+	}
+
+	/**
+	 * Creates a CNF with the given number of independent groups (a | b) & (b | c),
+	 * each of which has 5 solutions.
+	 */
+	private static CNF createCNF(int numberOfGroups) {
+		final List<String> names = new ArrayList<>();
+		final List<LiteralList> clauses = new ArrayList<>();
+		for (int i = 0; i < numberOfGroups; i++) {
+			final int a = names.size() + 1;
+			names.add("a" + i);
+			names.add("b" + i);
+			names.add("c" + i);
+			clauses.add(new LiteralList(a, a + 1));
+			clauses.add(new LiteralList(a + 1, a + 2));
+		}
+		return new CNF(VariableMap.fromNames(names), clauses);
+	}
+
+}
@@ -0,0 +1,101 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.formula.structure.atomic.literal.*;
+
+public class Sat4JAssumptionsTest {
+
+	private static final int NUMBER_OF_VARIABLES = 20;
+
+	@Test
+	public void testVariableIndex() {
+		final List<String> names = new ArrayList<>();
+		for (int i = 1; i <= NUMBER_OF_VARIABLES; i++) {
+			names.add("v" + i);
+		}
+		final Sat4JAssumptions assumptions = new Sat4JAssumptions(VariableMap.fromNames(names));
+		final Random random = new Random(0);
+
+		for (int i = 0; i < 100_000; i++) {
+			final int var = random.nextInt(NUMBER_OF_VARIABLES) + 1;
+			final int literal = random.nextBoolean() ? var : -var;
+			switch (random.nextInt(8)) {
+			case 0:
+			case 1:
+				assumptions.push(literal);
+				break;
+			case 2:
+				if (assumptions.size() > 0) {
+					assumptions.pop();
+				}
+				break;
+			case 3:
+				if (assumptions.size() > 0) {
+					assumptions.replaceLast(random.nextBoolean() ? -assumptions.peek() : literal);
+				}
+				break;
+			case 4:
+				assumptions.set(var, random.nextBoolean());
+				break;
+			case 5:
+				assumptions.unset(var);
+				break;
+			case 6:
+				assumptions.clear(random.nextInt(assumptions.size() + 1));
+				break;
+			case 7:
+				if (assumptions.size() > 0) {
+					assumptions.remove(random.nextInt(assumptions.size()));
+				}
+				break;
+			default:
+				throw new AssertionError();
+			}
+			checkIndex(assumptions);
+		}
+	}
+
+	private void checkIndex(Sat4JAssumptions assumptions) {
+		final int[] literals = assumptions.asArray();
+		for (int var = 1; var <= NUMBER_OF_VARIABLES; var++) {
+			int expectedPosition = -1;
+			for (int i = 0; i < literals.length; i++) {
+				if (Math.abs(literals[i]) == var) {
+					expectedPosition = i;
+					break;
+				}
+			}
+			assertEquals(expectedPosition, assumptions.getPosition(var));
+			assertEquals(expectedPosition < 0 ? Optional.empty() : Optional.of(literals[expectedPosition]),
+				assumptions.get(var));
+		}
+	}
+
+}
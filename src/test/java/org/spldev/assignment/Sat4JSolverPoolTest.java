@@ -0,0 +1,105 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.formula.*;
+import org.spldev.util.job.*;
+
+public class Sat4JSolverPoolTest {
+
+	@Test
+	public void testParallelAnalyses() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2010);
+		final int[] expected = sorted(Executor.run(new CoreDeadAnalysis()::execute, cnf).get());
+
+		final Sat4JSolverPool pool = Sat4JSolverPool.register(cnf, 4);
+		try {
+			pool.warmUp(2);
+			final List<int[]> results = IntStream.range(0, 16).parallel() //
+				.mapToObj(i -> sorted(Executor.run(new CoreDeadAnalysis()::execute, cnf).get())) //
+				.collect(Collectors.toList());
+			for (final int[] result : results) {
+				assertArrayEquals(expected, result);
+			}
+			assertTrue(pool.getIdleCount() <= pool.getMaxSolvers());
+		} finally {
+			Sat4JSolverPool.unregister(cnf);
+		}
+	}
+
+	@Test
+	public void testReset() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2007);
+		final Sat4JSolverPool pool = new Sat4JSolverPool(cnf, 1);
+		final Sat4JSolver solver = pool.acquire();
+		final int constraintCount = solver.getFormula().getConstraints().size();
+		solver.getAssumptions().push(1);
+		solver.getFormula().push(new LiteralList(2));
+		pool.release(solver);
+
+		final Sat4JSolver reusedSolver = pool.acquire();
+		assertSame(solver, reusedSolver);
+		assertEquals(0, reusedSolver.getAssumptions().size());
+		assertEquals(constraintCount, reusedSolver.getFormula().getConstraints().size());
+		pool.release(reusedSolver);
+	}
+
+	@Test
+	public void testModelRepresentation() {
+		final ModelRepresentation rep = new ModelRepresentation(FormulaCreator.getFormula01());
+		final CNF cnf = rep.get(CNFProvider.fromFormula());
+		final Sat4JSolverPool pool = new Sat4JSolverPool(cnf, 1);
+		final Sat4JSolver solver = pool.acquire();
+		pool.release(solver);
+
+		final CoreDeadAnalysis coreDeadAnalysis = new CoreDeadAnalysis();
+		coreDeadAnalysis.setSolverPool(pool);
+		assertNotNull(rep.getResult(coreDeadAnalysis).get());
+		// the pool holds only one solver, so a second analysis would block, if the
+		// first one did not return its solver
+		final HasSolutionAnalysis hasSolutionAnalysis = new HasSolutionAnalysis();
+		hasSolutionAnalysis.setSolverPool(pool);
+		assertNotNull(rep.getResult(hasSolutionAnalysis).get());
+
+		assertEquals(1, pool.getIdleCount());
+		final Sat4JSolver reusedSolver = pool.acquire();
+		assertSame(solver, reusedSolver);
+		pool.release(reusedSolver);
+	}
+
+	private static int[] sorted(LiteralList literals) {
+		final int[] array = Arrays.copyOf(literals.getLiterals(), literals.size());
+		Arrays.sort(array);
+		return array;
+	}
+
+}
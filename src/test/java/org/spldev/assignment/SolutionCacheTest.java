@@ -0,0 +1,134 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.sat4j.solver.SolutionCache.*;
+
+/**
+ * Tests the lookup, eviction, and statistics of the {@link SolutionCache}.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolutionCacheTest {
+
+	private static final int[] A = { 1, 2, 3 };
+	private static final int[] B = { 1, -2, 3 };
+	private static final int[] C = { -1, -2, -3 };
+
+	@Test
+	public void testFindReturnsMostRecentSolution() {
+		final SolutionCache cache = new SolutionCache(10);
+		cache.add(A);
+		cache.add(B);
+		assertArrayEquals(B, cache.getModel(cache.find(1, 3)));
+		assertArrayEquals(A, cache.getModel(cache.find(2)));
+		assertEquals(-1, cache.find(-1));
+		assertTrue(cache.contains(-2));
+		assertFalse(cache.contains(1, -3));
+		assertEquals(3, cache.getHits());
+		assertEquals(2, cache.getMisses());
+
+		cache.resetStatistics();
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void testPeekHasNoSideEffects() {
+		final SolutionCache cache = new SolutionCache(2, EvictionStrategy.LRU);
+		cache.add(A);
+		cache.add(B);
+		assertArrayEquals(B, cache.getModel(cache.peek(1)));
+		assertTrue(cache.peekContains(2));
+		assertFalse(cache.peekContains(-1));
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+
+		// the peek did not mark A as used, so it is evicted first
+		cache.add(C);
+		assertFalse(cache.peekContains(2));
+		assertTrue(cache.peekContains(-2, 3));
+		assertTrue(cache.peekContains(-1));
+	}
+
+	@Test
+	public void testLRUEviction() {
+		final SolutionCache cache = new SolutionCache(2, EvictionStrategy.LRU);
+		cache.add(A);
+		cache.add(B);
+		assertTrue(cache.contains(2));
+		cache.add(C);
+		assertEquals(2, cache.size());
+		assertTrue(cache.peekContains(2));
+		assertFalse(cache.peekContains(1, -2));
+		assertTrue(cache.peekContains(-1));
+	}
+
+	@Test
+	public void testMostCoveringEviction() {
+		final SolutionCache cache = new SolutionCache(2, EvictionStrategy.MOST_COVERING);
+		cache.add(A);
+		cache.add(B);
+		assertTrue(cache.contains(2));
+		assertTrue(cache.contains(2, 3));
+		assertTrue(cache.contains(-2));
+		// B answered fewer lookups than A, although it was used more recently
+		cache.add(C);
+		assertTrue(cache.peekContains(2));
+		assertFalse(cache.peekContains(1, -2));
+		cache.add(B);
+		// C answered fewer lookups than A
+		assertTrue(cache.peekContains(2));
+		assertFalse(cache.peekContains(-1));
+		assertTrue(cache.peekContains(1, -2));
+	}
+
+	@Test
+	public void testCommonModel() {
+		final SolutionCache cache = new SolutionCache(10);
+		cache.add(A);
+		cache.add(B);
+		cache.add(C);
+		assertArrayEquals(new int[] { 1, 0, 3 }, cache.getCommonModel(1));
+		assertArrayEquals(C, cache.getCommonModel(-3));
+		assertNull(cache.getCommonModel(-4));
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void testClear() {
+		final SolutionCache cache = new SolutionCache(10);
+		cache.add(A);
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(-1, cache.peek(1));
+		cache.add(C);
+		assertArrayEquals(C, cache.getModel(cache.peek()));
+	}
+
+}
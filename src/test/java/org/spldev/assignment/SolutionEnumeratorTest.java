@@ -0,0 +1,89 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.formula.structure.atomic.literal.*;
+
+/**
+ * Tests the {@link SolutionEnumerator}.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolutionEnumeratorTest {
+
+	@Test
+	public void testRandomFormulas() {
+		final Random random = new Random(1);
+		for (int i = 0; i < 30; i++) {
+			final int numberOfVariables = 4 + random.nextInt(7);
+			final List<String> names = new ArrayList<>();
+			for (int v = 1; v <= numberOfVariables; v++) {
+				names.add("v" + v);
+			}
+			final List<LiteralList> clauses = new ArrayList<>();
+			for (int j = 0; j < (2 * numberOfVariables); j++) {
+				final int[] clause = new int[2 + random.nextInt(2)];
+				for (int k = 0; k < clause.length; k++) {
+					final int variable = 1 + random.nextInt(numberOfVariables);
+					clause[k] = random.nextBoolean() ? variable : -variable;
+				}
+				clauses.add(new LiteralList(clause));
+			}
+			final CNF cnf = new CNF(VariableMap.fromNames(names), clauses);
+
+			final Set<LiteralList> solutions = enumerate(new SolutionEnumerator(new Sat4JSolver(cnf)));
+			assertEquals(new ModelCounter(cnf).count(), BigInteger.valueOf(solutions.size()));
+			for (final LiteralList solution : solutions) {
+				assertEquals(numberOfVariables, solution.size());
+			}
+
+			final int[] projection = { 1, 2 };
+			final Set<LiteralList> expectedProjections = new HashSet<>();
+			for (final LiteralList solution : solutions) {
+				final int[] literals = solution.getLiterals();
+				expectedProjections.add(new LiteralList(literals[0], literals[1]));
+			}
+			final Set<LiteralList> projections = enumerate(new SolutionEnumerator(new Sat4JSolver(cnf),
+				projection));
+			assertEquals(expectedProjections, projections);
+		}
+	}
+
+	private static Set<LiteralList> enumerate(SolutionEnumerator enumerator) {
+		final Set<LiteralList> solutions = new HashSet<>();
+		for (LiteralList solution = enumerator.next(); solution != null; solution = enumerator.next()) {
+			assertTrue(solutions.add(solution), "duplicate solution " + solution);
+		}
+		assertTrue(enumerator.isFinished());
+		return solutions;
+	}
+
+}
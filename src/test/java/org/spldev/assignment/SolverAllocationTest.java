@@ -0,0 +1,88 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Measures the heap allocations caused by repeated calls of
+ * {@link Sat4JSolver#hasSolution()}.
+ */
+public class SolverAllocationTest {
+
+	private static final int WARMUP_ITERATIONS = 200_000;
+	private static final int ITERATIONS = 1_000_000;
+
+	@Test
+	public void testHasSolutionAllocation() {
+		final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+		Assumptions.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2007);
+		final Sat4JSolver solver = new Sat4JSolver(cnf);
+		solver.rememberSolutionHistory(AbstractSat4JSolver.MAX_SOLUTION_BUFFER);
+		final int[] solution = solver.findSolution().getLiterals();
+		for (int i = 0; i < 64; i++) {
+			solver.getAssumptions().push(solution[i]);
+		}
+		assertEquals(SatResult.TRUE, solver.hasSolution());
+
+		final long threadId = Thread.currentThread().getId();
+		long sink = 0;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			sink += solver.hasSolution().ordinal();
+			sink += solver.getAssumptions().getAll().size();
+		}
+
+		long start = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink += solver.hasSolution().ordinal();
+		}
+		final double hasSolutionBytes = (allocationBean.getThreadAllocatedBytes(threadId) - start)
+			/ (double) ITERATIONS;
+
+		start = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink += solver.getAssumptions().getAll().size();
+		}
+		final double boxedAssumptionBytes = (allocationBean.getThreadAllocatedBytes(threadId) - start)
+			/ (double) ITERATIONS;
+
+		Logger.logInfo(String.format("hasSolution(): %.2f bytes/call, boxed assumptions: %.2f bytes/call (%d)",
+			hasSolutionBytes, boxedAssumptionBytes, sink));
+		assertTrue(hasSolutionBytes < 16, String.valueOf(hasSolutionBytes));
+		assertTrue(hasSolutionBytes < boxedAssumptionBytes);
+	}
+
+}
@@ -0,0 +1,96 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
+import org.spldev.clauses.*;
+
+/**
+ * Tests the portfolio mode of {@link Sat4JSolver}.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolverPortfolioTest {
+
+	@Test
+	public void testPortfolioAgreesWithSingleSolver() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2010);
+		final Sat4JSolver singleSolver = new Sat4JSolver(cnf);
+		final Sat4JSolver portfolioSolver = new Sat4JSolver(cnf);
+		// a threshold of zero races every call
+		portfolioSolver.setPortfolio(3, 0);
+
+		final int variableCount = cnf.getVariableMap().getMaxIndex();
+		final Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			final int[] assignment = new int[4];
+			for (int j = 0; j < assignment.length; j++) {
+				final int var = random.nextInt(variableCount) + 1;
+				assignment[j] = random.nextBoolean() ? var : -var;
+			}
+			final SatResult expected = singleSolver.hasSolution(assignment);
+			assertEquals(expected, portfolioSolver.hasSolution(assignment));
+			if (expected == SatResult.TRUE) {
+				final int[] model = portfolioSolver.getInternalSolution();
+				assertEquals(variableCount, model.length);
+				for (final int literal : assignment) {
+					assertEquals(literal, model[Math.abs(literal) - 1]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPortfolioIsSkippedForModifiedFormula() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2007);
+		final Sat4JSolver solver = new Sat4JSolver(cnf);
+		solver.setPortfolio(2, 0);
+		final int[] solution = solver.findSolution().getLiterals();
+		solver.getFormula().push(new LiteralList(-solution[0]));
+		if (solver.hasSolution() == SatResult.TRUE) {
+			assertEquals(-solution[0], solver.getInternalSolution()[0]);
+		}
+	}
+
+	@Test
+	public void testModificationCount() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2007);
+		final Sat4JFormula formula = new Sat4JSolver(cnf).getFormula();
+		int count = formula.getModificationCount();
+		formula.push(new LiteralList(1));
+		assertNotEquals(count, count = formula.getModificationCount());
+		formula.pop();
+		assertNotEquals(count, count = formula.getModificationCount());
+		formula.pushGuarded(Collections.singletonList(new LiteralList(1)));
+		assertNotEquals(count, count = formula.getModificationCount());
+		formula.popGuarded();
+		assertNotEquals(count, formula.getModificationCount());
+	}
+
+}
@@ -0,0 +1,79 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Runs analyses with every {@link SolverProfile} on the bundled test models and
+ * reports the time needed per profile.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolverProfileBenchmarkTest {
+
+	@Test
+	public void benchmarkProfiles() {
+		for (final Path path : CNFCreator.getDimacsModels()) {
+			final CNF cnf = CNFCreator.loadDimacs(path);
+			LiteralList expectedCoreDead = null;
+			List<LiteralList> expectedAtomicSets = null;
+			final StringBuilder report = new StringBuilder(path.getParent().getParent().getFileName().toString());
+			for (final SolverProfile profile : SolverProfile.values()) {
+				final CoreDeadAnalysis coreDeadAnalysis = new CoreDeadAnalysis();
+				coreDeadAnalysis.setSolverProfile(profile);
+				long start = System.nanoTime();
+				final LiteralList coreDead = Executor.run(coreDeadAnalysis::execute, cnf).get();
+				final long coreDeadTime = System.nanoTime() - start;
+
+				final AtomicSetAnalysis atomicSetAnalysis = new AtomicSetAnalysis();
+				atomicSetAnalysis.setSolverProfile(profile);
+				start = System.nanoTime();
+				final List<LiteralList> atomicSets = Executor.run(atomicSetAnalysis::execute, cnf).get();
+				final long atomicSetTime = System.nanoTime() - start;
+
+				if (expectedCoreDead == null) {
+					expectedCoreDead = coreDead;
+					expectedAtomicSets = atomicSets;
+				} else {
+					assertTrue(expectedCoreDead.containsAll(coreDead) && coreDead.containsAll(expectedCoreDead));
+					assertEquals(expectedAtomicSets.size(), atomicSets.size());
+				}
+				report.append(String.format(" | %s: core/dead %.1f ms, atomic sets %.1f ms", profile,
+					coreDeadTime / 1_000_000.0, atomicSetTime / 1_000_000.0));
+			}
+			Logger.logInfo(report.toString());
+		}
+	}
+
+}
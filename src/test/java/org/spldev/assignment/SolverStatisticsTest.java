@@ -0,0 +1,83 @@
+/* -----------------------------------------------------------------------------
+ * Formula-Analysis-Sat4J Lib - Library to analyze propositional formulas with Sat4J.
+ * Copyright (C) 2021-2022  Sebastian Krieter
+ * 
+ * This file is part of Formula-Analysis-Sat4J Lib.
+ * 
+ * Formula-Analysis-Sat4J Lib is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Formula-Analysis-Sat4J Lib is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Formula-Analysis-Sat4J Lib.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/formula-analysis-sat4j> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.assignment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.*;
+
+import org.junit.jupiter.api.*;
+import org.spldev.analysis.sat4j.*;
+import org.spldev.analysis.sat4j.solver.*;
+import org.spldev.analysis.solver.SatSolver.*;
+import org.spldev.clauses.*;
+import org.spldev.util.job.*;
+
+/**
+ * Tests the statistics recorded by {@link AbstractSat4JSolver}.
+ *
+ * @author Sebastian Krieter
+ */
+public class SolverStatisticsTest {
+
+	@Test
+	public void testCallCounters() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.BUSYBOX_2007);
+		final Sat4JSolver solver = new Sat4JSolver(cnf);
+		solver.rememberSolutionHistory(10);
+		final AtomicLong listenerCalls = new AtomicLong();
+		solver.setListener((result, time, fromHistory) -> listenerCalls.incrementAndGet());
+
+		final int[] solution = solver.findSolution().getLiterals();
+		final SolverStatistics before = solver.getStatistics();
+		assertEquals(SatResult.TRUE, solver.hasSolution(solution[0]));
+		assertEquals(SatResult.TRUE, solver.hasSolution(solution[1]));
+		solver.getFormula().push(new LiteralList(solution[0]));
+		assertEquals(SatResult.FALSE, solver.hasSolution(-solution[0]));
+
+		final SolverStatistics statistics = solver.getStatistics().subtract(before);
+		assertEquals(3, statistics.getCalls());
+		assertEquals(2, statistics.getCalls(SatResult.TRUE));
+		assertEquals(1, statistics.getCalls(SatResult.FALSE));
+		assertEquals(0, statistics.getCalls(SatResult.TIMEOUT));
+		assertEquals(2, statistics.getHistoryHits());
+		assertTrue(statistics.getMedianTime() <= statistics.getP99Time());
+		assertTrue(statistics.getP99Time() <= statistics.getTotalTime() + (statistics.getTotalTime() / 8));
+		assertEquals(solver.getStatistics().getCalls(), listenerCalls.get());
+
+		solver.resetStatistics();
+		assertEquals(0, solver.getStatistics().getCalls());
+	}
+
+	@Test
+	public void testAnalysisStatistics() {
+		final CNF cnf = CNFCreator.loadDimacs(CNFCreator.FINANCIAL_2007);
+		final CoreDeadAnalysis analysis = new CoreDeadAnalysis();
+		Executor.run(analysis::execute, cnf).get();
+		final SolverStatistics statistics = analysis.getSolverStatistics();
+		assertNotNull(statistics);
+		assertTrue(statistics.getCalls() > 0);
+		assertTrue(statistics.getPropagations() > 0);
+	}
+
+}